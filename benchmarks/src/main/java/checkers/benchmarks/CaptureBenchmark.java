@@ -0,0 +1,75 @@
+package checkers.benchmarks;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Perft;
+import checkers.engine.Position;
+import checkers.tools.PerftReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the majority capture rule on the 10x10 board: generating the
+ * moves of one position, and a shallow perft, under either rule.
+ * {@code king-chains} gives one king over a thousand capture sequences.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class CaptureBenchmark {
+    @Param({"king-chains", "kings-and-men", "king-endgame"})
+    public String position;
+
+    @Param({"FREE", "MAJORITY"})
+    public CaptureRule rule;
+
+    @Param({"3"})
+    public int depth;
+
+    private MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer(2048);
+    private Perft perft;
+    private Position root;
+
+    @Setup
+    public void setUp() {
+        BoardGeometry geometry = BoardGeometry.INTERNATIONAL;
+        for (Object[] c : PerftReport.INTERNATIONAL_POSITIONS) {
+            if (c[0].equals(position)) {
+                root = Fen.parse((String) c[1], geometry);
+            }
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("Unknown position " + position);
+        }
+        generator = new MoveGenerator(geometry, rule);
+        perft = new Perft(geometry, depth, rule);
+    }
+
+    @Benchmark
+    public int generate() {
+        return generator.generate(root, moves);
+    }
+
+    @Benchmark
+    public long perft() {
+        return perft.run(root, depth);
+    }
+}
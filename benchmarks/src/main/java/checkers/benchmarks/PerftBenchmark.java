@@ -0,0 +1,76 @@
+package checkers.benchmarks;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.Perft;
+import checkers.engine.Position;
+import checkers.tools.PerftReport;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft throughput on the report positions. The {@code nodes} counter gives
+ * nodes/second; run with {@code -prof gc} and divide
+ * {@code gc.alloc.rate.norm} by the node count for allocations per node.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+    @Param({"initial", "kings-vs-men", "flying-kings", "man-chains", "king-endgame"})
+    public String position;
+
+    @Param({"6"})
+    public int depth;
+
+    private Perft perft;
+    private Position root;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        for (Object[] c : PerftReport.POSITIONS) {
+            if (c[0].equals(position)) {
+                root = Fen.parse((String) c[1], geometry);
+            }
+        }
+        if (root == null) {
+            throw new IllegalArgumentException("Unknown position " + position);
+        }
+        perft = new Perft(geometry, depth);
+    }
+
+    @Benchmark
+    public long perft(Nodes counter) {
+        long nodes = perft.run(root, depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
@@ -0,0 +1,121 @@
+package checkers.benchmarks;
+
+import checkers.archive.GameArchiveWriter;
+import checkers.archive.GameRecord;
+import checkers.archive.PositionIndex;
+import checkers.archive.PositionStats;
+import checkers.engine.BoardGeometry;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Time of one {@link PositionIndex#lookup} over an archive of random
+ * games, against the target of under a millisecond. {@code initial} looks
+ * up the start position, which every game shares; {@code sampled} cycles
+ * through positions picked from the games, most of which occur once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PositionIndexBenchmark {
+    private static final int MAX_PLIES = 120;
+    private static final int SAMPLES = 4096;
+
+    @Param({"10000", "100000"})
+    public int games;
+
+    @Param({"20"})
+    public int limit;
+
+    private Path directory;
+    private PositionIndex index;
+    private final PositionStats stats = new PositionStats();
+    private final long[] sampled = new long[SAMPLES];
+    private long initial;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("position-index-benchmark");
+        Path archive = directory.resolve("games.wca");
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        MoveGenerator generator = new MoveGenerator(geometry);
+        MoveBuffer moves = new MoveBuffer();
+        int[] path = new int[MoveBuffer.MAX_PATH];
+        GameRecord game = new GameRecord();
+        SplittableRandom random = new SplittableRandom(1);
+        initial = Position.initial(geometry).key();
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            for (int g = 0; g < games; g++) {
+                game.clear();
+                game.setResult(random.nextInt(4));
+                Position position = Position.initial(geometry);
+                int plies = random.nextInt(MAX_PLIES + 1);
+                int sample = random.nextInt(MAX_PLIES + 1);
+                for (int ply = 0; ply < plies; ply++) {
+                    int n = generator.generate(position, moves);
+                    if (n == 0) break;
+                    int i = random.nextInt(n);
+                    int hops = moves.pathLength(i);
+                    for (int h = 0; h < hops; h++) {
+                        path[h] = moves.pathSquare(i, h);
+                    }
+                    game.addMove(moves.from(i), path, hops, 1000);
+                    position.play(moves, i);
+                    if (ply == sample) {
+                        sampled[g % SAMPLES] = position.key();
+                    }
+                }
+                writer.append(game);
+            }
+        }
+        index = new PositionIndex(PositionIndex.directoryFor(archive));
+        index.update(archive);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        index.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long initial() {
+        return index.lookup(initial, limit, stats).occurrences();
+    }
+
+    @Benchmark
+    public long sampled() {
+        long key = sampled[next];
+        next = (next + 1) & (SAMPLES - 1);
+        return index.lookup(key, limit, stats).occurrences();
+    }
+}
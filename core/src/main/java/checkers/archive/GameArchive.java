@@ -0,0 +1,31 @@
+package checkers.archive;
+
+/**
+ * Layout of a binary game archive.
+ * <p>
+ * A 16-byte header (magic, version, end of data) is followed by records,
+ * each a varint byte length and then:
+ * <pre>
+ * varint  flags        bit 0: custom start position, bits 1-2: result
+ * varlong start time   epoch milliseconds
+ * varint  base, increment (milliseconds)
+ * string  white, red   varint length + UTF-8
+ * string  start FEN    only with flag bit 0
+ * varint  plies
+ * per ply: varint from, varint hops, hops x varint square, varint milliseconds spent
+ * </pre>
+ * Squares use {@code BoardGeometry} numbering, so on the standard board
+ * every square and most move times fit in one byte.
+ */
+public final class GameArchive {
+    public static final int MAGIC = 0x434B4741;
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    static final int END_OFFSET = 8;
+
+    static final int FLAG_START_FEN = 1;
+    static final int RESULT_SHIFT = 1;
+
+    private GameArchive() {
+    }
+}
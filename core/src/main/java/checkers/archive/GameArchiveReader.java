@@ -0,0 +1,156 @@
+package checkers.archive;
+
+import checkers.engine.MoveBuffer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams games out of an archive. The whole file is mapped as one segment
+ * and the operating system pages it in as the reader advances, so archives
+ * far larger than the heap are scanned without being loaded. A record that
+ * runs past the end of the archive or does not decode to its declared
+ * length is reported as an {@link IOException} naming its offset.
+ */
+public final class GameArchiveReader implements AutoCloseable {
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment data;
+    private final long end;
+    private long position = GameArchive.HEADER_BYTES;
+    /** Offset and end of the record being decoded. */
+    private long recordStart;
+    private long recordEnd;
+    private byte[] text = new byte[64];
+    private final int[] path = new int[MoveBuffer.MAX_PATH];
+
+    public GameArchiveReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < GameArchive.HEADER_BYTES) {
+                arena.close();
+                throw new IOException("Not a game archive: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+        if (data.get(ValueLayout.JAVA_INT_UNALIGNED, 0) != GameArchive.MAGIC) {
+            arena.close();
+            throw new IOException("Not a game archive: " + path);
+        }
+        short version = data.get(ValueLayout.JAVA_SHORT_UNALIGNED, 4);
+        if (version != GameArchive.VERSION) {
+            arena.close();
+            throw new IOException("Unsupported archive version " + version);
+        }
+        end = Math.min(data.byteSize(), data.get(ValueLayout.JAVA_LONG_UNALIGNED, GameArchive.END_OFFSET));
+    }
+
+    /** Offset of the next record; pass it to {@link #seek} to come back to it. */
+    public long position() {
+        return position;
+    }
+
+    public void seek(long offset) {
+        if (offset < GameArchive.HEADER_BYTES || offset > end) {
+            throw new IllegalArgumentException("Offset outside the archive: " + offset);
+        }
+        position = offset;
+    }
+
+    public boolean hasNext() {
+        return position < end;
+    }
+
+    /** Moves past the next game without decoding it. */
+    public boolean skip() throws IOException {
+        if (position >= end) return false;
+        beginRecord();
+        position = recordEnd;
+        return true;
+    }
+
+    /** Decodes the next game into {@code game}; returns {@code false} at the end. */
+    public boolean next(GameRecord game) throws IOException {
+        if (position >= end) return false;
+        beginRecord();
+
+        game.clear();
+        int flags = (int) readVarint();
+        game.setResult((flags >>> GameArchive.RESULT_SHIFT) & 3);
+        game.setStartEpochMillis(readVarint());
+        game.setTimeControl((int) readVarint(), (int) readVarint());
+        String white = readString();
+        game.setPlayers(white, readString());
+        if ((flags & GameArchive.FLAG_START_FEN) != 0) {
+            game.setStartFen(readString());
+        }
+        int plies = (int) readVarint();
+        for (int ply = 0; ply < plies; ply++) {
+            int from = (int) readVarint();
+            long hops = readVarint();
+            if (hops > MoveBuffer.MAX_PATH) {
+                throw corrupt(hops + " hops in one move");
+            }
+            for (int h = 0; h < hops; h++) {
+                path[h] = (int) readVarint();
+            }
+            game.addMove(from, path, (int) hops, (int) readVarint());
+        }
+
+        if (position != recordEnd) {
+            throw corrupt("decodes to " + (position - recordStart) + " bytes, not " + (recordEnd - recordStart));
+        }
+        return true;
+    }
+
+    /** Reads the length of the record at {@link #position} and checks that it ends within the archive. */
+    private void beginRecord() throws IOException {
+        recordStart = position;
+        recordEnd = end;
+        long length = readVarint();
+        if (length > end - position) {
+            throw corrupt("runs past the end of the archive at " + end);
+        }
+        recordEnd = position + length;
+    }
+
+    private IOException corrupt(String why) {
+        return new IOException("Corrupt archive record at " + recordStart + ": " + why);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            if (position >= recordEnd) {
+                throw corrupt("truncated");
+            }
+            byte b = data.get(ValueLayout.JAVA_BYTE, position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw corrupt("varint longer than 64 bits");
+    }
+
+    private String readString() throws IOException {
+        long longLength = readVarint();
+        if (longLength > recordEnd - position) {
+            throw corrupt("string runs past the record");
+        }
+        int length = (int) longLength;
+        if (length > text.length) {
+            text = new byte[Math.max(length, text.length * 2)];
+        }
+        MemorySegment.copy(data, ValueLayout.JAVA_BYTE, position, text, 0, length);
+        position += length;
+        return new String(text, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
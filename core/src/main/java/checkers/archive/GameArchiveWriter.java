@@ -0,0 +1,154 @@
+package checkers.archive;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Appends games to an archive through a memory-mapped window that slides
+ * along the end of the file. The header's end-of-data field is updated
+ * after every game, so a crashed writer loses at most the game it was
+ * writing; anything after that mark is ignored and overwritten.
+ */
+public final class GameArchiveWriter implements AutoCloseable {
+    private static final long WINDOW_BYTES = 8L << 20;
+
+    private final FileChannel channel;
+    private final Arena headerArena = Arena.ofShared();
+    private final MemorySegment header;
+    private Arena windowArena;
+    private MemorySegment window;
+    private long windowStart;
+    private long end;
+
+    private byte[] record = new byte[512];
+    private int used;
+
+    public GameArchiveWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < GameArchive.HEADER_BYTES;
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, GameArchive.HEADER_BYTES, headerArena);
+        if (fresh) {
+            header.set(ValueLayout.JAVA_INT_UNALIGNED, 0, GameArchive.MAGIC);
+            header.set(ValueLayout.JAVA_SHORT_UNALIGNED, 4, GameArchive.VERSION);
+            header.set(ValueLayout.JAVA_LONG_UNALIGNED, GameArchive.END_OFFSET, GameArchive.HEADER_BYTES);
+        } else if (header.get(ValueLayout.JAVA_INT_UNALIGNED, 0) != GameArchive.MAGIC) {
+            close();
+            throw new IOException("Not a game archive: " + path);
+        }
+        end = header.get(ValueLayout.JAVA_LONG_UNALIGNED, GameArchive.END_OFFSET);
+    }
+
+    /** Bytes of the archive in use, header included. */
+    public long size() {
+        return end;
+    }
+
+    public void append(GameRecord game) throws IOException {
+        used = 0;
+        boolean customStart = game.startFen() != null;
+        putVarint((customStart ? GameArchive.FLAG_START_FEN : 0) | game.result() << GameArchive.RESULT_SHIFT);
+        putVarint(game.startEpochMillis());
+        putVarint(game.baseMillis());
+        putVarint(game.incrementMillis());
+        putString(game.white());
+        putString(game.red());
+        if (customStart) {
+            putString(game.startFen());
+        }
+        putVarint(game.plies());
+        for (int ply = 0; ply < game.plies(); ply++) {
+            int hops = game.pathLength(ply);
+            putVarint(game.from(ply));
+            putVarint(hops);
+            for (int h = 0; h < hops; h++) {
+                putVarint(game.pathSquare(ply, h));
+            }
+            putVarint(Math.max(0, game.moveMillis(ply)));
+        }
+
+        int prefix = varintSize(used);
+        ensureWindow(prefix + used);
+        long offset = end - windowStart;
+        long length = used;
+        for (int i = 0; i < prefix; i++) {
+            int b = (int) (length & 0x7F);
+            length >>>= 7;
+            window.set(ValueLayout.JAVA_BYTE, offset++, (byte) (length != 0 ? b | 0x80 : b));
+        }
+        MemorySegment.copy(record, 0, window, ValueLayout.JAVA_BYTE, offset, used);
+        end += prefix + used;
+        header.set(ValueLayout.JAVA_LONG_UNALIGNED, GameArchive.END_OFFSET, end);
+    }
+
+    private void ensureWindow(int bytes) throws IOException {
+        if (window != null && end + bytes <= windowStart + window.byteSize()) return;
+        unmapWindow();
+        windowStart = end;
+        windowArena = Arena.ofShared();
+        window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_BYTES, bytes), windowArena);
+    }
+
+    private void unmapWindow() {
+        if (windowArena != null) {
+            window.force();
+            windowArena.close();
+            windowArena = null;
+            window = null;
+        }
+    }
+
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        putByte((int) value);
+    }
+
+    private void putString(String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        putVarint(bytes.length);
+        for (byte b : bytes) {
+            putByte(b);
+        }
+    }
+
+    private void putByte(int b) {
+        if (used == record.length) {
+            record = Arrays.copyOf(record, used * 2);
+        }
+        record[used++] = (byte) b;
+    }
+
+    private static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        unmapWindow();
+        if (headerArena.scope().isAlive()) {
+            header.force();
+            headerArena.close();
+        }
+        if (channel.isOpen()) {
+            if (end >= GameArchive.HEADER_BYTES && channel.size() > end) {
+                channel.truncate(end);
+            }
+            channel.close();
+        }
+    }
+}
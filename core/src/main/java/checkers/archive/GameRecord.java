@@ -0,0 +1,152 @@
+package checkers.archive;
+
+import java.util.Arrays;
+
+/**
+ * One archived game: a small header and its moves. Moves are kept in flat
+ * primitive arrays so a reader can refill the same record for every game
+ * it scans.
+ */
+public final class GameRecord {
+    public static final int RESULT_UNKNOWN = 0;
+    public static final int RESULT_WHITE_WINS = 1;
+    public static final int RESULT_RED_WINS = 2;
+    public static final int RESULT_DRAW = 3;
+
+    private String white = "";
+    private String red = "";
+    private String startFen;
+    private int result = RESULT_UNKNOWN;
+    private long startEpochMillis;
+    private int baseMillis;
+    private int incrementMillis;
+
+    private int plies;
+    private int[] moveOffset = new int[64];
+    private int[] moveMillis = new int[64];
+    private byte[] squares = new byte[256];
+    private int squaresUsed;
+
+    public void clear() {
+        white = "";
+        red = "";
+        startFen = null;
+        result = RESULT_UNKNOWN;
+        startEpochMillis = 0;
+        baseMillis = 0;
+        incrementMillis = 0;
+        plies = 0;
+        squaresUsed = 0;
+    }
+
+    public void setPlayers(String white, String red) {
+        this.white = white == null ? "" : white;
+        this.red = red == null ? "" : red;
+    }
+
+    public void setTimeControl(int baseMillis, int incrementMillis) {
+        this.baseMillis = baseMillis;
+        this.incrementMillis = incrementMillis;
+    }
+
+    public void setStartEpochMillis(long startEpochMillis) {
+        this.startEpochMillis = startEpochMillis;
+    }
+
+    /** Start position in {@code Fen} format, or {@code null} for the initial position. */
+    public void setStartFen(String startFen) {
+        this.startFen = startFen;
+    }
+
+    public void setResult(int result) {
+        if (result < RESULT_UNKNOWN || result > RESULT_DRAW) {
+            throw new IllegalArgumentException("Unknown result " + result);
+        }
+        this.result = result;
+    }
+
+    public String white() {
+        return white;
+    }
+
+    public String red() {
+        return red;
+    }
+
+    public String startFen() {
+        return startFen;
+    }
+
+    public int result() {
+        return result;
+    }
+
+    public long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public int baseMillis() {
+        return baseMillis;
+    }
+
+    public int incrementMillis() {
+        return incrementMillis;
+    }
+
+    public int plies() {
+        return plies;
+    }
+
+    public int from(int ply) {
+        return squares[moveOffset[ply]];
+    }
+
+    public int pathLength(int ply) {
+        return squares[moveOffset[ply] + 1];
+    }
+
+    public int pathSquare(int ply, int hop) {
+        return squares[moveOffset[ply] + 2 + hop];
+    }
+
+    public int to(int ply) {
+        return pathSquare(ply, pathLength(ply) - 1);
+    }
+
+    public int moveMillis(int ply) {
+        return moveMillis[ply];
+    }
+
+    public void setMoveMillis(int ply, int millis) {
+        moveMillis[ply] = millis;
+    }
+
+    public void addMove(int from, int[] path, int hops, int millis) {
+        if (hops < 1) {
+            throw new IllegalArgumentException("A move needs at least one landing square");
+        }
+        if (plies == moveOffset.length) {
+            moveOffset = Arrays.copyOf(moveOffset, plies * 2);
+            moveMillis = Arrays.copyOf(moveMillis, plies * 2);
+        }
+        if (squaresUsed + 2 + hops > squares.length) {
+            squares = Arrays.copyOf(squares, Math.max(squares.length * 2, squaresUsed + 2 + hops));
+        }
+        moveOffset[plies] = squaresUsed;
+        moveMillis[plies] = millis;
+        squares[squaresUsed++] = (byte) from;
+        squares[squaresUsed++] = (byte) hops;
+        for (int h = 0; h < hops; h++) {
+            squares[squaresUsed++] = (byte) path[h];
+        }
+        plies++;
+    }
+
+    /** Drops moves from {@code plies} onwards. */
+    public void truncate(int plies) {
+        if (plies < this.plies) {
+            this.plies = plies;
+            squaresUsed = moveOffset[plies];
+        }
+    }
+}
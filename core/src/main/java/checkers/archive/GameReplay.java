@@ -0,0 +1,79 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.engine.UndoStack;
+
+/**
+ * Steps through a recorded game on one position. Moving forward makes the
+ * recorded move and moving back unmakes it, so seeking to any ply costs only
+ * the distance travelled and never rebuilds the board from the start.
+ */
+public final class GameReplay {
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final MoveGenerator generator = new MoveGenerator(geometry);
+    private final MoveBuffer moves = new MoveBuffer();
+    private final Position position = new Position(geometry);
+    private final UndoStack undo = new UndoStack(256);
+    private GameRecord game;
+
+    /** Starts replaying {@code game} from its first position. */
+    public void load(GameRecord game) {
+        this.game = game;
+        if (game.startFen() != null) {
+            position.copyFrom(Fen.parse(game.startFen(), geometry));
+        } else {
+            position.copyFrom(Position.initial(geometry));
+        }
+        undo.clear();
+    }
+
+    public Position position() {
+        return position;
+    }
+
+    public int ply() {
+        return undo.size();
+    }
+
+    /** Plays the next recorded move, returning false at the end of the game. */
+    public boolean forward() {
+        int ply = undo.size();
+        if (ply >= game.plies()) return false;
+        int n = generator.generate(position, moves);
+        for (int i = 0; i < n; i++) {
+            if (matches(i, ply)) {
+                position.make(moves, i, undo);
+                return true;
+            }
+        }
+        throw new IllegalStateException("Illegal move at ply " + (ply + 1));
+    }
+
+    /** Takes back the last move, returning false at the start of the game. */
+    public boolean back() {
+        if (undo.isEmpty()) return false;
+        position.unmake(undo);
+        return true;
+    }
+
+    public void seek(int ply) {
+        if (ply < 0 || ply > game.plies()) {
+            throw new IllegalArgumentException("Ply " + ply + " outside 0.." + game.plies());
+        }
+        while (undo.size() > ply) back();
+        while (undo.size() < ply) forward();
+    }
+
+    private boolean matches(int index, int ply) {
+        int hops = game.pathLength(ply);
+        if (moves.from(index) != game.from(ply) || moves.pathLength(index) != hops) return false;
+        for (int h = 0; h < hops; h++) {
+            if (moves.pathSquare(index, h) != game.pathSquare(ply, h)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Portable Draughts Notation for the Russian game ({@code GameType 25}):
+ * algebraic squares with White's first rank as 1, {@code -} for a step and
+ * {@code :} between capture landings. Red plays the role of PDN's Black.
+ * Move times travel as {@code [%emt seconds]} comments. Games are checked
+ * against the move generator on the way out; {@link PdnReader} reads them
+ * back.
+ */
+public final class Pdn {
+    static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy.MM.dd");
+    private static final int LINE_LENGTH = 80;
+
+    private Pdn() {
+    }
+
+    public static void write(GameRecord game, Appendable out) throws IOException {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        String result = resultText(game.result());
+        tag(out, "Event", "Warcaby");
+        if (game.startEpochMillis() != 0) {
+            tag(out, "Date", DATE.format(Instant.ofEpochMilli(game.startEpochMillis()).atZone(ZoneOffset.UTC)));
+        }
+        tag(out, "White", game.white());
+        tag(out, "Black", game.red());
+        tag(out, "Result", result);
+        tag(out, "GameType", "25");
+        if (game.baseMillis() > 0) {
+            tag(out, "TimeControl", game.baseMillis() / 1000 + "+" + game.incrementMillis() / 1000);
+        }
+        Position position = game.startFen() != null
+                ? Fen.parse(game.startFen(), geometry)
+                : Position.initial(geometry);
+        if (game.startFen() != null) {
+            tag(out, "FEN", toPdnFen(position));
+        }
+        out.append('\n');
+
+        MoveGenerator generator = new MoveGenerator(geometry);
+        MoveBuffer moves = new MoveBuffer();
+        StringBuilder line = new StringBuilder();
+        boolean redToMove = position.isRedToMove();
+        int moveNumber = 1;
+        for (int ply = 0; ply < game.plies(); ply++) {
+            StringBuilder token = new StringBuilder();
+            if (!redToMove) {
+                token.append(moveNumber).append(". ");
+            } else if (ply == 0) {
+                token.append(moveNumber).append("... ");
+            }
+            int index = find(moves, generator.generate(position, moves), game, ply);
+            boolean capture = moves.isCapture(index);
+            position.play(moves, index);
+            token.append(square(geometry, game.from(ply)));
+            for (int h = 0; h < game.pathLength(ply); h++) {
+                token.append(capture ? ':' : '-').append(square(geometry, game.pathSquare(ply, h)));
+            }
+            token.append(String.format(" {[%%emt %d.%03d]}", game.moveMillis(ply) / 1000, game.moveMillis(ply) % 1000));
+            appendWrapped(out, line, token);
+            if (redToMove) moveNumber++;
+            redToMove = !redToMove;
+        }
+        appendWrapped(out, line, new StringBuilder(result));
+        out.append(line).append("\n\n");
+    }
+
+    private static int find(MoveBuffer moves, int n, GameRecord game, int ply) {
+        for (int i = 0; i < n; i++) {
+            if (moves.from(i) != game.from(ply) || moves.pathLength(i) != game.pathLength(ply)) continue;
+            boolean same = true;
+            for (int h = 0; h < game.pathLength(ply) && same; h++) {
+                same = moves.pathSquare(i, h) == game.pathSquare(ply, h);
+            }
+            if (same) return i;
+        }
+        throw new IllegalArgumentException("Illegal move at ply " + (ply + 1));
+    }
+
+    static String square(BoardGeometry geometry, int square) {
+        return "" + (char) ('a' + geometry.x(square)) + (geometry.height - geometry.y(square));
+    }
+
+    static int parseSquare(BoardGeometry geometry, String text) {
+        text = text.trim();
+        if (text.length() < 2) {
+            throw new IllegalArgumentException("Bad square: " + text);
+        }
+        int x = Character.toLowerCase(text.charAt(0)) - 'a';
+        int y = geometry.height - Integer.parseInt(text.substring(1));
+        int square = geometry.square(x, y);
+        if (square < 0) {
+            throw new IllegalArgumentException("Not a playable square: " + text);
+        }
+        return square;
+    }
+
+    static String toPdnFen(Position position) {
+        BoardGeometry geometry = position.getGeometry();
+        StringBuilder sb = new StringBuilder(position.isRedToMove() ? "B" : "W");
+        for (boolean red : new boolean[]{false, true}) {
+            sb.append(':').append(red ? 'B' : 'W');
+            long pieces = position.pieces(red);
+            boolean first = true;
+            while (pieces != 0) {
+                int s = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                if (!first) sb.append(',');
+                if (position.isKing(s)) sb.append('K');
+                sb.append(square(geometry, s));
+                first = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    static void fromPdnFen(String fen, Position position) {
+        BoardGeometry geometry = position.getGeometry();
+        position.clear();
+        String[] fields = fen.trim().split(":");
+        position.setRedToMove(fields[0].trim().equalsIgnoreCase("B"));
+        for (int f = 1; f < fields.length; f++) {
+            String field = fields[f].trim();
+            if (field.isEmpty()) continue;
+            boolean red = Character.toUpperCase(field.charAt(0)) == 'B';
+            for (String piece : field.substring(1).split(",")) {
+                piece = piece.trim();
+                if (piece.isEmpty()) continue;
+                boolean king = piece.charAt(0) == 'K';
+                position.put(parseSquare(geometry, king ? piece.substring(1) : piece), red, king);
+            }
+        }
+    }
+
+    private static void tag(Appendable out, String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"")
+                .append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"]\n");
+    }
+
+    private static void appendWrapped(Appendable out, StringBuilder line, CharSequence token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) line.append(' ');
+        line.append(token);
+    }
+
+    private static String resultText(int result) {
+        return switch (result) {
+            case GameRecord.RESULT_WHITE_WINS -> "1-0";
+            case GameRecord.RESULT_RED_WINS -> "0-1";
+            case GameRecord.RESULT_DRAW -> "1/2-1/2";
+            default -> "*";
+        };
+    }
+}
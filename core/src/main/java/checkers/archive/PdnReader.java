@@ -0,0 +1,235 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Reads games written in the dialect of {@link Pdn} one at a time. Moves
+ * are replayed through the move generator, so a capture may be written with
+ * or without its intermediate squares, and an illegal move is reported
+ * rather than archived. Variations and {@code ;} comments are skipped.
+ */
+public final class PdnReader {
+    private final Reader in;
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final MoveGenerator generator = new MoveGenerator(geometry);
+    private final MoveBuffer moves = new MoveBuffer();
+    private final Position initial = Position.initial(geometry);
+    private final Position position = new Position(geometry);
+    private final int[] squares = new int[MoveBuffer.MAX_PATH + 1];
+    private final StringBuilder token = new StringBuilder();
+    private int peeked = -2;
+    private String pendingTag;
+
+    public PdnReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Reads the next game into {@code game}; returns {@code false} when there are no more. */
+    public boolean next(GameRecord game) throws IOException {
+        game.clear();
+        position.copyFrom(initial);
+        String white = "";
+        String red = "";
+        boolean any = false;
+        boolean inMoves = false;
+
+        String t = pendingTag != null ? pendingTag : nextToken();
+        pendingTag = null;
+        for (; t != null; t = nextToken()) {
+            if (t.startsWith("[")) {
+                if (inMoves) {
+                    pendingTag = t;
+                    break;
+                }
+                any = true;
+                String name = tagName(t);
+                String value = tagValue(t);
+                switch (name) {
+                    case "White" -> white = value;
+                    case "Black" -> red = value;
+                    case "Result" -> game.setResult(parseResult(value));
+                    case "Date" -> game.setStartEpochMillis(parseDate(value));
+                    case "TimeControl" -> {
+                        String[] parts = value.split("\\+");
+                        game.setTimeControl(Integer.parseInt(parts[0].trim()) * 1000,
+                                parts.length > 1 ? Integer.parseInt(parts[1].trim()) * 1000 : 0);
+                    }
+                    case "FEN" -> {
+                        Pdn.fromPdnFen(value, position);
+                        game.setStartFen(Fen.format(position));
+                    }
+                    default -> {
+                    }
+                }
+                continue;
+            }
+
+            any = true;
+            inMoves = true;
+            if (t.startsWith("{")) {
+                int emt = t.indexOf("%emt");
+                if (emt >= 0 && game.plies() > 0) {
+                    String seconds = t.substring(emt + 4).replaceAll("[^0-9.]", "");
+                    game.setMoveMillis(game.plies() - 1, (int) Math.round(Double.parseDouble(seconds) * 1000));
+                }
+            } else if (isResult(t)) {
+                game.setResult(parseResult(t));
+                break;
+            } else {
+                String move = t.replaceFirst("^[0-9]+\\.+", "");
+                if (!move.isEmpty()) {
+                    playMove(game, move);
+                }
+            }
+        }
+        game.setPlayers(white, red);
+        return any;
+    }
+
+    private void playMove(GameRecord game, String text) {
+        String[] parts = text.split("[-:x]");
+        if (parts.length < 2 || parts.length > squares.length) {
+            throw new IllegalArgumentException("Not a move: " + text);
+        }
+        for (int i = 0; i < parts.length; i++) {
+            squares[i] = Pdn.parseSquare(geometry, parts[i]);
+        }
+        int given = parts.length - 1;
+
+        int n = generator.generate(position, moves);
+        int found = -1;
+        for (int i = 0; i < n && found < 0; i++) {
+            if (moves.from(i) == squares[0] && matches(i, given, true)) found = i;
+        }
+        for (int i = 0; i < n; i++) {
+            if (found >= 0 && moves.pathLength(found) == given) break;
+            if (moves.from(i) != squares[0] || !matches(i, given, false)) continue;
+            if (found >= 0) {
+                throw new IllegalArgumentException("Ambiguous move " + text + " at ply " + (game.plies() + 1));
+            }
+            found = i;
+        }
+        if (found < 0) {
+            throw new IllegalArgumentException("Illegal move " + text + " at ply " + (game.plies() + 1));
+        }
+
+        int length = moves.pathLength(found);
+        for (int h = 0; h < length; h++) {
+            squares[h] = moves.pathSquare(found, h);
+        }
+        game.addMove(moves.from(found), squares, length, 0);
+        position.play(moves, found);
+    }
+
+    /** Whether move {@code i} lands on the given squares, in order, possibly with more landings between. */
+    private boolean matches(int i, int given, boolean exact) {
+        int length = moves.pathLength(i);
+        if (moves.to(i) != squares[given] || (exact && length != given)) return false;
+        int matched = 0;
+        for (int h = 0; h < length && matched < given; h++) {
+            if (moves.pathSquare(i, h) == squares[matched + 1]) matched++;
+        }
+        return matched == given;
+    }
+
+    private String nextToken() throws IOException {
+        int c = read();
+        while (c >= 0 && (Character.isWhitespace(c) || c == ';' || c == '(')) {
+            if (c == ';') {
+                while (c >= 0 && c != '\n') c = read();
+            } else if (c == '(') {
+                int depth = 1;
+                while (depth > 0 && (c = read()) >= 0) {
+                    if (c == '(') depth++;
+                    if (c == ')') depth--;
+                }
+            }
+            c = read();
+        }
+        if (c < 0) return null;
+
+        token.setLength(0);
+        token.append((char) c);
+        if (c == '[' || c == '{') {
+            char close = c == '[' ? ']' : '}';
+            boolean quoted = false;
+            while ((c = read()) >= 0) {
+                token.append((char) c);
+                if (c == '\\' && quoted) {
+                    int escaped = read();
+                    if (escaped >= 0) token.append((char) escaped);
+                    continue;
+                }
+                if (c == '"') quoted = !quoted;
+                if (c == close && !quoted) break;
+            }
+            return token.toString();
+        }
+        while ((c = peek()) >= 0 && !Character.isWhitespace(c) && c != '{' && c != '[' && c != '(' && c != ';') {
+            token.append((char) read());
+        }
+        return token.toString();
+    }
+
+    private int read() throws IOException {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private int peek() throws IOException {
+        if (peeked == -2) {
+            peeked = in.read();
+        }
+        return peeked;
+    }
+
+    private static String tagName(String tag) {
+        int end = 1;
+        while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != ']') end++;
+        return tag.substring(1, end);
+    }
+
+    private static String tagValue(String tag) {
+        int open = tag.indexOf('"');
+        int close = tag.lastIndexOf('"');
+        if (open < 0 || close <= open) return "";
+        return tag.substring(open + 1, close).replace("\\\"", "\"").replace("\\\\", "\\");
+    }
+
+    private static boolean isResult(String token) {
+        return switch (token) {
+            case "1-0", "0-1", "1/2-1/2", "*", "2-0", "0-2", "1-1" -> true;
+            default -> false;
+        };
+    }
+
+    private static int parseResult(String text) {
+        return switch (text) {
+            case "1-0", "2-0" -> GameRecord.RESULT_WHITE_WINS;
+            case "0-1", "0-2" -> GameRecord.RESULT_RED_WINS;
+            case "1/2-1/2", "1-1" -> GameRecord.RESULT_DRAW;
+            default -> GameRecord.RESULT_UNKNOWN;
+        };
+    }
+
+    private static long parseDate(String value) {
+        try {
+            return LocalDate.parse(value, Pdn.DATE).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+}
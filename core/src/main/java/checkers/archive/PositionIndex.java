@@ -0,0 +1,344 @@
+package checkers.archive;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Every position of every game in an archive, by Zobrist key: which moves
+ * were played from it, how those games ended, and where it occurred.
+ * <p>
+ * The index is a directory of immutable {@link PositionSegment} files,
+ * each covering a contiguous byte range of the archive. {@link #update}
+ * indexes the games appended since the last call into a new segment, then
+ * merges the newest segments whenever {@value #MERGE_FACTOR} of them are
+ * about the same size, so a lookup searches a few dozen sorted, mapped key
+ * tables at most however many games there are. A segment is named after
+ * its range and only appears once written; one left behind by a merge that
+ * did not finish deleting its inputs lies inside the merged range and is
+ * deleted on open.
+ * <p>
+ * Not thread-safe: use an index from one thread at a time.
+ */
+public final class PositionIndex implements AutoCloseable {
+    static final String PREFIX = "positions-";
+    static final String SUFFIX = ".cpx";
+    static final int MERGE_FACTOR = 4;
+    /** Postings gathered in memory before they are written as a segment. */
+    private static final int CHUNK_POSTINGS = 1 << 21;
+    private static final long LEVEL_BYTES = 1L << 20;
+
+    private final Path directory;
+    private final List<PositionSegment> segments = new ArrayList<>();
+    private final PositionStats block = new PositionStats();
+
+    private int size;
+    private long[] keys = new long[1024];
+    private int[] moves = new int[1024];
+    private byte[] results = new byte[1024];
+    private long[] gameOffsets = new long[1024];
+    private int[] plies = new int[1024];
+
+    public PositionIndex(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        List<PositionSegment> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    found.add(new PositionSegment(file));
+                }
+            }
+        }
+        found.sort(Comparator.comparingLong((PositionSegment s) -> s.archiveStart)
+                .thenComparing(s -> -s.archiveEnd));
+        for (PositionSegment segment : found) {
+            if (segment.archiveEnd <= indexedEnd()) {
+                segment.close();
+                Files.delete(segment.path);
+            } else if (segment.archiveStart != indexedEnd()) {
+                found.forEach(PositionSegment::close);
+                throw new IOException("Position index " + directory + " has a gap at " + indexedEnd()
+                        + "; delete it to rebuild");
+            } else {
+                segments.add(segment);
+            }
+        }
+    }
+
+    /** The index kept next to {@code archive}, {@code games.ckga.idx} for {@code games.ckga}. */
+    public static Path directoryFor(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".idx");
+    }
+
+    /** Archive offset up to which games are indexed. */
+    public long indexedEnd() {
+        return segments.isEmpty() ? GameArchive.HEADER_BYTES : segments.get(segments.size() - 1).archiveEnd;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Fills {@code stats} with what the index knows about the position with
+     * Zobrist key {@code key}, listing at most {@code limit} occurrences.
+     */
+    public PositionStats lookup(long key, int limit, PositionStats stats) {
+        stats.clear(limit);
+        for (PositionSegment segment : segments) {
+            long i = segment.find(key);
+            if (i >= 0) {
+                segment.read(i, stats);
+            }
+        }
+        stats.sortByGames();
+        return stats;
+    }
+
+    /**
+     * Indexes the games of {@code archive} past {@link #indexedEnd()} and
+     * returns how many there were. A game is indexed up to its first
+     * illegal move, if any, the position before it counting as where the
+     * game ended. Chunks written before a failure stay indexed.
+     */
+    public int update(Path archive) throws IOException {
+        GameRecord game = new GameRecord();
+        GameReplay replay = new GameReplay();
+        int games = 0;
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            long chunkStart = indexedEnd();
+            try {
+                reader.seek(chunkStart);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Position index " + directory + " covers more than " + archive
+                        + "; delete it to rebuild");
+            }
+            while (reader.hasNext()) {
+                long offset = reader.position();
+                reader.next(game);
+                add(game, offset, replay);
+                games++;
+                if (size >= CHUNK_POSTINGS) {
+                    writeChunk(chunkStart, reader.position());
+                    chunkStart = reader.position();
+                }
+            }
+            if (chunkStart < reader.position()) {
+                writeChunk(chunkStart, reader.position());
+            }
+        } finally {
+            // Postings of a chunk that was not written would land in the next one.
+            size = 0;
+        }
+        merge();
+        return games;
+    }
+
+    private void add(GameRecord game, long offset, GameReplay replay) {
+        replay.load(game);
+        int result = game.result();
+        int ply = 0;
+        for (; ply < game.plies(); ply++) {
+            long key = replay.position().key();
+            try {
+                replay.forward();
+            } catch (IllegalStateException e) {
+                break;
+            }
+            add(key, PositionStats.moveCode(game.from(ply), game.to(ply)), result, offset, ply);
+        }
+        add(replay.position().key(), 0, result, offset, ply);
+    }
+
+    private void add(long key, int move, int result, long offset, int ply) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            moves = Arrays.copyOf(moves, capacity);
+            results = Arrays.copyOf(results, capacity);
+            gameOffsets = Arrays.copyOf(gameOffsets, capacity);
+            plies = Arrays.copyOf(plies, capacity);
+        }
+        keys[size] = key;
+        moves[size] = move;
+        results[size] = (byte) result;
+        gameOffsets[size] = offset;
+        plies[size] = ply;
+        size++;
+    }
+
+    /** Writes the gathered postings, which cover archive bytes {@code start} to {@code end}, as a segment. */
+    private void writeChunk(long start, long end) throws IOException {
+        int[] order = sortByKey();
+        Path path = segmentPath(start, end);
+        try (PositionSegmentWriter writer = new PositionSegmentWriter(path, start, end)) {
+            int i = 0;
+            while (i < size) {
+                long key = keys[order[i]];
+                int j = i;
+                block.clear(0);
+                while (j < size && keys[order[j]] == key) {
+                    block.addMove(moves[order[j]], results[order[j]], 1);
+                    j++;
+                }
+                writer.beginBlock(key);
+                writer.putMoves(block);
+                writer.putVarint(j - i);
+                long previous = 0;
+                for (; i < j; i++) {
+                    int p = order[i];
+                    writer.putVarint(gameOffsets[p] - previous);
+                    writer.putVarint(plies[p]);
+                    previous = gameOffsets[p];
+                }
+            }
+            writer.finish();
+        }
+        segments.add(new PositionSegment(path));
+        size = 0;
+    }
+
+    /**
+     * Posting indices ordered by unsigned key, in archive order among equal
+     * keys: a least-significant-digit radix sort, 16 bits a pass.
+     */
+    private int[] sortByKey() {
+        long[] sortedKeys = Arrays.copyOf(keys, size);
+        long[] keyBuffer = new long[size];
+        int[] order = new int[size];
+        int[] orderBuffer = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] counts = new int[(1 << 16) + 1];
+        for (int shift = 0; shift < Long.SIZE; shift += 16) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < size; i++) {
+                counts[(int) (sortedKeys[i] >>> shift & 0xFFFF) + 1]++;
+            }
+            for (int d = 0; d < 1 << 16; d++) {
+                counts[d + 1] += counts[d];
+            }
+            for (int i = 0; i < size; i++) {
+                int slot = counts[(int) (sortedKeys[i] >>> shift & 0xFFFF)]++;
+                keyBuffer[slot] = sortedKeys[i];
+                orderBuffer[slot] = order[i];
+            }
+            long[] k = sortedKeys;
+            sortedKeys = keyBuffer;
+            keyBuffer = k;
+            int[] o = order;
+            order = orderBuffer;
+            orderBuffer = o;
+        }
+        return order;
+    }
+
+    /** Merges the newest segments while {@value #MERGE_FACTOR} of them share a size level. */
+    private void merge() throws IOException {
+        int n = segments.size();
+        while (n >= MERGE_FACTOR && level(segments.get(n - MERGE_FACTOR)) <= level(segments.get(n - 1))) {
+            List<PositionSegment> inputs = segments.subList(n - MERGE_FACTOR, n);
+            PositionSegment merged = merge(inputs);
+            for (PositionSegment input : inputs) {
+                input.close();
+                Files.delete(input.path);
+            }
+            inputs.clear();
+            segments.add(merged);
+            n = segments.size();
+        }
+    }
+
+    private static int level(PositionSegment segment) {
+        int level = 0;
+        for (long bytes = segment.bytes() / LEVEL_BYTES; bytes >= MERGE_FACTOR; bytes /= MERGE_FACTOR) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Streams the union of {@code inputs}, adjacent segments in archive
+     * order, into one segment: a k-way merge over their key tables that
+     * adds up the move tables of equal keys and concatenates their
+     * occurrences, which stay in archive order.
+     */
+    private PositionSegment merge(List<PositionSegment> inputs) throws IOException {
+        int k = inputs.size();
+        long start = inputs.get(0).archiveStart;
+        long end = inputs.get(k - 1).archiveEnd;
+        long[] cursors = new long[k];
+        long[] occurrences = new long[k];
+        boolean[] matching = new boolean[k];
+        Path path = segmentPath(start, end);
+        try (PositionSegmentWriter writer = new PositionSegmentWriter(path, start, end)) {
+            while (true) {
+                long key = 0;
+                boolean any = false;
+                for (int s = 0; s < k; s++) {
+                    PositionSegment segment = inputs.get(s);
+                    if (cursors[s] < segment.keyCount) {
+                        long candidate = segment.key(cursors[s]);
+                        if (!any || Long.compareUnsigned(candidate, key) < 0) {
+                            key = candidate;
+                            any = true;
+                        }
+                    }
+                }
+                if (!any) break;
+
+                block.clear(0);
+                long total = 0;
+                for (int s = 0; s < k; s++) {
+                    PositionSegment segment = inputs.get(s);
+                    matching[s] = cursors[s] < segment.keyCount && segment.key(cursors[s]) == key;
+                    if (matching[s]) {
+                        segment.readMoves(cursors[s], block);
+                        occurrences[s] = segment.readVarint();
+                        total += occurrences[s];
+                    }
+                }
+                writer.beginBlock(key);
+                writer.putMoves(block);
+                writer.putVarint(total);
+                long previous = 0;
+                for (int s = 0; s < k; s++) {
+                    if (!matching[s]) continue;
+                    PositionSegment segment = inputs.get(s);
+                    long gameOffset = 0;
+                    for (long j = 0; j < occurrences[s]; j++) {
+                        gameOffset += segment.readVarint();
+                        writer.putVarint(gameOffset - previous);
+                        writer.putVarint(segment.readVarint());
+                        previous = gameOffset;
+                    }
+                    cursors[s]++;
+                }
+            }
+            writer.finish();
+        }
+        return new PositionSegment(path);
+    }
+
+    private Path segmentPath(long start, long end) {
+        return directory.resolve(String.format("%s%016x-%016x%s", PREFIX, start, end, SUFFIX));
+    }
+
+    @Override
+    public void close() {
+        for (PositionSegment segment : segments) {
+            segment.close();
+        }
+        segments.clear();
+    }
+}
@@ -0,0 +1,168 @@
+package checkers.archive;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One immutable, memory-mapped file of a {@link PositionIndex}, covering the
+ * games in one byte range of the archive.
+ * <p>
+ * A 48-byte header (magic, version, archive start and end, key count, key
+ * table offset) is followed by one block per position and then the key
+ * table: the positions' Zobrist keys in unsigned order, and the offsets of
+ * their blocks plus one past the last. A block is:
+ * <pre>
+ * varint  moves        distinct continuations
+ * per move: varint code (0: the game ended, else (from &lt;&lt; 8 | to) + 1),
+ *           4 x varint count per game result
+ * varint  occurrences
+ * per occurrence, in archive order: varlong game offset minus the previous one, varint ply
+ * </pre>
+ * Zobrist keys are random, so a lookup interpolates where its key should
+ * be and usually touches two or three pages of the table.
+ */
+final class PositionSegment implements AutoCloseable {
+    static final int MAGIC = 0x434B5049;
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 48;
+    static final int ARCHIVE_START = 8;
+    static final int ARCHIVE_END = 16;
+    static final int KEY_COUNT = 24;
+    static final int KEYS_OFFSET = 32;
+    private static final int INTERPOLATION_STEPS = 4;
+
+    final Path path;
+    final long archiveStart;
+    final long archiveEnd;
+    final long keyCount;
+    private final long keys;
+    private final long offsets;
+    private final Arena arena = Arena.ofShared();
+    private final MemorySegment data;
+    /** Read position of {@link #readVarint}. */
+    long position;
+
+    PositionSegment(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                arena.close();
+                throw new IOException("Not a position index segment: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+        }
+        if (data.get(ValueLayout.JAVA_INT_UNALIGNED, 0) != MAGIC
+                || data.get(ValueLayout.JAVA_SHORT_UNALIGNED, 4) != VERSION) {
+            arena.close();
+            throw new IOException("Not a position index segment: " + path);
+        }
+        archiveStart = data.get(ValueLayout.JAVA_LONG_UNALIGNED, ARCHIVE_START);
+        archiveEnd = data.get(ValueLayout.JAVA_LONG_UNALIGNED, ARCHIVE_END);
+        keyCount = data.get(ValueLayout.JAVA_LONG_UNALIGNED, KEY_COUNT);
+        keys = data.get(ValueLayout.JAVA_LONG_UNALIGNED, KEYS_OFFSET);
+        offsets = keys + keyCount * Long.BYTES;
+        if (offsets + (keyCount + 1) * Long.BYTES > data.byteSize()) {
+            arena.close();
+            throw new IOException("Truncated position index segment: " + path);
+        }
+    }
+
+    long bytes() {
+        return data.byteSize();
+    }
+
+    long key(long i) {
+        return data.get(ValueLayout.JAVA_LONG_UNALIGNED, keys + i * Long.BYTES);
+    }
+
+    /** Index of {@code key} in the key table, or -1. */
+    long find(long key) {
+        long lo = 0;
+        long hi = keyCount - 1;
+        if (hi < 0) return -1;
+        double target = unsigned(key);
+        double loKey = unsigned(key(lo));
+        double hiKey = unsigned(key(hi));
+        int steps = 0;
+        while (lo <= hi) {
+            long mid;
+            if (steps++ < INTERPOLATION_STEPS && hiKey > loKey) {
+                double fraction = (target - loKey) / (hiKey - loKey);
+                mid = lo + (long) (Math.min(1, Math.max(0, fraction)) * (hi - lo));
+            } else {
+                mid = (lo + hi) >>> 1;
+            }
+            long k = key(mid);
+            int c = Long.compareUnsigned(k, key);
+            if (c == 0) return mid;
+            if (c < 0) {
+                lo = mid + 1;
+                if (lo <= hi) loKey = unsigned(key(lo));
+            } else {
+                hi = mid - 1;
+                if (lo <= hi) hiKey = unsigned(key(hi));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds the moves of block {@code i} to {@code stats} and leaves
+     * {@link #position} on its occurrence count.
+     */
+    void readMoves(long i, PositionStats stats) {
+        position = data.get(ValueLayout.JAVA_LONG_UNALIGNED, offsets + i * Long.BYTES);
+        int moves = (int) readVarint();
+        for (int m = 0; m < moves; m++) {
+            int code = (int) readVarint();
+            for (int result = 0; result < 4; result++) {
+                long n = readVarint();
+                if (n != 0) {
+                    stats.addMove(code, result, n);
+                }
+            }
+        }
+    }
+
+    /** Adds the whole of block {@code i} to {@code stats}, listing occurrences up to its limit. */
+    void read(long i, PositionStats stats) {
+        readMoves(i, stats);
+        long occurrences = readVarint();
+        long gameOffset = 0;
+        for (long j = 0; j < occurrences; j++) {
+            gameOffset += readVarint();
+            if (!stats.addOccurrence(gameOffset, (int) readVarint())) {
+                stats.addUnlisted(occurrences - j - 1);
+                return;
+            }
+        }
+    }
+
+    long readVarint() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = data.get(ValueLayout.JAVA_BYTE, position++);
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+            shift += 7;
+        }
+    }
+
+    private static double unsigned(long key) {
+        double d = (double) (key >>> 1) * 2;
+        return d + (key & 1);
+    }
+
+    @Override
+    public void close() {
+        if (arena.scope().isAlive()) {
+            arena.close();
+        }
+    }
+}
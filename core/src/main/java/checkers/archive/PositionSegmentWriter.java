@@ -0,0 +1,164 @@
+package checkers.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a {@link PositionSegment} in one pass, keys in ascending unsigned
+ * order. Blocks stream into the file while the key table goes to two side
+ * files that are appended at the end, so a merge of segments larger than
+ * the heap needs no more memory than its buffers. The segment only appears
+ * under its name once complete.
+ */
+final class PositionSegmentWriter implements AutoCloseable {
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    private final Path path;
+    private final Path blocksPath;
+    private final Path keysPath;
+    private final Path offsetsPath;
+    private final FileChannel blocks;
+    private final FileChannel keys;
+    private final FileChannel offsets;
+    private final ByteBuffer blockBuffer = buffer();
+    private final ByteBuffer keyBuffer = buffer();
+    private final ByteBuffer offsetBuffer = buffer();
+    private final long archiveStart;
+    private final long archiveEnd;
+    private long written = PositionSegment.HEADER_BYTES;
+    private long keyCount;
+    private long lastKey;
+    private boolean finished;
+
+    PositionSegmentWriter(Path path, long archiveStart, long archiveEnd) throws IOException {
+        this.path = path;
+        this.archiveStart = archiveStart;
+        this.archiveEnd = archiveEnd;
+        blocksPath = sibling(path, ".tmp");
+        keysPath = sibling(path, ".keys.tmp");
+        offsetsPath = sibling(path, ".offsets.tmp");
+        blocks = open(blocksPath);
+        keys = open(keysPath);
+        offsets = open(offsetsPath);
+        blocks.position(PositionSegment.HEADER_BYTES);
+    }
+
+    /** Starts the block of {@code key}; the caller then writes it with {@link #putVarint}. */
+    void beginBlock(long key) throws IOException {
+        if (keyCount > 0 && Long.compareUnsigned(key, lastKey) <= 0) {
+            throw new IllegalStateException("Position keys out of order");
+        }
+        putLong(keys, keyBuffer, key);
+        putLong(offsets, offsetBuffer, written + blockBuffer.position());
+        lastKey = key;
+        keyCount++;
+    }
+
+    /** Writes the move table of {@code stats}, the first part of a block. */
+    void putMoves(PositionStats stats) throws IOException {
+        putVarint(stats.moveCount());
+        for (int i = 0; i < stats.moveCount(); i++) {
+            putVarint(stats.moveCode(i));
+            for (int result = 0; result < 4; result++) {
+                putVarint(stats.games(i, result));
+            }
+        }
+    }
+
+    void putVarint(long value) throws IOException {
+        if (blockBuffer.remaining() < 10) {
+            written += flush(blocks, blockBuffer);
+        }
+        while ((value & ~0x7FL) != 0) {
+            blockBuffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        blockBuffer.put((byte) value);
+    }
+
+    /** Completes the file and moves it under its name. */
+    void finish() throws IOException {
+        long keysOffset = written + blockBuffer.position();
+        putLong(offsets, offsetBuffer, keysOffset);
+        flush(blocks, blockBuffer);
+        flush(keys, keyBuffer);
+        flush(offsets, offsetBuffer);
+        append(keys);
+        append(offsets);
+
+        ByteBuffer header = ByteBuffer.allocate(PositionSegment.HEADER_BYTES).order(ByteOrder.nativeOrder());
+        header.putInt(0, PositionSegment.MAGIC);
+        header.putShort(4, PositionSegment.VERSION);
+        header.putLong(PositionSegment.ARCHIVE_START, archiveStart);
+        header.putLong(PositionSegment.ARCHIVE_END, archiveEnd);
+        header.putLong(PositionSegment.KEY_COUNT, keyCount);
+        header.putLong(PositionSegment.KEYS_OFFSET, keysOffset);
+        blocks.write(header, 0);
+        blocks.force(true);
+        closeFiles();
+        Files.move(blocksPath, path, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    private void append(FileChannel side) throws IOException {
+        long size = side.size();
+        side.position(0);
+        long done = 0;
+        while (done < size) {
+            done += blocks.transferFrom(side, blocks.size(), size - done);
+        }
+    }
+
+    private void putLong(FileChannel channel, ByteBuffer buffer, long value) throws IOException {
+        if (buffer.remaining() < Long.BYTES) {
+            flush(channel, buffer);
+        }
+        buffer.putLong(value);
+    }
+
+    private static int flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+        return bytes;
+    }
+
+    private static ByteBuffer buffer() {
+        return ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static Path sibling(Path path, String suffix) {
+        return path.resolveSibling(path.getFileName() + suffix);
+    }
+
+    /** Closes the files, deleting them unless {@link #finish} completed. */
+    @Override
+    public void close() throws IOException {
+        closeFiles();
+        if (!finished) {
+            Files.deleteIfExists(blocksPath);
+        }
+    }
+
+    private void closeFiles() throws IOException {
+        blocks.close();
+        keys.close();
+        offsets.close();
+        Files.deleteIfExists(keysPath);
+        Files.deleteIfExists(offsetsPath);
+    }
+}
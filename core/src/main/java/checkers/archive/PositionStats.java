@@ -0,0 +1,154 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+
+import java.util.Arrays;
+
+/**
+ * What a {@link PositionIndex} knows about one position: how often each
+ * move was played from it, split by the result of the game, and where it
+ * occurred, as archive offsets of the games and the ply within each. One
+ * instance is refilled by every lookup.
+ */
+public final class PositionStats {
+    private static final int RESULTS = 4;
+
+    private int moveCount;
+    private int[] moves = new int[8];
+    private long[] counts = new long[8 * RESULTS];
+
+    private long occurrences;
+    private int listed;
+    private int limit;
+    private long[] gameOffsets = new long[16];
+    private int[] plies = new int[16];
+
+    /** Distinct continuations, the end of the game counted as one. */
+    public int moveCount() {
+        return moveCount;
+    }
+
+    /** Whether games ended in the position instead of continuing with move {@code i}. */
+    public boolean isGameEnd(int i) {
+        return moves[i] == 0;
+    }
+
+    public int from(int i) {
+        return (moves[i] - 1) >>> 8;
+    }
+
+    /** Landing square of the last hop of move {@code i}. */
+    public int to(int i) {
+        return (moves[i] - 1) & 0xFF;
+    }
+
+    /** Move {@code i} in the archive's PDN notation, {@code c3-d4}; captures too, as only the ends are kept. */
+    public String notation(int i) {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        return Pdn.square(geometry, from(i)) + "-" + Pdn.square(geometry, to(i));
+    }
+
+    /** Times move {@code i} was played from the position. */
+    public long games(int i) {
+        long n = 0;
+        for (int r = 0; r < RESULTS; r++) {
+            n += counts[i * RESULTS + r];
+        }
+        return n;
+    }
+
+    /** Times move {@code i} was played in games that ended in {@code result}, a {@link GameRecord} result. */
+    public long games(int i, int result) {
+        return counts[i * RESULTS + result];
+    }
+
+    /** Times the position occurred in all indexed games. */
+    public long occurrences() {
+        return occurrences;
+    }
+
+    /** Occurrences listed below, the first ones in archive order up to the lookup's limit. */
+    public int listed() {
+        return listed;
+    }
+
+    /** Archive offset of the game of listed occurrence {@code j}, for {@link GameArchiveReader#seek}. */
+    public long gameOffset(int j) {
+        return gameOffsets[j];
+    }
+
+    /** Ply at which the position occurred in that game, 0 being its start. */
+    public int ply(int j) {
+        return plies[j];
+    }
+
+    void clear(int limit) {
+        moveCount = 0;
+        occurrences = 0;
+        listed = 0;
+        this.limit = limit;
+    }
+
+    static int moveCode(int from, int to) {
+        return (from << 8 | to) + 1;
+    }
+
+    int moveCode(int i) {
+        return moves[i];
+    }
+
+    void addMove(int move, int result, long n) {
+        int i = 0;
+        while (i < moveCount && moves[i] != move) {
+            i++;
+        }
+        if (i == moveCount) {
+            if (moveCount == moves.length) {
+                moves = Arrays.copyOf(moves, moveCount * 2);
+                counts = Arrays.copyOf(counts, moveCount * 2 * RESULTS);
+            }
+            moves[i] = move;
+            Arrays.fill(counts, i * RESULTS, (i + 1) * RESULTS, 0);
+            moveCount++;
+        }
+        counts[i * RESULTS + result] += n;
+    }
+
+    /** Counts an occurrence and lists it while under the limit; returns whether it was listed. */
+    boolean addOccurrence(long gameOffset, int ply) {
+        occurrences++;
+        if (listed >= limit) return false;
+        if (listed == gameOffsets.length) {
+            gameOffsets = Arrays.copyOf(gameOffsets, listed * 2);
+            plies = Arrays.copyOf(plies, listed * 2);
+        }
+        gameOffsets[listed] = gameOffset;
+        plies[listed] = ply;
+        listed++;
+        return true;
+    }
+
+    void addUnlisted(long n) {
+        occurrences += n;
+    }
+
+    /** Puts the most played moves first. */
+    void sortByGames() {
+        for (int i = 1; i < moveCount; i++) {
+            for (int j = i; j > 0 && games(j) > games(j - 1); j--) {
+                swap(j, j - 1);
+            }
+        }
+    }
+
+    private void swap(int a, int b) {
+        int move = moves[a];
+        moves[a] = moves[b];
+        moves[b] = move;
+        for (int r = 0; r < RESULTS; r++) {
+            long c = counts[a * RESULTS + r];
+            counts[a * RESULTS + r] = counts[b * RESULTS + r];
+            counts[b * RESULTS + r] = c;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package checkers.engine;
+
+/**
+ * Maps the playable (dark) squares of the board onto bit indices and holds
+ * the neighbour tables the bitboard code walks instead of a {@code Tile[][]}.
+ * <p>
+ * Squares are numbered row by row, so on the 8x8 board square {@code s}
+ * lives in row {@code s / 4} and on the 10x10 board in row {@code s / 5}. Directions follow {@code Piece.getMoveDirections()}:
+ * 0 = (1, 1), 1 = (-1, 1), 2 = (1, -1), 3 = (-1, -1).
+ * <p>
+ * Directions 0 and 1 run towards higher square numbers and 2 and 3 towards
+ * lower ones, so the nearest square of a {@link #ray} mask is its lowest
+ * or highest bit respectively; {@link #nearest} picks the right one. That
+ * turns a flying king's slide into a mask and a single bit scan.
+ * <p>
+ * Every size gets its own tables, so the engine runs the same code on
+ * either board. A board only works if its playable squares fit in a
+ * {@code long}, which rules out 12x12 (72 squares).
+ */
+public final class BoardGeometry {
+    public static final int DIRECTIONS = 4;
+    public static final int[] DX = {1, -1, 1, -1};
+    public static final int[] DY = {1, 1, -1, -1};
+
+    public static final BoardGeometry STANDARD = new BoardGeometry(8, 8, 3);
+    public static final BoardGeometry INTERNATIONAL = new BoardGeometry(10, 10, 4);
+
+    public final int width;
+    public final int height;
+    public final int squares;
+    public final int menRows;
+
+    private final int[] squareIndex;
+    private final int[] squareX;
+    private final int[] squareY;
+    private final int[] neighbour;
+    private final long[] diagonals;
+    private final long[] rays;
+    private final long redPromotionRow;
+    private final long whitePromotionRow;
+
+    private BoardGeometry(int width, int height, int menRows) {
+        this.width = width;
+        this.height = height;
+        this.squares = width * height / 2;
+        this.menRows = menRows;
+
+        squareIndex = new int[width * height];
+        squareX = new int[squares];
+        squareY = new int[squares];
+        neighbour = new int[DIRECTIONS * squares];
+        diagonals = new long[squares];
+        rays = new long[DIRECTIONS * squares];
+
+        int s = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (isPlayable(x, y)) {
+                    squareIndex[y * width + x] = s;
+                    squareX[s] = x;
+                    squareY[s] = y;
+                    s++;
+                } else {
+                    squareIndex[y * width + x] = -1;
+                }
+            }
+        }
+
+        long redRow = 0, whiteRow = 0;
+        for (s = 0; s < squares; s++) {
+            for (int d = 0; d < DIRECTIONS; d++) {
+                neighbour[d * squares + s] = square(squareX[s] + DX[d], squareY[s] + DY[d]);
+            }
+            if (squareY[s] == height - 1) redRow |= 1L << s;
+            if (squareY[s] == 0) whiteRow |= 1L << s;
+        }
+        redPromotionRow = redRow;
+        whitePromotionRow = whiteRow;
+
+        for (s = 0; s < squares; s++) {
+            long lines = 1L << s;
+            for (int d = 0; d < DIRECTIONS; d++) {
+                long ray = 0;
+                for (int t = neighbour(s, d); t >= 0; t = neighbour(t, d)) {
+                    ray |= 1L << t;
+                }
+                rays[d * squares + s] = ray;
+                lines |= ray;
+            }
+            diagonals[s] = lines;
+        }
+    }
+
+    /** Returns the geometry of a square board with {@code size} squares a side: 8 or 10. */
+    public static BoardGeometry of(int size) {
+        return switch (size) {
+            case 8 -> STANDARD;
+            case 10 -> INTERNATIONAL;
+            default -> throw new IllegalArgumentException(size * size / 2 > Long.SIZE
+                    ? size + "x" + size + " has " + size * size / 2 + " playable squares, more than fit in a 64-bit mask"
+                    : "Unsupported board size " + size + "x" + size);
+        };
+    }
+
+    public static boolean isPlayable(int x, int y) {
+        return (x + y) % 2 != 0;
+    }
+
+    /** Returns the square index of board coordinates, or -1 for light or off-board squares. */
+    public int square(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) return -1;
+        return squareIndex[y * width + x];
+    }
+
+    public int x(int square) {
+        return squareX[square];
+    }
+
+    public int y(int square) {
+        return squareY[square];
+    }
+
+    /** Returns the adjacent square in direction {@code dir}, or -1 at the edge. */
+    public int neighbour(int square, int dir) {
+        return neighbour[dir * squares + square];
+    }
+
+    /** Returns every square beyond {@code square} in direction {@code dir}, up to the edge. */
+    public long ray(int square, int dir) {
+        return rays[dir * squares + square];
+    }
+
+    /**
+     * Returns the squares a slide from {@code square} in direction {@code dir}
+     * passes before it meets anything in {@code occupied}.
+     */
+    public long slide(int square, int dir, long occupied) {
+        long ray = rays[dir * squares + square];
+        long blockers = ray & occupied;
+        if (blockers == 0) return ray;
+        int blocker = nearest(blockers, dir);
+        return ray & ~(rays[dir * squares + blocker] | 1L << blocker);
+    }
+
+    /** Returns the square of {@code mask} nearest to the start of a ray in direction {@code dir}. */
+    public static int nearest(long mask, int dir) {
+        return dir < 2 ? Long.numberOfTrailingZeros(mask) : 63 - Long.numberOfLeadingZeros(mask);
+    }
+
+    /** Returns the direction of a diagonal step {@code (dx, dy)}, whatever its length. */
+    public static int direction(int dx, int dy) {
+        return (dx > 0 ? 0 : 1) + (dy > 0 ? 0 : 2);
+    }
+
+    /** Returns the square itself and every square on the two diagonals through it. */
+    public long diagonals(int square) {
+        return diagonals[square];
+    }
+
+    /** First of the two directions a man of the given colour moves in without capturing. */
+    public static int firstForwardDirection(boolean red) {
+        return red ? 0 : 2;
+    }
+
+    public long promotionRow(boolean red) {
+        return red ? redPromotionRow : whitePromotionRow;
+    }
+
+    public boolean isInitialRedSquare(int square) {
+        return squareY[square] < menRows;
+    }
+
+    public boolean isInitialWhiteSquare(int square) {
+        return squareY[square] >= height - menRows;
+    }
+}
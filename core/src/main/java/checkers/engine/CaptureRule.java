@@ -0,0 +1,23 @@
+package checkers.engine;
+
+import java.util.Locale;
+
+/**
+ * Which capture sequences a player may choose from when capturing is
+ * mandatory.
+ */
+public enum CaptureRule {
+    /** Any complete sequence, however many pieces it takes. */
+    FREE,
+    /**
+     * Only the sequences that take the most pieces, as Polish and
+     * international draughts require; kings and men count the same.
+     */
+    MAJORITY;
+
+    /** {@code -Dcheckers.rules.capture=majority} or {@code free}, {@link #FREE} when unset. */
+    public static CaptureRule fromProperty() {
+        String value = System.getProperty("checkers.rules.capture");
+        return value == null ? FREE : valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
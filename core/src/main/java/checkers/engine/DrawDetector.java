@@ -0,0 +1,143 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Follows one game move by move and tells when {@link DrawRules} draw it,
+ * in O(1) per move. Only positions since the last irreversible move (a
+ * capture or a man move) can come back, so those are all it keeps: their
+ * Zobrist keys in order, and how often each occurred in a small
+ * open-addressing table that an irreversible move empties by bumping a
+ * stamp instead of clearing it.
+ */
+public final class DrawDetector {
+    public enum Reason {REPETITION, KING_MOVES, MATERIAL}
+
+    private final DrawRules rules;
+    /** Keys of the positions since the last irreversible move, the current one last. */
+    private long[] keys = new long[64];
+    private int size;
+    private long[] tableKeys = new long[128];
+    private int[] tableCounts = new int[128];
+    private int[] tableStamps = new int[128];
+    private int stamp = 1;
+    /** Plies since the last capture or promotion. */
+    private int materialPlies;
+
+    public DrawDetector(DrawRules rules) {
+        this.rules = rules;
+    }
+
+    public DrawRules rules() {
+        return rules;
+    }
+
+    /** Starts following a game from {@code position}. */
+    public void reset(Position position) {
+        clear();
+        materialPlies = 0;
+        add(position.key());
+    }
+
+    /**
+     * Takes in move {@code index} of {@code moves}, just played to reach
+     * {@code after}, and returns why the game is now drawn or {@code null}.
+     */
+    public Reason onMove(Position after, MoveBuffer moves, int index) {
+        boolean capture = moves.captured(index) != 0;
+        boolean promotes = moves.promotes(index);
+        if (capture || promotes || !after.isKing(moves.to(index))) {
+            clear();
+        }
+        materialPlies = capture || promotes ? 0 : materialPlies + 1;
+        int seen = add(after.key());
+
+        if (rules.repetitions > 0 && seen >= rules.repetitions) return Reason.REPETITION;
+        if (rules.kingMoves > 0 && size - 1 >= 2 * rules.kingMoves) return Reason.KING_MOVES;
+        if (isMaterialDraw(after)) return Reason.MATERIAL;
+        return null;
+    }
+
+    /**
+     * Starts over from {@code position} after moves were taken back,
+     * {@code undo} holding the moves that led to it.
+     */
+    public void rebuild(Position position, UndoStack undo) {
+        clear();
+        int first = undo.size();
+        while (first > 0 && (undo.move(first - 1) & UndoStack.WAS_KING) != 0 && undo.captured(first - 1) == 0) {
+            first--;
+        }
+        for (int i = first; i < undo.size(); i++) {
+            add(undo.key(i));
+        }
+        add(position.key());
+
+        materialPlies = 0;
+        for (int i = undo.size() - 1; i >= 0 && undo.captured(i) == 0 && !undo.promoted(i); i--) {
+            materialPlies++;
+        }
+    }
+
+    /** A lone king against a side with a king whose material rule has run its moves. */
+    private boolean isMaterialDraw(Position position) {
+        int red = Long.bitCount(position.pieces(true));
+        int white = Long.bitCount(position.pieces(false));
+        boolean redLone = red == 1 && position.redKings() != 0;
+        boolean whiteLone = white == 1 && position.whiteKings() != 0;
+        int strong;
+        if (redLone && position.whiteKings() != 0) {
+            strong = white;
+        } else if (whiteLone && position.redKings() != 0) {
+            strong = red;
+        } else {
+            return false;
+        }
+        int moves = rules.materialMoves(strong);
+        return moves >= 0 && materialPlies >= 2 * moves;
+    }
+
+    /** Appends {@code key} and returns how often it has occurred since the last irreversible move. */
+    private int add(long key) {
+        if ((size + 1) * 2 > tableKeys.length) {
+            rehash(tableKeys.length * 2);
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = key;
+        return ++tableCounts[slot(key)];
+    }
+
+    private int slot(long key) {
+        int mask = tableKeys.length - 1;
+        int i = (int) (key ^ key >>> 32) & mask;
+        while (tableStamps[i] == stamp && tableKeys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (tableStamps[i] != stamp) {
+            tableStamps[i] = stamp;
+            tableKeys[i] = key;
+            tableCounts[i] = 0;
+        }
+        return i;
+    }
+
+    private void clear() {
+        size = 0;
+        if (++stamp == 0) {
+            Arrays.fill(tableStamps, 0);
+            stamp = 1;
+        }
+    }
+
+    private void rehash(int capacity) {
+        tableKeys = new long[capacity];
+        tableCounts = new int[capacity];
+        tableStamps = new int[capacity];
+        stamp = 1;
+        for (int i = 0; i < size; i++) {
+            tableCounts[slot(keys[i])]++;
+        }
+    }
+}
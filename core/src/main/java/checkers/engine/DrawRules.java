@@ -0,0 +1,103 @@
+package checkers.engine;
+
+/**
+ * When a game is drawn without either side running out of moves, parsed
+ * from strings such as {@code repetitions=3,kingMoves=25,material=1:0/2:5/3:16}:
+ * <ul>
+ * <li>{@code repetitions}: the same position with the same side to move
+ * occurs this many times;</li>
+ * <li>{@code kingMoves}: both sides have made this many moves each with
+ * kings only and without capturing;</li>
+ * <li>{@code material}: a lone king faces at most {@code pieces} pieces,
+ * at least one of them a king, and {@code moves} moves each have been made
+ * since that material arose; {@code 1:0} draws king against king at once.</li>
+ * </ul>
+ * A value of 0 turns a rule off and {@code material=} turns off every
+ * material rule. Leaving a setting out keeps its default, the FMJD rules.
+ */
+public final class DrawRules {
+    public static final DrawRules DEFAULT = new DrawRules(3, 25, new int[]{1, 2, 3}, new int[]{0, 5, 16});
+    public static final DrawRules NONE = new DrawRules(0, 0, new int[0], new int[0]);
+
+    public final int repetitions;
+    public final int kingMoves;
+    /** Per material rule, the most pieces the stronger side may have and the moves each side gets. */
+    private final int[] materialPieces;
+    private final int[] materialMoves;
+
+    public DrawRules(int repetitions, int kingMoves, int[] materialPieces, int[] materialMoves) {
+        if (repetitions < 0 || kingMoves < 0 || materialPieces.length != materialMoves.length) {
+            throw new IllegalArgumentException("Invalid draw rules");
+        }
+        this.repetitions = repetitions;
+        this.kingMoves = kingMoves;
+        this.materialPieces = materialPieces.clone();
+        this.materialMoves = materialMoves.clone();
+    }
+
+    public static DrawRules parse(String spec) {
+        int repetitions = DEFAULT.repetitions;
+        int kingMoves = DEFAULT.kingMoves;
+        int[] pieces = DEFAULT.materialPieces;
+        int[] moves = DEFAULT.materialMoves;
+        for (String part : spec.split(",")) {
+            if (part.isBlank()) continue;
+            int eq = part.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value in draw rules: " + part);
+            }
+            String key = part.substring(0, eq).trim();
+            String value = part.substring(eq + 1).trim();
+            switch (key) {
+                case "repetitions" -> repetitions = Integer.parseInt(value);
+                case "kingMoves" -> kingMoves = Integer.parseInt(value);
+                case "material" -> {
+                    String[] rules = value.isEmpty() ? new String[0] : value.split("/");
+                    pieces = new int[rules.length];
+                    moves = new int[rules.length];
+                    for (int i = 0; i < rules.length; i++) {
+                        String[] rule = rules[i].split(":");
+                        if (rule.length != 2) {
+                            throw new IllegalArgumentException("Expected pieces:moves in draw rules: " + rules[i]);
+                        }
+                        pieces[i] = Integer.parseInt(rule[0].trim());
+                        moves[i] = Integer.parseInt(rule[1].trim());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown draw rule " + key);
+            }
+        }
+        return new DrawRules(repetitions, kingMoves, pieces, moves);
+    }
+
+    /** {@code -Dcheckers.rules.draw=...} in the format of {@link #parse}, {@link #DEFAULT} when unset. */
+    public static DrawRules fromProperty() {
+        String value = System.getProperty("checkers.rules.draw");
+        return value == null ? DEFAULT : parse(value);
+    }
+
+    /**
+     * Moves each side gets in a lone-king ending where the
+     * stronger side has {@code strongPieces}, with a king among them; -1
+     * when no material rule covers it.
+     */
+    int materialMoves(int strongPieces) {
+        int limit = -1;
+        for (int i = 0; i < materialPieces.length; i++) {
+            if (strongPieces <= materialPieces[i] && (limit < 0 || materialMoves[i] < limit)) {
+                limit = materialMoves[i];
+            }
+        }
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder material = new StringBuilder();
+        for (int i = 0; i < materialPieces.length; i++) {
+            if (i > 0) material.append('/');
+            material.append(materialPieces[i]).append(':').append(materialMoves[i]);
+        }
+        return "repetitions=" + repetitions + ",kingMoves=" + kingMoves + ",material=" + material;
+    }
+}
@@ -0,0 +1,44 @@
+package checkers.engine;
+
+/**
+ * Static evaluation in centi-men from the point of view of the side to move.
+ */
+public final class Evaluator {
+    public static final int MAN = 100;
+    public static final int KING = 320;
+
+    private static final int ADVANCE = 4;
+    private static final int BACK_RANK = 10;
+    private static final int CENTRE = 6;
+
+    private Evaluator() {
+    }
+
+    public static int evaluate(Position position) {
+        int score = side(position, true) - side(position, false);
+        return position.isRedToMove() ? score : -score;
+    }
+
+    private static int side(Position position, boolean red) {
+        BoardGeometry geometry = position.getGeometry();
+        long men = red ? position.redMen() : position.whiteMen();
+        long kings = red ? position.redKings() : position.whiteKings();
+
+        int score = Long.bitCount(men) * MAN + Long.bitCount(kings) * KING;
+
+        long backRank = geometry.promotionRow(!red);
+        score += Long.bitCount(men & backRank) * BACK_RANK;
+
+        while (men != 0) {
+            int s = Long.numberOfTrailingZeros(men);
+            men &= men - 1;
+            int y = geometry.y(s);
+            score += (red ? y : geometry.height - 1 - y) * ADVANCE;
+            int x = geometry.x(s);
+            if (x >= 2 && x < geometry.width - 2) {
+                score += CENTRE;
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,82 @@
+package checkers.engine;
+
+/**
+ * Reads and writes positions as FEN-like strings, e.g. {@code W:W21,22,K30:R1,2,K9}.
+ * <p>
+ * The first field is the side to move ({@code W} or {@code R}), then one
+ * field per colour listing 1-based square numbers in {@link BoardGeometry}
+ * order (row 0 is red's back rank). A {@code K} prefix marks a king.
+ */
+public final class Fen {
+    private Fen() {
+    }
+
+    public static Position parse(String fen, BoardGeometry geometry) {
+        Position position = new Position(geometry);
+        parseInto(fen, position);
+        return position;
+    }
+
+    public static void parseInto(CharSequence fen, Position position) {
+        position.clear();
+        int length = fen.length();
+        if (length == 0) {
+            throw new IllegalArgumentException("Empty FEN");
+        }
+        position.setRedToMove(side(fen.charAt(0)));
+
+        int i = 1;
+        boolean red = false;
+        while (i < length) {
+            char c = fen.charAt(i);
+            if (c == ':') {
+                if (i + 1 >= length) break;
+                red = side(fen.charAt(i + 1));
+                i += 2;
+            } else if (c == ',' || c == ' ' || c == '.') {
+                i++;
+            } else {
+                boolean king = c == 'K';
+                if (king) i++;
+                int square = 0;
+                int start = i;
+                while (i < length && Character.isDigit(fen.charAt(i))) {
+                    square = square * 10 + (fen.charAt(i) - '0');
+                    i++;
+                }
+                if (i == start || square < 1 || square > position.getGeometry().squares) {
+                    throw new IllegalArgumentException("Bad square in FEN: " + fen);
+                }
+                position.put(square - 1, red, king);
+            }
+        }
+    }
+
+    public static String format(Position position) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(position.isRedToMove() ? 'R' : 'W');
+        appendSide(sb, position, false);
+        appendSide(sb, position, true);
+        return sb.toString();
+    }
+
+    private static void appendSide(StringBuilder sb, Position position, boolean red) {
+        sb.append(':').append(red ? 'R' : 'W');
+        long pieces = position.pieces(red);
+        boolean first = true;
+        while (pieces != 0) {
+            int s = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (!first) sb.append(',');
+            if (position.isKing(s)) sb.append('K');
+            sb.append(s + 1);
+            first = false;
+        }
+    }
+
+    private static boolean side(char c) {
+        if (c == 'R' || c == 'r') return true;
+        if (c == 'W' || c == 'w') return false;
+        throw new IllegalArgumentException("Unknown side in FEN: " + c);
+    }
+}
@@ -0,0 +1,76 @@
+package checkers.engine;
+
+/**
+ * Keeps, for both sides, which pieces can capture and which can make a
+ * plain move, so the end of every move does not have to rescan the board.
+ * <p>
+ * Whether a piece can capture or step depends only on the squares along its
+ * four diagonals, so after a change only the pieces sharing a diagonal with
+ * a touched square are looked at again. Callers {@link #touch} every square
+ * whose contents changed and call {@link #update} before reading the masks.
+ */
+public final class MobilityTracker {
+    private final BoardGeometry geometry;
+
+    private long redCapturers;
+    private long whiteCapturers;
+    private long redMovers;
+    private long whiteMovers;
+    private long dirty;
+
+    public MobilityTracker(BoardGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    /** Forgets everything, so the next update evaluates every piece. */
+    public void reset() {
+        redCapturers = whiteCapturers = redMovers = whiteMovers = 0;
+        dirty = geometry.squares == 64 ? -1L : (1L << geometry.squares) - 1;
+    }
+
+    public void touch(int square) {
+        dirty |= geometry.diagonals(square);
+    }
+
+    public void touchAll(long squares) {
+        for (; squares != 0; squares &= squares - 1) {
+            dirty |= geometry.diagonals(Long.numberOfTrailingZeros(squares));
+        }
+    }
+
+    /** Re-evaluates the pieces near the squares touched since the last update. */
+    public void update(Position position) {
+        if (dirty == 0) return;
+        long keep = ~dirty;
+        redCapturers &= keep;
+        whiteCapturers &= keep;
+        redMovers &= keep;
+        whiteMovers &= keep;
+
+        long red = position.pieces(true);
+        for (long pieces = dirty & position.occupied(); pieces != 0; pieces &= pieces - 1) {
+            int s = Long.numberOfTrailingZeros(pieces);
+            long bit = 1L << s;
+            if ((red & bit) != 0) {
+                if (position.canCapture(s)) redCapturers |= bit;
+                if (position.canMoveNormally(s)) redMovers |= bit;
+            } else {
+                if (position.canCapture(s)) whiteCapturers |= bit;
+                if (position.canMoveNormally(s)) whiteMovers |= bit;
+            }
+        }
+        dirty = 0;
+    }
+
+    public long capturers(boolean red) {
+        return red ? redCapturers : whiteCapturers;
+    }
+
+    public long movers(boolean red) {
+        return red ? redMovers : whiteMovers;
+    }
+
+    public boolean hasAnyMove(boolean red) {
+        return (capturers(red) | movers(red)) != 0;
+    }
+}
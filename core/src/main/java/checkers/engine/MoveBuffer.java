@@ -0,0 +1,135 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Caller-owned storage for generated moves. Every move is kept in parallel
+ * primitive arrays: origin, final square, captured squares as a mask and the
+ * landing square of every hop. The buffer only allocates when it has to grow,
+ * so a buffer reused per search ply stays allocation-free.
+ */
+public final class MoveBuffer {
+    public static final int MAX_PATH = 32;
+
+    private static final int FLAG_PROMOTES = 1;
+
+    private int size;
+    private int[] from;
+    private int[] to;
+    private int[] flags;
+    private long[] captured;
+    private byte[] pathLength;
+    private byte[] path;
+
+    public MoveBuffer() {
+        this(64);
+    }
+
+    public MoveBuffer(int capacity) {
+        from = new int[capacity];
+        to = new int[capacity];
+        flags = new int[capacity];
+        captured = new long[capacity];
+        pathLength = new byte[capacity];
+        path = new byte[capacity * MAX_PATH];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int from(int index) {
+        return from[index];
+    }
+
+    public int to(int index) {
+        return to[index];
+    }
+
+    public long captured(int index) {
+        return captured[index];
+    }
+
+    public boolean isCapture(int index) {
+        return captured[index] != 0;
+    }
+
+    public boolean promotes(int index) {
+        return (flags[index] & FLAG_PROMOTES) != 0;
+    }
+
+    /** Number of landing squares; 1 for a normal move, one per hop for a capture. */
+    public int pathLength(int index) {
+        return pathLength[index];
+    }
+
+    public int pathSquare(int index, int hop) {
+        return path[index * MAX_PATH + hop];
+    }
+
+    /** Finds the move with the given origin and landing squares, or returns -1. */
+    public int find(int fromSquare, int toSquare) {
+        for (int i = 0; i < size; i++) {
+            if (from[i] == fromSquare && to[i] == toSquare) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void swap(int a, int b) {
+        int t = from[a]; from[a] = from[b]; from[b] = t;
+        t = to[a]; to[a] = to[b]; to[b] = t;
+        t = flags[a]; flags[a] = flags[b]; flags[b] = t;
+        long c = captured[a]; captured[a] = captured[b]; captured[b] = c;
+        byte l = pathLength[a]; pathLength[a] = pathLength[b]; pathLength[b] = l;
+        int pa = a * MAX_PATH, pb = b * MAX_PATH;
+        for (int i = 0; i < MAX_PATH; i++) {
+            byte p = path[pa + i]; path[pa + i] = path[pb + i]; path[pb + i] = p;
+        }
+    }
+
+    void addNormal(int fromSquare, int toSquare, boolean promotes) {
+        int i = next();
+        from[i] = fromSquare;
+        to[i] = toSquare;
+        flags[i] = promotes ? FLAG_PROMOTES : 0;
+        captured[i] = 0;
+        pathLength[i] = 1;
+        path[i * MAX_PATH] = (byte) toSquare;
+    }
+
+    void addCapture(int fromSquare, long capturedMask, boolean promotes, int[] hops, int hopCount) {
+        int i = next();
+        from[i] = fromSquare;
+        to[i] = hops[hopCount - 1];
+        flags[i] = promotes ? FLAG_PROMOTES : 0;
+        captured[i] = capturedMask;
+        pathLength[i] = (byte) hopCount;
+        int base = i * MAX_PATH;
+        for (int h = 0; h < hopCount; h++) {
+            path[base + h] = (byte) hops[h];
+        }
+    }
+
+    private int next() {
+        if (size == from.length) {
+            int capacity = size * 2;
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            captured = Arrays.copyOf(captured, capacity);
+            pathLength = Arrays.copyOf(pathLength, capacity);
+            path = Arrays.copyOf(path, capacity * MAX_PATH);
+        }
+        return size++;
+    }
+}
@@ -0,0 +1,251 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Lists every legal move of a {@link Position} into a {@link MoveBuffer}.
+ * <p>
+ * Capturing is mandatory and a capture sequence only ends when the piece has
+ * nothing more to take, the same way {@code GameLogic} keeps a piece in
+ * {@code capturingPiece}. Captured pieces leave the board as soon as they are
+ * jumped and a man reaching the last row mid-sequence carries on as a king,
+ * both matching {@code CheckersGame.handleKillMove}.
+ * <p>
+ * Under {@link CaptureRule#MAJORITY} only the sequences taking the most
+ * pieces are listed. A first pass finds that number without listing
+ * anything: it stops exploring a branch once it can take every enemy piece
+ * left, and remembers the best count per (piece, square, king, pieces taken
+ * so far), which a flying king reaches again and again by taking the same
+ * pieces in another order. The second pass then only follows the hops whose
+ * remembered count still reaches the maximum.
+ */
+public final class MoveGenerator {
+    private static final int MEMO_SIZE = 1 << 12;
+    private static final int MEMO_PROBES = 8;
+
+    private final BoardGeometry geometry;
+    private final CaptureRule rule;
+    private final int[] hops = new int[MoveBuffer.MAX_PATH];
+
+    private MoveBuffer out;
+    private int origin;
+    private boolean red;
+    /** Set by {@link #landings}. */
+    private int victim;
+    /** Pieces a listed sequence must take, 0 when any complete sequence is listed. */
+    private int required;
+
+    private final long[] memoCaptured;
+    private final int[] memoState;
+    private final byte[] memoLength;
+    private final int[] memoStamp;
+    private int stamp;
+
+    public MoveGenerator(BoardGeometry geometry) {
+        this(geometry, CaptureRule.FREE);
+    }
+
+    public MoveGenerator(BoardGeometry geometry, CaptureRule rule) {
+        this.geometry = geometry;
+        this.rule = rule;
+        boolean majority = rule == CaptureRule.MAJORITY;
+        memoCaptured = new long[majority ? MEMO_SIZE : 0];
+        memoState = new int[majority ? MEMO_SIZE : 0];
+        memoLength = new byte[majority ? MEMO_SIZE : 0];
+        memoStamp = new int[majority ? MEMO_SIZE : 0];
+    }
+
+    public CaptureRule rule() {
+        return rule;
+    }
+
+    /** Fills {@code buffer} with the legal moves of the side to move and returns their count. */
+    public int generate(Position position, MoveBuffer buffer) {
+        buffer.clear();
+        if (generateCaptures(position, buffer) == 0) {
+            generateNormalMoves(position, buffer);
+        }
+        return buffer.size();
+    }
+
+    public int generateCaptures(Position position, MoveBuffer buffer) {
+        buffer.clear();
+        out = buffer;
+        red = position.isRedToMove();
+        long own = position.pieces(red);
+        long enemy = position.pieces(!red);
+        long occupied = position.occupied();
+
+        required = 0;
+        if (rule == CaptureRule.MAJORITY) {
+            newStamp();
+            int bound = Long.bitCount(enemy);
+            for (long m = own; m != 0 && required < bound; m &= m - 1) {
+                int s = Long.numberOfTrailingZeros(m);
+                origin = s;
+                required = Math.max(required, longest(s, position.isKing(s), occupied & ~(1L << s), enemy, 0L));
+            }
+            if (required == 0) {
+                out = null;
+                return 0;
+            }
+        }
+
+        while (own != 0) {
+            int s = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            origin = s;
+            boolean king = position.isKing(s);
+            long rest = occupied & ~(1L << s);
+            if (required > 0 && longest(s, king, rest, enemy, 0L) < required) continue;
+            capture(s, king, false, rest, enemy, 0L, 0);
+        }
+        out = null;
+        return buffer.size();
+    }
+
+    private boolean capture(int square, boolean king, boolean promoted, long occupied, long enemy,
+                            long captured, int depth) {
+        boolean found = false;
+        for (int d = 0; d < BoardGeometry.DIRECTIONS; d++) {
+            long landings = landings(square, king, d, occupied, enemy);
+            if (landings == 0) continue;
+
+            long victimBit = 1L << victim;
+            long nextOccupied = occupied & ~victimBit;
+            long nextEnemy = enemy & ~victimBit;
+            long nextCaptured = captured | victimBit;
+            while (landings != 0) {
+                int landing = BoardGeometry.nearest(landings, d);
+                landings &= ~(1L << landing);
+                found = true;
+                boolean crowned = !king && (geometry.promotionRow(red) & (1L << landing)) != 0;
+                if (required > 0
+                        && depth + 1 + longest(landing, king || crowned, nextOccupied, nextEnemy, nextCaptured) < required) {
+                    continue;
+                }
+                hops[depth] = landing;
+                if (!capture(landing, king || crowned, promoted || crowned, nextOccupied,
+                        nextEnemy, nextCaptured, depth + 1)) {
+                    out.addCapture(origin, nextCaptured, promoted || crowned, hops, depth + 1);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Landing squares of a capture from {@code square} in direction
+     * {@code d}, 0 if there is none; the piece it takes is left in
+     * {@link #victim}.
+     */
+    private long landings(int square, boolean king, int d, long occupied, long enemy) {
+        if (king) {
+            long blockers = geometry.ray(square, d) & occupied;
+            if (blockers == 0) return 0;
+            victim = BoardGeometry.nearest(blockers, d);
+            if ((enemy & (1L << victim)) == 0) return 0;
+            return geometry.slide(victim, d, occupied);
+        }
+        victim = geometry.neighbour(square, d);
+        if (victim < 0 || (enemy & (1L << victim)) == 0) return 0;
+        int landing = geometry.neighbour(victim, d);
+        if (landing < 0 || (occupied & (1L << landing)) != 0) return 0;
+        return 1L << landing;
+    }
+
+    /**
+     * Most pieces the piece that started on {@link #origin} can still take
+     * from {@code square}, having taken {@code captured}. The other
+     * arguments follow from those within one position, so they are not part
+     * of the memo key.
+     */
+    private int longest(int square, boolean king, long occupied, long enemy, long captured) {
+        int state = origin | square << 6 | (king ? 1 << 12 : 0);
+        int slot = memoSlot(captured, state);
+        if (slot >= 0 && memoStamp[slot] == stamp) {
+            return memoLength[slot];
+        }
+
+        int bound = Long.bitCount(enemy);
+        int best = 0;
+        for (int d = 0; d < BoardGeometry.DIRECTIONS && best < bound; d++) {
+            long landings = landings(square, king, d, occupied, enemy);
+            if (landings == 0) continue;
+
+            long victimBit = 1L << victim;
+            long nextOccupied = occupied & ~victimBit;
+            long nextEnemy = enemy & ~victimBit;
+            while (landings != 0 && best < bound) {
+                int landing = Long.numberOfTrailingZeros(landings);
+                landings &= landings - 1;
+                boolean crowned = !king && (geometry.promotionRow(red) & (1L << landing)) != 0;
+                best = Math.max(best, 1 + longest(landing, king || crowned, nextOccupied, nextEnemy, captured | victimBit));
+            }
+        }
+
+        if (slot >= 0) {
+            memoCaptured[slot] = captured;
+            memoState[slot] = state;
+            memoLength[slot] = (byte) best;
+            memoStamp[slot] = stamp;
+        }
+        return best;
+    }
+
+    /**
+     * The slot holding the key, else a free slot for it, else -1 when the
+     * probed slots are all taken; then the count is just not remembered.
+     */
+    private int memoSlot(long captured, int state) {
+        long h = (captured ^ state) * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h >>> (64 - Integer.numberOfTrailingZeros(MEMO_SIZE)));
+        for (int i = 0; i < MEMO_PROBES; i++, slot = (slot + 1) & (MEMO_SIZE - 1)) {
+            if (memoStamp[slot] != stamp) return slot;
+            if (memoCaptured[slot] == captured && memoState[slot] == state) return slot;
+        }
+        return -1;
+    }
+
+    /** Forgets the remembered counts of the previous position in O(1). */
+    private void newStamp() {
+        if (++stamp == 0) {
+            Arrays.fill(memoStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    public int generateNormalMoves(Position position, MoveBuffer buffer) {
+        buffer.clear();
+        boolean redToMove = position.isRedToMove();
+        long occupied = position.occupied();
+        long promotionRow = geometry.promotionRow(redToMove);
+        int forward = BoardGeometry.firstForwardDirection(redToMove);
+
+        long men = redToMove ? position.redMen() : position.whiteMen();
+        while (men != 0) {
+            int s = Long.numberOfTrailingZeros(men);
+            men &= men - 1;
+            for (int d = forward; d < forward + 2; d++) {
+                int target = geometry.neighbour(s, d);
+                if (target >= 0 && (occupied & (1L << target)) == 0) {
+                    buffer.addNormal(s, target, (promotionRow & (1L << target)) != 0);
+                }
+            }
+        }
+
+        long kings = redToMove ? position.redKings() : position.whiteKings();
+        while (kings != 0) {
+            int s = Long.numberOfTrailingZeros(kings);
+            kings &= kings - 1;
+            for (int d = 0; d < BoardGeometry.DIRECTIONS; d++) {
+                for (long targets = geometry.slide(s, d, occupied); targets != 0; ) {
+                    int target = BoardGeometry.nearest(targets, d);
+                    targets &= ~(1L << target);
+                    buffer.addNormal(s, target, false);
+                }
+            }
+        }
+        return buffer.size();
+    }
+}
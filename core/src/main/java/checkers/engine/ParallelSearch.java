@@ -0,0 +1,133 @@
+package checkers.engine;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Lazy-SMP search: every thread runs its own {@link Search} over the same
+ * root and they cooperate only through the shared lock-free
+ * {@link TranspositionTable}. The calling thread is the main searcher and
+ * its result is returned; helpers are stopped as soon as it finishes.
+ */
+public final class ParallelSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    private final Future<?>[] running;
+    private final SearchResult[] helperResults;
+
+    public ParallelSearch(BoardGeometry geometry, int threads, int tableMegabytes) {
+        this(geometry, threads, tableMegabytes, CaptureRule.FREE);
+    }
+
+    public ParallelSearch(BoardGeometry geometry, int threads, int tableMegabytes, CaptureRule rule) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        table = new TranspositionTable(tableMegabytes);
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(geometry, table, rule);
+            searches[i].setThreadIndex(i);
+        }
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        running = new Future<?>[threads];
+        helperResults = new SearchResult[threads];
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    public TranspositionTable table() {
+        return table;
+    }
+
+    public SearchResult search(Position root, SearchLimits limits) {
+        return search(root, limits, stops());
+    }
+
+    /** Counts the calls to {@link #stop}, as {@link Search#stops} does. */
+    public long stops() {
+        return searches[0].stops();
+    }
+
+    /** Searches unless stopped since {@link #stops} returned {@code stopsSeen}; see {@link Search#search(Position, SearchLimits, long)}. */
+    public SearchResult search(Position root, SearchLimits limits, long stopsSeen) {
+        return search(root, limits, stopsSeen, null);
+    }
+
+    /**
+     * As {@link #search(Position, SearchLimits, long)}, handing
+     * {@code onIteration} the main searcher's best move after each depth it
+     * completes; its node count leaves out the helpers'.
+     */
+    public SearchResult search(Position root, SearchLimits limits, long stopsSeen,
+                               Consumer<SearchResult> onIteration) {
+        for (int i = 1; i < searches.length; i++) {
+            int index = i;
+            helperResults[i] = null;
+            running[i] = helpers.submit(() -> helperResults[index] = searches[index].search(root, limits));
+        }
+
+        SearchResult main = searches[0].search(root, limits, stopsSeen, onIteration);
+
+        long nodes = main.nodes;
+        for (int i = 1; i < searches.length; i++) {
+            awaitHelper(i);
+            if (helperResults[i] != null) {
+                nodes += helperResults[i].nodes;
+            }
+        }
+        return new SearchResult(main.from, main.to, main.captured, main.path, main.score, main.depth, nodes,
+                main.elapsedNanos);
+    }
+
+    public void setTablebase(Tablebase tablebase) {
+        for (Search search : searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    private void awaitHelper(int i) {
+        Future<?> future = running[i];
+        while (true) {
+            searches[i].stop();
+            try {
+                future.get(1, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // the helper may have reset its stop flag when it started; ask again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+        table.close();
+    }
+}
@@ -0,0 +1,55 @@
+package checkers.engine;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. Moves are
+ * made and unmade on a single position and buffers are preallocated per
+ * ply, so a run allocates nothing.
+ */
+public final class Perft {
+    private final MoveGenerator generator;
+    private final MoveBuffer[] buffers;
+    private final Position position;
+    private final UndoStack undo;
+
+    public Perft(BoardGeometry geometry, int maxDepth) {
+        this(geometry, maxDepth, CaptureRule.FREE);
+    }
+
+    public Perft(BoardGeometry geometry, int maxDepth, CaptureRule rule) {
+        generator = new MoveGenerator(geometry, rule);
+        buffers = new MoveBuffer[maxDepth + 1];
+        for (int i = 0; i <= maxDepth; i++) {
+            buffers[i] = new MoveBuffer();
+        }
+        position = new Position(geometry);
+        undo = new UndoStack(maxDepth + 1);
+    }
+
+    public long run(Position root, int depth) {
+        if (depth >= buffers.length) {
+            throw new IllegalArgumentException("Depth " + depth + " exceeds " + (buffers.length - 1));
+        }
+        position.copyFrom(root);
+        undo.clear();
+        return count(depth);
+    }
+
+    private long count(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveBuffer moves = buffers[depth];
+        int n = generator.generate(position, moves);
+        if (depth == 1) {
+            return n;
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            position.make(moves, i, undo);
+            nodes += count(depth - 1);
+            position.unmake(undo);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,310 @@
+package checkers.engine;
+
+/**
+ * A board position packed into bitmasks, one bit per playable square.
+ * <p>
+ * Follows the rules {@code GameLogic} plays by: men step forward but capture
+ * in all four directions, kings fly along diagonals and may capture an enemy
+ * at any distance as long as the square right behind it is empty.
+ * <p>
+ * A Zobrist key is kept up to date by every mutating method, so callers that
+ * only go through this class always see the key of the current position.
+ */
+public final class Position {
+    private final BoardGeometry geometry;
+
+    private long redMen;
+    private long redKings;
+    private long whiteMen;
+    private long whiteKings;
+    private boolean redToMove;
+    private long key;
+
+    public Position(BoardGeometry geometry) {
+        this.geometry = geometry;
+    }
+
+    public static Position initial(BoardGeometry geometry) {
+        Position position = new Position(geometry);
+        for (int s = 0; s < geometry.squares; s++) {
+            if (geometry.isInitialRedSquare(s)) {
+                position.put(s, true, false);
+            } else if (geometry.isInitialWhiteSquare(s)) {
+                position.put(s, false, false);
+            }
+        }
+        return position;
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public void clear() {
+        redMen = redKings = whiteMen = whiteKings = 0;
+        redToMove = false;
+        key = 0;
+    }
+
+    public void copyFrom(Position other) {
+        redMen = other.redMen;
+        redKings = other.redKings;
+        whiteMen = other.whiteMen;
+        whiteKings = other.whiteKings;
+        redToMove = other.redToMove;
+        key = other.key;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    public boolean isRedToMove() {
+        return redToMove;
+    }
+
+    public void setRedToMove(boolean redToMove) {
+        if (this.redToMove != redToMove) {
+            key ^= Zobrist.redToMove();
+        }
+        this.redToMove = redToMove;
+    }
+
+    public long redMen() {
+        return redMen;
+    }
+
+    public long redKings() {
+        return redKings;
+    }
+
+    public long whiteMen() {
+        return whiteMen;
+    }
+
+    public long whiteKings() {
+        return whiteKings;
+    }
+
+    public long pieces(boolean red) {
+        return red ? redMen | redKings : whiteMen | whiteKings;
+    }
+
+    public long kings() {
+        return redKings | whiteKings;
+    }
+
+    public long occupied() {
+        return redMen | redKings | whiteMen | whiteKings;
+    }
+
+    public boolean isOccupied(int square) {
+        return (occupied() & (1L << square)) != 0;
+    }
+
+    public boolean isRed(int square) {
+        return ((redMen | redKings) & (1L << square)) != 0;
+    }
+
+    public boolean isKing(int square) {
+        return (kings() & (1L << square)) != 0;
+    }
+
+    public void put(int square, boolean red, boolean king) {
+        remove(square);
+        long bit = 1L << square;
+        if (red) {
+            if (king) redKings |= bit; else redMen |= bit;
+        } else {
+            if (king) whiteKings |= bit; else whiteMen |= bit;
+        }
+        key ^= Zobrist.piece(Zobrist.kind(red, king), square);
+    }
+
+    public void remove(int square) {
+        long bit = 1L << square;
+        if ((occupied() & bit) == 0) return;
+        key ^= Zobrist.piece(Zobrist.kind(isRed(square), isKing(square)), square);
+        long keep = ~bit;
+        redMen &= keep;
+        redKings &= keep;
+        whiteMen &= keep;
+        whiteKings &= keep;
+    }
+
+    /** Moves whatever stands on {@code from} to {@code to}, keeping its colour and rank. */
+    public void move(int from, int to) {
+        boolean red = isRed(from);
+        boolean king = isKing(from);
+        remove(from);
+        put(to, red, king);
+    }
+
+    public void promote(int square) {
+        long bit = 1L << square;
+        if ((redMen & bit) != 0) {
+            redMen &= ~bit;
+            redKings |= bit;
+            key ^= Zobrist.piece(0, square) ^ Zobrist.piece(1, square);
+        } else if ((whiteMen & bit) != 0) {
+            whiteMen &= ~bit;
+            whiteKings |= bit;
+            key ^= Zobrist.piece(2, square) ^ Zobrist.piece(3, square);
+        }
+    }
+
+    /** Plays a generated move and hands the turn to the other side. */
+    public void play(MoveBuffer moves, int index) {
+        int from = moves.from(index);
+        boolean red = isRed(from);
+        boolean king = isKing(from) || moves.promotes(index);
+        remove(from);
+        for (long captured = moves.captured(index); captured != 0; captured &= captured - 1) {
+            remove(Long.numberOfTrailingZeros(captured));
+        }
+        put(moves.to(index), red, king);
+        setRedToMove(!redToMove);
+    }
+
+    /**
+     * Plays a generated move like {@link #play} and pushes what {@link #unmake}
+     * needs to take it back onto {@code undo}.
+     */
+    public void make(MoveBuffer moves, int index, UndoStack undo) {
+        int from = moves.from(index);
+        int to = moves.to(index);
+        long fromBit = 1L << from;
+        long toBit = 1L << to;
+        long captured = moves.captured(index);
+        boolean red = ((redMen | redKings) & fromBit) != 0;
+        boolean wasKing = ((redKings | whiteKings) & fromBit) != 0;
+        boolean promotes = moves.promotes(index);
+        boolean king = wasKing || promotes;
+        long capturedKings = captured & (red ? whiteKings : redKings);
+
+        undo.push(from | to << 8 | (wasKing ? UndoStack.WAS_KING : 0) | (promotes ? UndoStack.PROMOTED : 0)
+                | (red ? UndoStack.RED : 0), captured, capturedKings, key);
+
+        long k = key ^ Zobrist.redToMove()
+                ^ Zobrist.piece(Zobrist.kind(red, wasKing), from)
+                ^ Zobrist.piece(Zobrist.kind(red, king), to);
+        for (long c = captured; c != 0; c &= c - 1) {
+            int s = Long.numberOfTrailingZeros(c);
+            k ^= Zobrist.piece(Zobrist.kind(!red, (capturedKings & (1L << s)) != 0), s);
+        }
+
+        if (red) {
+            redMen &= ~fromBit;
+            redKings &= ~fromBit;
+            if (king) redKings |= toBit; else redMen |= toBit;
+            whiteMen &= ~captured;
+            whiteKings &= ~captured;
+        } else {
+            whiteMen &= ~fromBit;
+            whiteKings &= ~fromBit;
+            if (king) whiteKings |= toBit; else whiteMen |= toBit;
+            redMen &= ~captured;
+            redKings &= ~captured;
+        }
+        redToMove = !redToMove;
+        key = k;
+    }
+
+    /** Takes back the move on top of {@code undo}. */
+    public void unmake(UndoStack undo) {
+        int i = undo.top();
+        int move = undo.move(i);
+        long fromBit = 1L << (move & 0xFF);
+        long toBit = 1L << ((move >>> 8) & 0xFF);
+        long captured = undo.captured(i);
+        long capturedKings = undo.capturedKings(i);
+        boolean wasKing = (move & UndoStack.WAS_KING) != 0;
+        boolean red = (move & UndoStack.RED) != 0;
+
+        if (red) {
+            redMen &= ~toBit;
+            redKings &= ~toBit;
+            if (wasKing) redKings |= fromBit; else redMen |= fromBit;
+            whiteMen |= captured & ~capturedKings;
+            whiteKings |= capturedKings;
+        } else {
+            whiteMen &= ~toBit;
+            whiteKings &= ~toBit;
+            if (wasKing) whiteKings |= fromBit; else whiteMen |= fromBit;
+            redMen |= captured & ~capturedKings;
+            redKings |= capturedKings;
+        }
+        redToMove = !redToMove;
+        key = undo.key(i);
+        undo.pop();
+    }
+
+    /** Returns the pieces of the given side that have at least one capture available. */
+    public long capturers(boolean red) {
+        long result = 0;
+        long own = pieces(red);
+        while (own != 0) {
+            int s = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            if (canCapture(s)) {
+                result |= 1L << s;
+            }
+        }
+        return result;
+    }
+
+    public boolean canCapture(int square) {
+        boolean red = isRed(square);
+        boolean king = isKing(square);
+        long enemy = pieces(!red);
+        long occupied = occupied();
+
+        for (int d = 0; d < BoardGeometry.DIRECTIONS; d++) {
+            int s;
+            if (king) {
+                long blockers = geometry.ray(square, d) & occupied;
+                if (blockers == 0) continue;
+                s = BoardGeometry.nearest(blockers, d);
+            } else {
+                s = geometry.neighbour(square, d);
+            }
+            if (s < 0 || (enemy & (1L << s)) == 0) continue;
+
+            int landing = geometry.neighbour(s, d);
+            if (landing >= 0 && (occupied & (1L << landing)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether the piece on {@code square} has a non-capturing move. */
+    public boolean canMoveNormally(int square) {
+        long occupied = occupied();
+        int first = 0;
+        int count = BoardGeometry.DIRECTIONS;
+        if (!isKing(square)) {
+            first = BoardGeometry.firstForwardDirection(isRed(square));
+            count = 2;
+        }
+        for (int d = first; d < first + count; d++) {
+            int s = geometry.neighbour(square, d);
+            if (s >= 0 && (occupied & (1L << s)) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasAnyMove(boolean red) {
+        long own = pieces(red);
+        while (own != 0) {
+            int s = Long.numberOfTrailingZeros(own);
+            own &= own - 1;
+            if (canMoveNormally(s) || canCapture(s)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,371 @@
+package checkers.engine;
+
+import checkers.metrics.Counter;
+import checkers.metrics.Metrics;
+import checkers.metrics.SearchEvent;
+import checkers.metrics.Timer;
+
+import jdk.jfr.FlightRecorder;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Iterative-deepening principal variation search over {@link Position}s.
+ * <p>
+ * Captures are mandatory, so quiescence simply keeps searching while the
+ * side to move is forced to capture. Moves are ordered by transposition
+ * table move, capture size, promotion, killers and history. One instance
+ * searches on one thread at a time; {@link ParallelSearch} runs several
+ * instances against a shared table.
+ */
+public final class Search {
+    public static final int INFINITE = 32000;
+    public static final int WIN = 30000;
+    public static final int WIN_BOUND = WIN - 1000;
+
+    private static final Timer SEARCH = Metrics.timer("checkers_search", "Search.search on one thread");
+    private static final Counter NODES = Metrics.counter("checkers_search_nodes", "Nodes visited by Search");
+
+    private static final int MAX_PLY = 128;
+    private static final int TT_MOVE_ORDER = 1 << 30;
+
+    private final TranspositionTable table;
+    private final MoveGenerator generator;
+    private final Position position;
+    private final UndoStack undo = new UndoStack(MAX_PLY + 1);
+    private final MoveBuffer[] buffers = new MoveBuffer[MAX_PLY + 1];
+    private final int[][] order = new int[MAX_PLY + 1][];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[] history = new int[Zobrist.MAX_SQUARES * Zobrist.MAX_SQUARES];
+
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean aborted;
+    private final AtomicLong stops = new AtomicLong();
+    private long stopsSeen;
+    private int threadIndex;
+    private Tablebase tablebase;
+
+    private int rootFrom;
+    private int rootTo;
+    private long rootCaptured;
+    private final int[] rootPath = new int[MoveBuffer.MAX_PATH];
+    private int rootPathLength;
+
+    public Search(BoardGeometry geometry, TranspositionTable table) {
+        this(geometry, table, CaptureRule.FREE);
+    }
+
+    public Search(BoardGeometry geometry, TranspositionTable table, CaptureRule rule) {
+        this.table = table;
+        this.generator = new MoveGenerator(geometry, rule);
+        this.position = new Position(geometry);
+        for (int i = 0; i <= MAX_PLY; i++) {
+            buffers[i] = new MoveBuffer();
+            order[i] = new int[64];
+        }
+    }
+
+    /** Helper threads with an odd index start one iteration deeper so the threads spread over depths. */
+    public void setThreadIndex(int threadIndex) {
+        this.threadIndex = threadIndex;
+    }
+
+    /** Ignored unless captures are free, the rule {@link TablebaseBuilder} solves positions under. */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = generator.rule() == CaptureRule.FREE ? tablebase : null;
+    }
+
+    /** Asks a running search to return its best move from the last completed iteration. */
+    public void stop() {
+        stops.incrementAndGet();
+    }
+
+    /** Counts the calls to {@link #stop}; see {@link #search(Position, SearchLimits, long)}. */
+    public long stops() {
+        return stops.get();
+    }
+
+    /** Searches {@code root}; a {@link #stop} before this call does not affect it. */
+    public SearchResult search(Position root, SearchLimits limits) {
+        return search(root, limits, stops.get());
+    }
+
+    /**
+     * Searches {@code root} unless {@link #stop} has been called since
+     * {@link #stops} returned {@code stopsSeen}, in which case it stops
+     * as soon as it starts. A thread that checks whether its work is still
+     * wanted and then searches cannot miss a stop that comes in between.
+     */
+    public SearchResult search(Position root, SearchLimits limits, long stopsSeen) {
+        return search(root, limits, stopsSeen, null);
+    }
+
+    /**
+     * As {@link #search(Position, SearchLimits, long)}, handing
+     * {@code onIteration} the best move so far after each completed depth,
+     * on the searching thread. {@code onIteration} may be {@code null}.
+     */
+    public SearchResult search(Position root, SearchLimits limits, long stopsSeen,
+                               Consumer<SearchResult> onIteration) {
+        long start = System.nanoTime();
+        SearchEvent event = FlightRecorder.isInitialized() ? new SearchEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        deadline = limits.maxTimeNanos == Long.MAX_VALUE ? Long.MAX_VALUE : start + limits.maxTimeNanos;
+        maxNodes = limits.maxNodes;
+        nodes = 0;
+        this.stopsSeen = stopsSeen;
+        aborted = stops.get() != stopsSeen;
+        table.newSearch();
+        for (int[] k : killers) {
+            k[0] = k[1] = TranspositionTable.NO_MOVE;
+        }
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 2;
+        }
+
+        position.copyFrom(root);
+        undo.clear();
+        MoveBuffer rootMoves = buffers[0];
+        int n = generator.generate(position, rootMoves);
+        if (n == 0) {
+            return new SearchResult(-1, -1, 0, new int[0], -WIN, 0, 0, System.nanoTime() - start);
+        }
+
+        int bestFrom = rootMoves.from(0);
+        int bestTo = rootMoves.to(0);
+        long bestCaptured = rootMoves.captured(0);
+        int[] bestPath = pathOf(rootMoves, 0);
+        int bestScore = 0;
+        int completed = 0;
+        int stable = 0;
+        long iterationStart = start;
+        long lastIteration = 0;
+
+        for (int depth = 1 + (threadIndex & 1); depth <= limits.maxDepth; depth++) {
+            int score = negamax(0, depth, -INFINITE, INFINITE);
+            if (aborted) break;
+            long now = System.nanoTime();
+            long previousIteration = lastIteration;
+            lastIteration = now - iterationStart;
+            iterationStart = now;
+
+            boolean sameMove = rootFrom == bestFrom && rootTo == bestTo && rootCaptured == bestCaptured;
+            stable = completed == 0 || sameMove ? stable + 1 : 0;
+            int scoreDrop = completed == 0 ? 0 : bestScore - score;
+            bestFrom = rootFrom;
+            bestTo = rootTo;
+            bestCaptured = rootCaptured;
+            bestPath = Arrays.copyOf(rootPath, rootPathLength);
+            bestScore = score;
+            completed = depth;
+            if (onIteration != null) {
+                onIteration.accept(new SearchResult(bestFrom, bestTo, bestCaptured, bestPath, bestScore, completed,
+                        nodes, now - start));
+            }
+
+            if (n == 1 || Math.abs(score) > WIN_BOUND) break;
+            // Helpers run until the main searcher is done.
+            if (threadIndex == 0
+                    && TimeManager.stopDeepening(now - start, lastIteration, previousIteration,
+                    limits.softTimeNanos, stable, scoreDrop)) {
+                break;
+            }
+        }
+
+        SEARCH.stop(start);
+        NODES.add(nodes);
+        if (event != null && event.shouldCommit()) {
+            event.threadIndex = threadIndex;
+            event.depth = completed;
+            event.nodes = nodes;
+            event.score = bestScore;
+            event.commit();
+        }
+        return new SearchResult(bestFrom, bestTo, bestCaptured, bestPath, bestScore, completed, nodes,
+                System.nanoTime() - start);
+    }
+
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        if ((++nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (aborted) return 0;
+
+        if (ply > 0 && tablebase != null && Long.bitCount(position.occupied()) <= tablebase.maxPieces()) {
+            int value = tablebase.probe(position);
+            if (value != Tablebase.NOT_FOUND && value != Tablebase.INVALID) {
+                if (Tablebase.isWin(value)) return WIN - ply - Tablebase.distance(value);
+                if (Tablebase.isLoss(value)) return -WIN + ply + Tablebase.distance(value);
+                return 0;
+            }
+        }
+
+        MoveBuffer moves = buffers[ply];
+        int n = generator.generate(position, moves);
+        if (n == 0) return -WIN + ply;
+
+        boolean forced = moves.isCapture(0);
+        if ((depth <= 0 && !forced) || ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(position);
+        }
+
+        long key = position.key();
+        int ttMove = TranspositionTable.NO_MOVE;
+        if (depth > 0) {
+            long entry = table.probe(key);
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        scoreMoves(ply, moves, n, ttMove);
+        int next = depth <= 0 ? 0 : (n == 1 && ply > 0 ? depth : depth - 1);
+        int alphaOrig = alpha;
+        int best = -INFINITE;
+        int bestMove = TranspositionTable.NO_MOVE;
+
+        for (int i = 0; i < n; i++) {
+            pickNext(ply, moves, i, n);
+            position.make(moves, i, undo);
+
+            int score;
+            if (i == 0) {
+                score = -negamax(ply + 1, next, -beta, -alpha);
+            } else {
+                score = -negamax(ply + 1, next, -alpha - 1, -alpha);
+                if (score > alpha && score < beta) {
+                    score = -negamax(ply + 1, next, -beta, -alpha);
+                }
+            }
+            position.unmake(undo);
+            if (aborted) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = TranspositionTable.encodeMove(moves.from(i), moves.to(i));
+                if (ply == 0) {
+                    rememberRootMove(moves, i);
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!moves.isCapture(i)) {
+                            rememberQuietCutoff(ply, moves.from(i), moves.to(i), depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (depth > 0) {
+            int bound = best >= beta ? TranspositionTable.LOWER
+                    : best > alphaOrig ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(key, bestMove, toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    private void scoreMoves(int ply, MoveBuffer moves, int n, int ttMove) {
+        if (order[ply].length < n) {
+            order[ply] = new int[Math.max(n, order[ply].length * 2)];
+        }
+        int[] scores = order[ply];
+        int killer0 = killers[ply][0];
+        int killer1 = killers[ply][1];
+        for (int i = 0; i < n; i++) {
+            int from = moves.from(i);
+            int to = moves.to(i);
+            int move = TranspositionTable.encodeMove(from, to);
+            int score;
+            if (move == ttMove) {
+                score = TT_MOVE_ORDER;
+            } else if (moves.isCapture(i)) {
+                score = 1_000_000 + Long.bitCount(moves.captured(i)) * 10_000 + (moves.promotes(i) ? 5_000 : 0);
+            } else if (moves.promotes(i)) {
+                score = 900_000;
+            } else if (move == killer0) {
+                score = 800_000;
+            } else if (move == killer1) {
+                score = 700_000;
+            } else {
+                score = Math.min(history[from * Zobrist.MAX_SQUARES + to], 600_000);
+            }
+            scores[i] = score;
+        }
+    }
+
+    private void pickNext(int ply, MoveBuffer moves, int i, int n) {
+        int[] scores = order[ply];
+        int best = i;
+        for (int j = i + 1; j < n; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int t = scores[i];
+            scores[i] = scores[best];
+            scores[best] = t;
+            moves.swap(i, best);
+        }
+    }
+
+    private void rememberQuietCutoff(int ply, int from, int to, int depth) {
+        int move = TranspositionTable.encodeMove(from, to);
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        history[from * Zobrist.MAX_SQUARES + to] += depth * depth;
+    }
+
+    private void rememberRootMove(MoveBuffer moves, int i) {
+        rootFrom = moves.from(i);
+        rootTo = moves.to(i);
+        rootCaptured = moves.captured(i);
+        rootPathLength = moves.pathLength(i);
+        for (int h = 0; h < rootPathLength; h++) {
+            rootPath[h] = moves.pathSquare(i, h);
+        }
+    }
+
+    private void checkLimits() {
+        if (stops.get() != stopsSeen || nodes >= maxNodes || System.nanoTime() >= deadline) {
+            aborted = true;
+        }
+    }
+
+    private static int[] pathOf(MoveBuffer moves, int i) {
+        int[] path = new int[moves.pathLength(i)];
+        for (int h = 0; h < path.length; h++) {
+            path[h] = moves.pathSquare(i, h);
+        }
+        return path;
+    }
+
+    private static int toTable(int score, int ply) {
+        if (score > WIN_BOUND) return score + ply;
+        if (score < -WIN_BOUND) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > WIN_BOUND) return score - ply;
+        if (score < -WIN_BOUND) return score + ply;
+        return score;
+    }
+}
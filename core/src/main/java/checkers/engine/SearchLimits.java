@@ -0,0 +1,39 @@
+package checkers.engine;
+
+public class SearchLimits {
+    public static final int MAX_DEPTH = 64;
+
+    public final int maxDepth;
+    public final long maxNodes;
+    /** Hard limit: the search is aborted mid-iteration once it has run this long. */
+    public final long maxTimeNanos;
+    /**
+     * Target time for a move from {@link TimeManager}: no new iteration is
+     * started once it is likely to run past it. {@code Long.MAX_VALUE} when
+     * only the hard limit applies.
+     */
+    public final long softTimeNanos;
+
+    public SearchLimits(int maxDepth, long maxNodes, long maxTimeNanos) {
+        this(maxDepth, maxNodes, maxTimeNanos, Long.MAX_VALUE);
+    }
+
+    public SearchLimits(int maxDepth, long maxNodes, long maxTimeNanos, long softTimeNanos) {
+        this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+        this.maxNodes = maxNodes;
+        this.maxTimeNanos = maxTimeNanos;
+        this.softTimeNanos = softTimeNanos;
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(MAX_DEPTH, nodes, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits millis(long millis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, millis * 1_000_000L);
+    }
+}
@@ -0,0 +1,31 @@
+package checkers.engine;
+
+public class SearchResult {
+    public final int from;
+    public final int to;
+    public final long captured;
+    public final int[] path;
+    public final int score;
+    public final int depth;
+    public final long nodes;
+    public final long elapsedNanos;
+
+    public SearchResult(int from, int to, long captured, int[] path, int score, int depth, long nodes, long elapsedNanos) {
+        this.from = from;
+        this.to = to;
+        this.captured = captured;
+        this.path = path;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean hasMove() {
+        return from >= 0;
+    }
+
+    public long nodesPerSecond() {
+        return elapsedNanos > 0 ? nodes * 1_000_000_000L / elapsedNanos : 0;
+    }
+}
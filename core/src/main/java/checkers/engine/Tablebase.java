@@ -0,0 +1,179 @@
+package checkers.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only endgame tablebase. Every material class (counts of red men, red
+ * kings, white men, white kings) is a block of one-byte entries indexed by
+ * the combinatorial rank of each piece group plus the side to move. Blocks
+ * are memory-mapped, so a probe is an index computation and a page-cache
+ * read with nothing copied onto the heap.
+ * <p>
+ * Entry values: {@code 0} draw, {@code d > 0} the side to move wins in
+ * {@code d} plies, {@code -(d + 1)} it loses in {@code d} plies,
+ * {@link #INVALID} for placements that cannot occur.
+ * <p>
+ * File layout (big-endian): magic, version, squares, max pieces, class
+ * count, then per class {@code (int code, long offset, long length)},
+ * then the blocks. A file whose header, directory or blocks do not fit in
+ * it is rejected on {@link #open}.
+ */
+public final class Tablebase implements AutoCloseable {
+    public static final int MAGIC = 0x434B5442;
+    public static final int VERSION = 1;
+    public static final byte INVALID = -128;
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+    public static final int MAX_DISTANCE = 126;
+
+    static final int MAX_GROUP = 8;
+    static final int HEADER_BYTES = 20;
+    static final int DIRECTORY_ENTRY_BYTES = 20;
+    private static final long[][] BINOMIAL = new long[Zobrist.MAX_SQUARES + 1][MAX_GROUP + 1];
+
+    static {
+        for (int n = 0; n <= Zobrist.MAX_SQUARES; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= Math.min(n, MAX_GROUP); k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    private final FileChannel channel;
+    private final int squares;
+    private final int maxPieces;
+    private final ByteBuffer[] blocks = new ByteBuffer[(MAX_GROUP + 1) * (MAX_GROUP + 1) * (MAX_GROUP + 1) * (MAX_GROUP + 1)];
+
+    private Tablebase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            throw new IOException("Not a tablebase file: " + fileSize + " bytes");
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a tablebase file");
+        }
+        squares = header.getInt();
+        maxPieces = header.getInt();
+        int classes = header.getInt();
+        if (squares < 1 || squares > Zobrist.MAX_SQUARES || maxPieces < 2 || maxPieces > MAX_GROUP
+                || classes < 0 || HEADER_BYTES + (long) classes * DIRECTORY_ENTRY_BYTES > fileSize) {
+            throw new IOException("Corrupt or truncated tablebase header");
+        }
+
+        MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+                (long) classes * DIRECTORY_ENTRY_BYTES);
+        for (int i = 0; i < classes; i++) {
+            int code = directory.getInt();
+            long offset = directory.getLong();
+            long length = directory.getLong();
+            int rm = code & 0xFF, rk = (code >>> 8) & 0xFF, wm = (code >>> 16) & 0xFF, wk = code >>> 24;
+            if (Math.max(Math.max(rm, rk), Math.max(wm, wk)) > MAX_GROUP
+                    || length != classSize(squares, rm, rk, wm, wk) || length > Integer.MAX_VALUE
+                    || offset < HEADER_BYTES || offset > fileSize - length) {
+                throw new IOException("Corrupt or truncated tablebase block " + i);
+            }
+            blocks[slot(code)] = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        }
+    }
+
+    public static Tablebase open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new Tablebase(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int maxPieces() {
+        return maxPieces;
+    }
+
+    /** Returns the entry for {@code position}, or {@link #NOT_FOUND} when its material is not covered. */
+    public int probe(Position position) {
+        if (position.getGeometry().squares != squares) return NOT_FOUND;
+        int rm = Long.bitCount(position.redMen());
+        int rk = Long.bitCount(position.redKings());
+        int wm = Long.bitCount(position.whiteMen());
+        int wk = Long.bitCount(position.whiteKings());
+        if (rm + rk + wm + wk > maxPieces || rm + rk == 0 || wm + wk == 0) return NOT_FOUND;
+
+        ByteBuffer block = blocks[slot(classCode(rm, rk, wm, wk))];
+        if (block == null) return NOT_FOUND;
+        return block.get((int) index(position, squares, rm, rk, wm, wk));
+    }
+
+    public static boolean isWin(int value) {
+        return value > 0;
+    }
+
+    public static boolean isLoss(int value) {
+        return value < 0 && value != INVALID;
+    }
+
+    public static int distance(int value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    static int classCode(int rm, int rk, int wm, int wk) {
+        return rm | (rk << 8) | (wm << 16) | (wk << 24);
+    }
+
+    static int slot(int code) {
+        int rm = code & 0xFF, rk = (code >>> 8) & 0xFF, wm = (code >>> 16) & 0xFF, wk = code >>> 24;
+        return ((rm * (MAX_GROUP + 1) + rk) * (MAX_GROUP + 1) + wm) * (MAX_GROUP + 1) + wk;
+    }
+
+    static long binomial(int n, int k) {
+        return BINOMIAL[n][k];
+    }
+
+    static long classSize(int squares, int rm, int rk, int wm, int wk) {
+        return BINOMIAL[squares][rm] * BINOMIAL[squares][rk] * BINOMIAL[squares][wm] * BINOMIAL[squares][wk] * 2;
+    }
+
+    static long index(Position position, int squares, int rm, int rk, int wm, int wk) {
+        long index = rank(position.redMen());
+        index = index * BINOMIAL[squares][rk] + rank(position.redKings());
+        index = index * BINOMIAL[squares][wm] + rank(position.whiteMen());
+        index = index * BINOMIAL[squares][wk] + rank(position.whiteKings());
+        return index * 2 + (position.isRedToMove() ? 1 : 0);
+    }
+
+    /** Combinatorial rank of a set of squares: the sum of C(s_i, i + 1) over its squares in ascending order. */
+    static long rank(long mask) {
+        long rank = 0;
+        int i = 1;
+        while (mask != 0) {
+            int s = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            rank += BINOMIAL[s][i++];
+        }
+        return rank;
+    }
+
+    static long unrank(long rank, int k, int squares) {
+        long mask = 0;
+        int s = squares - 1;
+        for (int i = k; i >= 1; i--) {
+            while (BINOMIAL[s][i] > rank) s--;
+            rank -= BINOMIAL[s][i];
+            mask |= 1L << s;
+            s--;
+        }
+        return mask;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
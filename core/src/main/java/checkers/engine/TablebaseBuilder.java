@@ -0,0 +1,229 @@
+package checkers.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Builds a {@link Tablebase} file for every material class of up to
+ * {@code maxPieces} pieces with both sides present.
+ * <p>
+ * Classes are solved in dependency order, fewest pieces first and then
+ * fewest men, because captures remove a piece and promotions turn a man
+ * into a king, so every move out of a class lands in one solved earlier.
+ * Inside a class the builder repeats passes and pass {@code p} only settles
+ * positions decided in exactly {@code p} plies. Moves into earlier classes
+ * carry their distances from the start, so positions waiting on a longer
+ * distance stay pending until their pass comes; this keeps every distance
+ * minimal for the winner and maximal for the loser.
+ * <p>
+ * Each class is one array indexed by an int, so {@code maxPieces} is
+ * limited to what {@link #maxSupportedPieces} allows on the board: six on
+ * 8x8, five on 10x10.
+ */
+public final class TablebaseBuilder {
+    private static final long MAX_BLOCK = Integer.MAX_VALUE - 8;
+
+    private final BoardGeometry geometry;
+    private final int maxPieces;
+    private final byte[][] solved;
+    private final List<int[]> classes = new ArrayList<>();
+
+    private final MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final Position position;
+    private final Position child;
+
+    public TablebaseBuilder(BoardGeometry geometry, int maxPieces) {
+        int supported = maxSupportedPieces(geometry);
+        if (maxPieces < 2 || maxPieces > supported) {
+            throw new IllegalArgumentException("maxPieces must be between 2 and " + supported
+                    + " on a board of " + geometry.squares + " squares");
+        }
+        this.geometry = geometry;
+        this.maxPieces = maxPieces;
+        this.solved = new byte[(Tablebase.MAX_GROUP + 1) * (Tablebase.MAX_GROUP + 1)
+                * (Tablebase.MAX_GROUP + 1) * (Tablebase.MAX_GROUP + 1)][];
+        this.generator = new MoveGenerator(geometry);
+        this.position = new Position(geometry);
+        this.child = new Position(geometry);
+
+        for (int total = 2; total <= maxPieces; total++) {
+            classes.addAll(classesOf(total));
+        }
+    }
+
+    /** The most pieces for which every material class fits in one block on {@code geometry}. */
+    public static int maxSupportedPieces(BoardGeometry geometry) {
+        int supported = 1;
+        for (int total = 2; total <= Tablebase.MAX_GROUP; total++) {
+            for (int[] c : classesOf(total)) {
+                if (Tablebase.classSize(geometry.squares, c[0], c[1], c[2], c[3]) > MAX_BLOCK) {
+                    return supported;
+                }
+            }
+            supported = total;
+        }
+        return supported;
+    }
+
+    /** Material classes of exactly {@code total} pieces with both sides present, fewest men first. */
+    private static List<int[]> classesOf(int total) {
+        List<int[]> result = new ArrayList<>();
+        for (int men = 0; men <= total; men++) {
+            for (int rm = 0; rm <= men; rm++) {
+                int wm = men - rm;
+                for (int rk = 0; rk <= total - men; rk++) {
+                    int wk = total - men - rk;
+                    if (rm + rk > 0 && wm + wk > 0) {
+                        result.add(new int[]{rm, rk, wm, wk});
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public void build(Consumer<String> progress) {
+        for (int[] c : classes) {
+            long start = System.nanoTime();
+            byte[] table = solve(c[0], c[1], c[2], c[3]);
+            solved[Tablebase.slot(Tablebase.classCode(c[0], c[1], c[2], c[3]))] = table;
+            progress.accept(String.format("rm=%d rk=%d wm=%d wk=%d  %,d entries  %.1f s",
+                    c[0], c[1], c[2], c[3], table.length, (System.nanoTime() - start) / 1e9));
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(Tablebase.MAGIC);
+            out.writeInt(Tablebase.VERSION);
+            out.writeInt(geometry.squares);
+            out.writeInt(maxPieces);
+            out.writeInt(classes.size());
+
+            long offset = 20L + classes.size() * 20L;
+            for (int[] c : classes) {
+                int code = Tablebase.classCode(c[0], c[1], c[2], c[3]);
+                long length = solved[Tablebase.slot(code)].length;
+                out.writeInt(code);
+                out.writeLong(offset);
+                out.writeLong(length);
+                offset += length;
+            }
+            for (int[] c : classes) {
+                out.write(solved[Tablebase.slot(Tablebase.classCode(c[0], c[1], c[2], c[3]))]);
+            }
+        }
+    }
+
+    private byte[] solve(int rm, int rk, int wm, int wk) {
+        int squares = geometry.squares;
+        byte[] table = new byte[(int) Tablebase.classSize(squares, rm, rk, wm, wk)];
+
+        for (int index = 0; index < table.length; index++) {
+            if (!decode(index, rm, rk, wm, wk)) {
+                table[index] = Tablebase.INVALID;
+            } else if (generator.generate(position, moves) == 0) {
+                table[index] = -1;
+            }
+        }
+
+        for (int pass = 1; ; pass++) {
+            int decided = 0;
+            int pending = 0;
+            for (int index = 0; index < table.length; index++) {
+                if (table[index] != 0) continue;
+                decode(index, rm, rk, wm, wk);
+                int n = generator.generate(position, moves);
+
+                int fastestWin = Integer.MAX_VALUE;
+                int slowestLoss = -1;
+                boolean allWin = true;
+                for (int i = 0; i < n; i++) {
+                    child.copyFrom(position);
+                    child.play(moves, i);
+                    int value = lookup(child, table, rm, rk, wm, wk);
+                    if (Tablebase.isLoss(value)) {
+                        fastestWin = Math.min(fastestWin, Tablebase.distance(value) + 1);
+                    } else if (Tablebase.isWin(value)) {
+                        slowestLoss = Math.max(slowestLoss, Tablebase.distance(value) + 1);
+                    } else {
+                        allWin = false;
+                    }
+                }
+
+                if (fastestWin != Integer.MAX_VALUE) {
+                    if (fastestWin <= pass) {
+                        table[index] = (byte) Math.min(fastestWin, Tablebase.MAX_DISTANCE + 1);
+                        decided++;
+                    } else {
+                        pending++;
+                    }
+                } else if (allWin) {
+                    if (slowestLoss <= pass) {
+                        table[index] = (byte) -(Math.min(slowestLoss, Tablebase.MAX_DISTANCE) + 1);
+                        decided++;
+                    } else {
+                        pending++;
+                    }
+                }
+            }
+            if (decided == 0 && pending == 0) break;
+        }
+        return table;
+    }
+
+    private int lookup(Position p, byte[] current, int rm, int rk, int wm, int wk) {
+        int crm = Long.bitCount(p.redMen());
+        int crk = Long.bitCount(p.redKings());
+        int cwm = Long.bitCount(p.whiteMen());
+        int cwk = Long.bitCount(p.whiteKings());
+        if (p.pieces(p.isRedToMove()) == 0) {
+            return -1;
+        }
+        long index = Tablebase.index(p, geometry.squares, crm, crk, cwm, cwk);
+        if (crm == rm && crk == rk && cwm == wm && cwk == wk) {
+            return current[(int) index];
+        }
+        return solved[Tablebase.slot(Tablebase.classCode(crm, crk, cwm, cwk))][(int) index];
+    }
+
+    private boolean decode(int index, int rm, int rk, int wm, int wk) {
+        int squares = geometry.squares;
+        position.clear();
+        position.setRedToMove((index & 1) != 0);
+        long rest = index >>> 1;
+
+        long wkRank = rest % Tablebase.binomial(squares, wk);
+        rest /= Tablebase.binomial(squares, wk);
+        long wmRank = rest % Tablebase.binomial(squares, wm);
+        rest /= Tablebase.binomial(squares, wm);
+        long rkRank = rest % Tablebase.binomial(squares, rk);
+        long rmRank = rest / Tablebase.binomial(squares, rk);
+
+        long redMen = Tablebase.unrank(rmRank, rm, squares);
+        long redKings = Tablebase.unrank(rkRank, rk, squares);
+        long whiteMen = Tablebase.unrank(wmRank, wm, squares);
+        long whiteKings = Tablebase.unrank(wkRank, wk, squares);
+
+        if ((redMen & redKings) != 0 || ((redMen | redKings) & (whiteMen | whiteKings)) != 0
+                || (whiteMen & whiteKings) != 0
+                || (redMen & geometry.promotionRow(true)) != 0
+                || (whiteMen & geometry.promotionRow(false)) != 0) {
+            return false;
+        }
+        for (long m = redMen; m != 0; m &= m - 1) position.put(Long.numberOfTrailingZeros(m), true, false);
+        for (long m = redKings; m != 0; m &= m - 1) position.put(Long.numberOfTrailingZeros(m), true, true);
+        for (long m = whiteMen; m != 0; m &= m - 1) position.put(Long.numberOfTrailingZeros(m), false, false);
+        for (long m = whiteKings; m != 0; m &= m - 1) position.put(Long.numberOfTrailingZeros(m), false, true);
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+package checkers.engine;
+
+/**
+ * Splits a game clock into per-move search limits. A move gets a soft
+ * target, its share of the remaining time over the moves still expected
+ * plus most of the increment, and a hard cap a few times larger that never
+ * reaches past a fixed fraction of the clock. {@link Search} stops
+ * deepening early when the best move has stayed the same for a few
+ * iterations and keeps going longer when it just changed or the score
+ * dropped, within the hard cap.
+ * <p>
+ * {@code overheadNanos} is kept back from every move for what happens
+ * outside the search, such as handing the move to the board or the
+ * network, so the engine does not lose on time.
+ */
+public final class TimeManager {
+    public static final long DEFAULT_OVERHEAD_NANOS = 50_000_000L;
+
+    /** Moves per side a game is assumed to last, and the fewest still expected at any point. */
+    private static final int EXPECTED_MOVES = 50;
+    private static final int MIN_MOVES_TO_GO = 20;
+    private static final int HARD_FACTOR = 4;
+    private static final int MAX_CLOCK_SHARE = 3;
+    private static final long MIN_NANOS = 200_000L;
+
+    /** Growth of one iteration's time over the previous one's, assumed when unmeasured and clamped when measured. */
+    private static final double DEFAULT_GROWTH = 4;
+    private static final double MIN_GROWTH = 2;
+    private static final double MAX_GROWTH = 10;
+    private static final int SCORE_DROP = 30;
+
+    private final long overheadNanos;
+    private final double factor;
+
+    public TimeManager() {
+        this(DEFAULT_OVERHEAD_NANOS, 1.0);
+    }
+
+    /** {@code factor} scales every target, as an engine's {@code time} option does. */
+    public TimeManager(long overheadNanos, double factor) {
+        this.overheadNanos = overheadNanos;
+        this.factor = factor;
+    }
+
+    /**
+     * Limits for the move at {@code ply} (half-moves played so far) with
+     * {@code remainingNanos} on the mover's clock; the increment is added
+     * after the move.
+     */
+    public SearchLimits limitsFor(long remainingNanos, long incrementNanos, int ply, int maxDepth, long maxNodes) {
+        // Never hold back more than half, so a low clock still shrinks smoothly instead of dropping to the floor.
+        long usable = Math.max(0, remainingNanos - Math.min(overheadNanos, remainingNanos / 2));
+        int movesToGo = Math.max(MIN_MOVES_TO_GO, EXPECTED_MOVES - ply / 2);
+
+        long soft = (long) ((usable / movesToGo + incrementNanos * 3 / 4) * factor);
+        long hard = Math.min(soft * HARD_FACTOR, usable / MAX_CLOCK_SHARE);
+        hard = Math.max(MIN_NANOS, hard);
+        soft = Math.max(MIN_NANOS, Math.min(soft, hard));
+        return new SearchLimits(maxDepth, maxNodes, hard, soft);
+    }
+
+    /**
+     * Whether a search that has used {@code elapsedNanos} of a
+     * {@code softNanos} target should stop instead of starting another
+     * iteration, given how long the last two iterations took (0 when there
+     * was no earlier one). The next iteration is predicted from their
+     * growth and only started if it should end within the target.
+     * {@code stableIterations} is how many iterations in a row the best
+     * move has come out of, 0 when the last one changed it;
+     * {@code scoreDrop} is how much the last one lowered the score.
+     */
+    public static boolean stopDeepening(long elapsedNanos, long lastIterationNanos, long previousIterationNanos,
+                                        long softNanos, int stableIterations, int scoreDrop) {
+        if (softNanos == Long.MAX_VALUE) return false;
+        double scale = stableIterations >= 4 ? 0.5
+                : stableIterations >= 2 ? 0.8
+                : stableIterations == 0 ? 1.6
+                : 1.0;
+        if (scoreDrop >= SCORE_DROP) {
+            scale *= 1.5;
+        }
+        double growth = previousIterationNanos > 0
+                ? Math.clamp((double) lastIterationNanos / previousIterationNanos, MIN_GROWTH, MAX_GROWTH)
+                : DEFAULT_GROWTH;
+        return elapsedNanos + lastIterationNanos * growth >= softNanos * scale;
+    }
+}
@@ -0,0 +1,137 @@
+package checkers.engine;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Fixed-size transposition table stored off-heap and shared by any number
+ * of threads without locks.
+ * <p>
+ * Each entry is two longs: {@code key ^ data} and {@code data}. A reader
+ * only accepts an entry whose first word XORs back to its own key, so an
+ * entry torn by a concurrent writer reads as a miss instead of as wrong
+ * data. Buckets hold a depth-preferred slot and an always-replace slot.
+ */
+public final class TranspositionTable implements AutoCloseable {
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    public static final int NO_MOVE = 0xFFFF;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_BYTES = 2 * ENTRY_BYTES;
+    private static final long VALID = 1L << 63;
+
+    private final Arena arena;
+    private final MemorySegment table;
+    private final long bucketMask;
+    private volatile int generation;
+
+    public TranspositionTable(int megabytes) {
+        long buckets = Long.highestOneBit(Math.max(1L, megabytes * 1024L * 1024L / BUCKET_BYTES));
+        bucketMask = buckets - 1;
+        arena = Arena.ofShared();
+        table = arena.allocate(buckets * BUCKET_BYTES, 64);
+        table.fill((byte) 0);
+    }
+
+    public static int encodeMove(int from, int to) {
+        return from | (to << 8);
+    }
+
+    public static int moveFrom(int move) {
+        return move & 0xFF;
+    }
+
+    public static int moveTo(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /** Returns the packed entry for {@code key}, or 0 when there is none. */
+    public long probe(long key) {
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        for (int slot = 0; slot < 2; slot++, offset += ENTRY_BYTES) {
+            long check = table.get(ValueLayout.JAVA_LONG, offset);
+            long data = table.get(ValueLayout.JAVA_LONG, offset + 8);
+            if ((check ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int gen = generation;
+        long data = VALID
+                | (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.min(depth, 255) << 32)
+                | ((long) bound << 40)
+                | ((long) (gen & 0xFF) << 42);
+
+        long offset = (key & bucketMask) * BUCKET_BYTES;
+        long check = table.get(ValueLayout.JAVA_LONG, offset);
+        long old = table.get(ValueLayout.JAVA_LONG, offset + 8);
+        boolean replaceDeep = old == 0
+                || (check ^ old) == key
+                || depth >= depth(old)
+                || generation(old) != (gen & 0xFF);
+        if (!replaceDeep) {
+            offset += ENTRY_BYTES;
+        }
+        table.set(ValueLayout.JAVA_LONG, offset, key ^ data);
+        table.set(ValueLayout.JAVA_LONG, offset + 8, data);
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 40) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 0xFF);
+    }
+
+    /** Ages existing entries so the next search prefers to overwrite them. */
+    public void newSearch() {
+        generation++;
+    }
+
+    public void clear() {
+        table.fill((byte) 0);
+    }
+
+    public long sizeInBytes() {
+        return table.byteSize();
+    }
+
+    /** Per-mille of the first thousand entries that belong to the current search. */
+    public int hashfull() {
+        int gen = generation & 0xFF;
+        int used = 0;
+        long entries = Math.min(1000, table.byteSize() / ENTRY_BYTES);
+        for (long i = 0; i < entries; i++) {
+            long data = table.get(ValueLayout.JAVA_LONG, i * ENTRY_BYTES + 8);
+            if (data != 0 && generation(data) == gen) used++;
+        }
+        return (int) (used * 1000 / entries);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+}
@@ -0,0 +1,99 @@
+package checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Deltas of the moves made on a {@link Position}, newest last. An entry is
+ * the move's squares, whether the piece was a king before it moved, which
+ * squares it captured (and which of those held kings) and the previous
+ * Zobrist key, which is all {@link Position#unmake} needs to take the
+ * move back exactly.
+ */
+public final class UndoStack {
+    static final int WAS_KING = 1 << 16;
+    static final int PROMOTED = 1 << 17;
+    static final int RED = 1 << 18;
+
+    private int[] moves;
+    private long[] captured;
+    private long[] capturedKings;
+    private long[] keys;
+    private int size;
+
+    public UndoStack() {
+        this(64);
+    }
+
+    public UndoStack(int capacity) {
+        moves = new int[capacity];
+        captured = new long[capacity];
+        capturedKings = new long[capacity];
+        keys = new long[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int from(int index) {
+        return moves[index] & 0xFF;
+    }
+
+    public int to(int index) {
+        return (moves[index] >>> 8) & 0xFF;
+    }
+
+    public boolean promoted(int index) {
+        return (moves[index] & PROMOTED) != 0;
+    }
+
+    public long captured(int index) {
+        return captured[index];
+    }
+
+    void push(int move, long capturedMask, long capturedKingMask, long key) {
+        if (size == moves.length) {
+            int capacity = size * 2;
+            moves = Arrays.copyOf(moves, capacity);
+            captured = Arrays.copyOf(captured, capacity);
+            capturedKings = Arrays.copyOf(capturedKings, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        moves[size] = move;
+        captured[size] = capturedMask;
+        capturedKings[size] = capturedKingMask;
+        keys[size] = key;
+        size++;
+    }
+
+    int top() {
+        if (size == 0) {
+            throw new IllegalStateException("No move to take back");
+        }
+        return size - 1;
+    }
+
+    int move(int index) {
+        return moves[index];
+    }
+
+    long capturedKings(int index) {
+        return capturedKings[index];
+    }
+
+    long key(int index) {
+        return keys[index];
+    }
+
+    void pop() {
+        size--;
+    }
+}
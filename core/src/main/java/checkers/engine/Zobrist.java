@@ -0,0 +1,37 @@
+package checkers.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for incremental position hashing. Piece kinds are
+ * 0 = red man, 1 = red king, 2 = white man, 3 = white king.
+ */
+public final class Zobrist {
+    public static final int MAX_SQUARES = 64;
+
+    private static final long[] PIECES = new long[4 * MAX_SQUARES];
+    private static final long RED_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_C0DE_2024L);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        RED_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static int kind(boolean red, boolean king) {
+        return (red ? 0 : 2) + (king ? 1 : 0);
+    }
+
+    public static long piece(int kind, int square) {
+        return PIECES[kind * MAX_SQUARES + square];
+    }
+
+    public static long redToMove() {
+        return RED_TO_MOVE;
+    }
+}
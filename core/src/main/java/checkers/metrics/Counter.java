@@ -0,0 +1,26 @@
+package checkers.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Counter {
+    public final String name;
+    public final String help;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long value() {
+        return value.sum();
+    }
+}
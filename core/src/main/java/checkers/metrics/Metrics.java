@@ -0,0 +1,17 @@
+package checkers.metrics;
+
+/** The process-wide registry the game, engine and server record into. */
+public final class Metrics {
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    private Metrics() {
+    }
+
+    public static Timer timer(String name, String help) {
+        return REGISTRY.timer(name, help);
+    }
+
+    public static Counter counter(String name, String help) {
+        return REGISTRY.counter(name, help);
+    }
+}
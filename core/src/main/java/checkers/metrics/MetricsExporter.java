@@ -0,0 +1,106 @@
+package checkers.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes a registry as Prometheus text: rewritten to a file every few
+ * seconds, served at {@code /metrics} over HTTP, or both. Configured from
+ * system properties so any entry point can turn it on:
+ * <ul>
+ *     <li>{@code checkers.metrics.file} - file to rewrite</li>
+ *     <li>{@code checkers.metrics.interval} - seconds between rewrites, default 10</li>
+ *     <li>{@code checkers.metrics.port} - port of the scrape endpoint, bound to localhost</li>
+ * </ul>
+ */
+public final class MetricsExporter implements AutoCloseable {
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+    private final HttpServer server;
+
+    public MetricsExporter(MetricsRegistry registry, Path file, long intervalSeconds, int port) throws IOException {
+        this.registry = registry;
+        this.file = file;
+        if (file != null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-file");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::writeFileQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        } else {
+            scheduler = null;
+        }
+        if (port > 0) {
+            server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] body = render().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        } else {
+            server = null;
+        }
+    }
+
+    /** Returns an exporter configured from the {@code checkers.metrics.*} properties, or null if none is set. */
+    public static MetricsExporter fromSystemProperties(MetricsRegistry registry) throws IOException {
+        String file = System.getProperty("checkers.metrics.file");
+        int port = Integer.getInteger("checkers.metrics.port", 0);
+        if (file == null && port <= 0) return null;
+        long interval = Long.getLong("checkers.metrics.interval", 10);
+        return new MetricsExporter(registry, file != null ? Path.of(file) : null, interval, port);
+    }
+
+    public String render() {
+        StringWriter out = new StringWriter();
+        try {
+            registry.writePrometheus(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toString();
+    }
+
+    /** Rewrites the file in one step, so a reader never sees half of it. */
+    public void writeFile() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, render());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeFileQuietly() {
+        try {
+            writeFile();
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            writeFileQuietly();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+}
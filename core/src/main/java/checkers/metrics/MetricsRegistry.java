@@ -0,0 +1,51 @@
+package checkers.metrics;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Named timers and counters, written out in the Prometheus text format.
+ * Timers come out as summaries in seconds with a few quantiles and their
+ * maximum.
+ */
+public final class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+
+    public Timer timer(String name, String help) {
+        return timers.computeIfAbsent(name, n -> new Timer(n, help));
+    }
+
+    public Counter counter(String name, String help) {
+        return counters.computeIfAbsent(name, n -> new Counter(n, help));
+    }
+
+    public void writePrometheus(Appendable out) throws IOException {
+        for (Timer timer : timers.values()) {
+            Histogram h = timer.histogram();
+            out.append("# HELP ").append(timer.name).append("_seconds ").append(timer.help).append('\n');
+            out.append("# TYPE ").append(timer.name).append("_seconds summary\n");
+            for (double q : QUANTILES) {
+                out.append(timer.name).append("_seconds{quantile=\"").append(Double.toString(q)).append("\"} ")
+                        .append(seconds(h.quantile(q))).append('\n');
+            }
+            out.append(timer.name).append("_seconds_sum ").append(seconds(h.sum())).append('\n');
+            out.append(timer.name).append("_seconds_count ").append(Long.toString(h.count())).append('\n');
+            out.append("# TYPE ").append(timer.name).append("_seconds_max gauge\n");
+            out.append(timer.name).append("_seconds_max ").append(seconds(h.max())).append('\n');
+        }
+        for (Counter counter : counters.values()) {
+            out.append("# HELP ").append(counter.name).append("_total ").append(counter.help).append('\n');
+            out.append("# TYPE ").append(counter.name).append("_total counter\n");
+            out.append(counter.name).append("_total ").append(Long.toString(counter.value())).append('\n');
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
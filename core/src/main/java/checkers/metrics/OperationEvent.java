@@ -0,0 +1,23 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+@Name("checkers.Operation")
+@Label("Checkers Operation")
+@Category("Checkers")
+@Description("One timed call on a hot path: move validation, capture update, game-end check, clock tick, redraw, network frame")
+@StackTrace(false)
+public class OperationEvent extends Event {
+    @Label("Operation")
+    public String operation;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    public long elapsed;
+}
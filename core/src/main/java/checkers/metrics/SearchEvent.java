@@ -0,0 +1,25 @@
+package checkers.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("checkers.Search")
+@Label("Engine Search")
+@Category("Checkers")
+@StackTrace(false)
+public class SearchEvent extends Event {
+    @Label("Thread Index")
+    public int threadIndex;
+
+    @Label("Completed Depth")
+    public int depth;
+
+    @Label("Nodes")
+    public long nodes;
+
+    @Label("Score")
+    public int score;
+}
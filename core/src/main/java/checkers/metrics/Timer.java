@@ -0,0 +1,50 @@
+package checkers.metrics;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Latency of one named operation. {@link #stop} records into the histogram
+ * and, while a flight recording has {@code checkers.Operation} enabled,
+ * also commits an {@link OperationEvent}; with recording off it does not
+ * allocate.
+ */
+public final class Timer {
+    public final String name;
+    public final String help;
+    private final Histogram histogram = new Histogram();
+
+    Timer(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /** Records the time since {@code start}, a value returned by {@link #start}. */
+    public void stop(long start) {
+        long nanos = System.nanoTime() - start;
+        histogram.record(nanos);
+        if (FlightRecorder.isInitialized() && Jfr.OPERATION.isEnabled()) {
+            OperationEvent event = new OperationEvent();
+            event.operation = name;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    public void record(long nanos) {
+        histogram.record(nanos);
+    }
+
+    public Histogram histogram() {
+        return histogram;
+    }
+
+    /** Looked up on first use only, so processes that never record do not start JFR. */
+    private static final class Jfr {
+        static final EventType OPERATION = EventType.getEventType(OperationEvent.class);
+    }
+}
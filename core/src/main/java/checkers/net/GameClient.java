@@ -0,0 +1,112 @@
+package checkers.net;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Blocking client for {@link GameServer}. Frames are read on a virtual
+ * thread and passed to the listener; sends are synchronised so they can be
+ * called from any thread.
+ */
+public final class GameClient implements AutoCloseable {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private final GameClientListener listener;
+    private final byte[] frame = new byte[2 + Protocol.MAX_FRAME];
+    private volatile boolean closed;
+
+    public GameClient(String host, int port, GameClientListener listener) throws IOException {
+        this.listener = listener;
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(socket.getOutputStream());
+        Thread.ofVirtual().name("lan-client").start(this::readLoop);
+    }
+
+    public void join(int gameId) throws IOException {
+        synchronized (frame) {
+            out.writeShort(5);
+            out.writeByte(Protocol.JOIN);
+            out.writeInt(gameId);
+            out.flush();
+        }
+    }
+
+    public void sendMove(int from, int[] path, int hops) throws IOException {
+        synchronized (frame) {
+            frame[0] = 0;
+            frame[1] = (byte) (3 + hops);
+            frame[2] = Protocol.MOVE;
+            frame[3] = (byte) from;
+            frame[4] = (byte) hops;
+            for (int h = 0; h < hops; h++) {
+                frame[5 + h] = (byte) path[h];
+            }
+            out.write(frame, 0, 5 + hops);
+            out.flush();
+        }
+    }
+
+    public void resign() throws IOException {
+        synchronized (frame) {
+            out.writeShort(1);
+            out.writeByte(Protocol.RESIGN);
+            out.flush();
+        }
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                int length = in.readUnsignedShort();
+                byte type = in.readByte();
+                switch (type) {
+                    case Protocol.JOINED -> listener.joined(in.readInt(), in.readByte() != 0, in.readInt(), in.readInt());
+                    case Protocol.START -> listener.started();
+                    case Protocol.MOVED -> {
+                        int from = in.readUnsignedByte();
+                        int[] path = new int[in.readUnsignedByte()];
+                        for (int h = 0; h < path.length; h++) {
+                            path[h] = in.readUnsignedByte();
+                        }
+                        listener.moved(from, path, in.readInt(), in.readInt(), in.readByte() != 0);
+                    }
+                    case Protocol.REJECT -> listener.rejected(in.readByte());
+                    case Protocol.GAME_OVER -> listener.gameOver(in.readByte(), in.readByte());
+                    default -> in.skipNBytes(length - 1);
+                }
+            }
+        } catch (IOException e) {
+            // connection closed
+        } finally {
+            if (!closed) {
+                closed = true;
+                listener.disconnected();
+            }
+            closeQuietly();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeQuietly();
+    }
+
+    private void closeQuietly() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package checkers.net;
+
+/**
+ * Callbacks from {@link GameClient}. They arrive on the client's reader
+ * thread; UI code hands them over to the FX thread itself.
+ */
+public interface GameClientListener {
+    void joined(int gameId, boolean red, int baseMillis, int incrementMillis);
+
+    void started();
+
+    /**
+     * A move was played, by either side. {@code gameOver} means it ended
+     * the game: {@link #gameOver} follows and no move may be sent in reply.
+     */
+    void moved(int from, int[] path, int redMillis, int whiteMillis, boolean gameOver);
+
+    void rejected(int reason);
+
+    void gameOver(int winner, int reason);
+
+    void disconnected();
+}
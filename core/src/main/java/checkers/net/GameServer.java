@@ -0,0 +1,485 @@
+package checkers.net;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.DrawDetector;
+import checkers.engine.DrawRules;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.metrics.Counter;
+import checkers.metrics.Metrics;
+import checkers.metrics.Timer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Hosts LAN games on one selector thread. Each move is checked against the
+ * rules engine before it is relayed, and the clocks run here: a client only
+ * ever sees the times the server sends back with each move, and a flag
+ * falls from the queue of running clocks, one entry per game, that sets the
+ * selector timeout. Draws follow {@link DrawRules#fromProperty} unless given.
+ * A client whose connection fails, on read or on send, forfeits its game.
+ */
+public final class GameServer implements Runnable, AutoCloseable {
+    private static final Timer HANDLE = Metrics.timer("checkers_net_handle", "GameServer handling of one frame");
+    private static final Counter MOVES = Metrics.counter("checkers_net_moves", "Moves relayed by GameServer");
+    private static final Counter REJECTS = Metrics.counter("checkers_net_rejects", "Messages GameServer rejected");
+    private static final Counter GAMES = Metrics.counter("checkers_net_games", "Games GameServer finished");
+
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final MoveGenerator generator = new MoveGenerator(geometry);
+    private final MoveBuffer moves = new MoveBuffer();
+    private final DrawRules drawRules;
+
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final long baseNanos;
+    private final long incrementNanos;
+
+    private final Map<Integer, ServerGame> games = new HashMap<>();
+    private final TreeSet<ServerGame> clocks = new TreeSet<>(
+            Comparator.comparingLong((ServerGame g) -> g.flagAt).thenComparingInt(g -> g.id));
+    private final List<Connection> failed = new ArrayList<>();
+    private ServerGame waiting;
+    private int nextGameId = Protocol.FIRST_AUTO_GAME_ID;
+    private volatile boolean running = true;
+    private volatile Thread runner;
+
+    public GameServer(InetSocketAddress address, long baseMillis, long incrementMillis) throws IOException {
+        this(address, baseMillis, incrementMillis, DrawRules.fromProperty());
+    }
+
+    public GameServer(InetSocketAddress address, long baseMillis, long incrementMillis, DrawRules drawRules)
+            throws IOException {
+        this.drawRules = drawRules;
+        this.baseNanos = baseMillis * 1_000_000L;
+        this.incrementNanos = incrementMillis * 1_000_000L;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(address, 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int port() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int activeGames() {
+        return games.size();
+    }
+
+    /** Serves until {@link #close}, then closes every connection. */
+    @Override
+    public void run() {
+        runner = Thread.currentThread();
+        try {
+            while (running) {
+                long timeout = 0;
+                if (!clocks.isEmpty()) {
+                    timeout = Math.max(1, (clocks.first().flagAt - System.nanoTime()) / 1_000_000L + 1);
+                }
+                selector.select(timeout);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        if (key.isReadable()) read(connection);
+                        if (key.isValid() && key.isWritable()) flush(connection);
+                    }
+                }
+                expireClocks();
+                dropFailed();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                throw new IllegalStateException("LAN server stopped", e);
+            }
+        } finally {
+            closeChannels();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    private void read(Connection c) {
+        int n;
+        try {
+            n = c.channel.read(c.in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            disconnect(c);
+            return;
+        }
+
+        c.in.flip();
+        while (c.in.remaining() >= 2) {
+            int length = c.in.getShort(c.in.position()) & 0xFFFF;
+            if (length == 0 || length > Protocol.MAX_FRAME) {
+                disconnect(c);
+                return;
+            }
+            if (c.in.remaining() < 2 + length) break;
+            c.in.position(c.in.position() + 2);
+            int end = c.in.position() + length;
+            int limit = c.in.limit();
+            c.in.limit(end);
+            long start = Timer.start();
+            try {
+                handle(c, c.in.get(), c.in);
+            } catch (BufferUnderflowException e) {
+                disconnect(c);
+                return;
+            } finally {
+                HANDLE.stop(start);
+            }
+            if (!c.channel.isOpen()) return;
+            c.in.limit(limit).position(end);
+        }
+        c.in.compact();
+    }
+
+    private void handle(Connection c, byte type, ByteBuffer payload) {
+        switch (type) {
+            case Protocol.JOIN -> join(c, payload.getInt());
+            case Protocol.MOVE -> move(c, payload);
+            case Protocol.RESIGN -> {
+                if (c.game != null && c.game.started && !c.game.over) {
+                    finish(c.game, c.red ? Protocol.WINNER_WHITE : Protocol.WINNER_RED, Protocol.OVER_RESIGN);
+                }
+            }
+            default -> disconnect(c);
+        }
+    }
+
+    private void join(Connection c, int gameId) {
+        if (c.game != null) {
+            reject(c, Protocol.REJECT_GAME_FULL);
+            return;
+        }
+        if (gameId < 0 || gameId >= Protocol.FIRST_AUTO_GAME_ID) {
+            reject(c, Protocol.REJECT_GAME_ID);
+            return;
+        }
+        ServerGame game;
+        if (gameId == 0) {
+            if (waiting == null) {
+                waiting = createGame(nextGameId++);
+            }
+            game = waiting;
+        } else {
+            game = games.get(gameId);
+            if (game == null) {
+                game = createGame(gameId);
+            }
+        }
+        if (game.white != null && game.red != null) {
+            reject(c, Protocol.REJECT_GAME_FULL);
+            return;
+        }
+
+        c.game = game;
+        c.red = game.white != null;
+        if (c.red) game.red = c; else game.white = c;
+        if (game == waiting && game.white != null && game.red != null) {
+            waiting = null;
+        }
+
+        ByteBuffer out = c.frame(Protocol.JOINED, 12);
+        out.putInt(game.id).put((byte) (c.red ? 1 : 0))
+                .putInt((int) (baseNanos / 1_000_000L)).putInt((int) (incrementNanos / 1_000_000L));
+        send(c);
+
+        if (game.white != null && game.red != null) {
+            game.started = true;
+            game.turnStart = System.nanoTime();
+            game.white.frame(Protocol.START, 0);
+            send(game.white);
+            game.red.frame(Protocol.START, 0);
+            send(game.red);
+            scheduleFlag(game);
+        }
+    }
+
+    private ServerGame createGame(int id) {
+        ServerGame game = new ServerGame(id, Position.initial(geometry), baseNanos, new DrawDetector(drawRules));
+        games.put(id, game);
+        return game;
+    }
+
+    private void move(Connection c, ByteBuffer payload) {
+        ServerGame game = c.game;
+        if (game == null || !game.started || game.over) {
+            reject(c, Protocol.REJECT_NO_GAME);
+            return;
+        }
+        if (game.position.isRedToMove() != c.red) {
+            reject(c, Protocol.REJECT_NOT_YOUR_TURN);
+            return;
+        }
+
+        int from = payload.get();
+        int hops = payload.get();
+        if (hops < 1 || hops > payload.remaining()) {
+            reject(c, Protocol.REJECT_ILLEGAL);
+            return;
+        }
+        int pathStart = payload.position();
+
+        int n = generator.generate(game.position, moves);
+        int index = -1;
+        for (int i = 0; i < n && index < 0; i++) {
+            if (moves.from(i) != from || moves.pathLength(i) != hops) continue;
+            boolean same = true;
+            for (int h = 0; h < hops && same; h++) {
+                same = moves.pathSquare(i, h) == payload.get(pathStart + h);
+            }
+            if (same) index = i;
+        }
+        if (index < 0) {
+            reject(c, Protocol.REJECT_ILLEGAL);
+            return;
+        }
+
+        long now = System.nanoTime();
+        long remaining = (c.red ? game.redClock : game.whiteClock) - (now - game.turnStart);
+        if (remaining <= 0) {
+            finish(game, c.red ? Protocol.WINNER_WHITE : Protocol.WINNER_RED, Protocol.OVER_TIME);
+            return;
+        }
+        remaining += incrementNanos;
+        if (c.red) game.redClock = remaining; else game.whiteClock = remaining;
+        game.turnStart = now;
+        game.ply++;
+        game.position.play(moves, index);
+        DrawDetector.Reason draw = game.draws.onMove(game.position, moves, index);
+        boolean noMoves = generator.generate(game.position, moves) == 0;
+
+        broadcastMove(game, from, hops, payload, pathStart, noMoves || draw != null);
+        MOVES.increment();
+
+        if (noMoves) {
+            finish(game, c.red ? Protocol.WINNER_RED : Protocol.WINNER_WHITE, Protocol.OVER_NO_MOVES);
+        } else if (draw != null) {
+            finish(game, Protocol.WINNER_NONE, Protocol.OVER_DRAW);
+        } else {
+            scheduleFlag(game);
+        }
+    }
+
+    private void broadcastMove(ServerGame game, int from, int hops, ByteBuffer payload, int pathStart, boolean over) {
+        for (Connection player : game.players()) {
+            if (player == null) continue;
+            ByteBuffer out = player.frame(Protocol.MOVED, 2 + hops + 9);
+            out.put((byte) from).put((byte) hops);
+            for (int h = 0; h < hops; h++) {
+                out.put(payload.get(pathStart + h));
+            }
+            out.putInt((int) (game.redClock / 1_000_000L)).putInt((int) (game.whiteClock / 1_000_000L));
+            out.put((byte) (over ? 1 : 0));
+            send(player);
+        }
+    }
+
+    /** Replaces the game's entry in the clock queue by the flag of the side now to move. */
+    private void scheduleFlag(ServerGame game) {
+        clocks.remove(game);
+        game.flagAt = game.turnStart + (game.position.isRedToMove() ? game.redClock : game.whiteClock);
+        clocks.add(game);
+    }
+
+    private void expireClocks() {
+        long now = System.nanoTime();
+        while (!clocks.isEmpty() && clocks.first().flagAt <= now) {
+            ServerGame game = clocks.pollFirst();
+            finish(game, game.position.isRedToMove() ? Protocol.WINNER_WHITE : Protocol.WINNER_RED,
+                    Protocol.OVER_TIME);
+        }
+    }
+
+    private void finish(ServerGame game, byte winner, byte reason) {
+        game.over = true;
+        GAMES.increment();
+        clocks.remove(game);
+        games.remove(game.id);
+        if (waiting == game) waiting = null;
+        for (Connection player : game.players()) {
+            if (player == null || !player.channel.isOpen()) continue;
+            player.frame(Protocol.GAME_OVER, 2).put(winner).put(reason);
+            send(player);
+            player.game = null;
+        }
+    }
+
+    private void reject(Connection c, byte reason) {
+        REJECTS.increment();
+        c.frame(Protocol.REJECT, 1).put(reason);
+        send(c);
+    }
+
+    private void flush(Connection c) {
+        send(c);
+    }
+
+    /**
+     * Writes what the connection has buffered. A failed write closes it and
+     * leaves the forfeit to {@link #dropFailed}, so a game never ends in the
+     * middle of relaying a move.
+     */
+    private void send(Connection c) {
+        if (!c.channel.isOpen()) return;
+        c.out.flip();
+        try {
+            c.channel.write(c.out);
+        } catch (IOException e) {
+            c.out.clear();
+            c.close();
+            failed.add(c);
+            return;
+        }
+        c.out.compact();
+        if (c.key.isValid()) {
+            c.key.interestOps(c.out.position() > 0
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ);
+        }
+    }
+
+    private void dropFailed() {
+        // disconnect() may fail further sends, which land at the end of the list.
+        for (int i = 0; i < failed.size(); i++) {
+            disconnect(failed.get(i));
+        }
+        failed.clear();
+    }
+
+    private void disconnect(Connection c) {
+        ServerGame game = c.game;
+        c.close();
+        if (game == null || game.over) return;
+        if (game.started) {
+            finish(game, c.red ? Protocol.WINNER_WHITE : Protocol.WINNER_RED, Protocol.OVER_DISCONNECT);
+        } else {
+            games.remove(game.id);
+            if (waiting == game) waiting = null;
+        }
+    }
+
+    /** Stops {@link #run}, which closes the connections on its way out; does that itself if never run. */
+    @Override
+    public void close() {
+        running = false;
+        if (runner == null) {
+            closeChannels();
+        } else {
+            selector.wakeup();
+        }
+    }
+
+    private synchronized void closeChannels() {
+        if (!selector.isOpen()) return;
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+            // closing anyway
+        }
+    }
+
+    private static final class ServerGame {
+        final int id;
+        final Position position;
+        final DrawDetector draws;
+        Connection white;
+        Connection red;
+        long whiteClock;
+        long redClock;
+        long turnStart;
+        long flagAt;
+        int ply;
+        boolean started;
+        boolean over;
+
+        ServerGame(int id, Position position, long clock, DrawDetector draws) {
+            this.id = id;
+            this.position = position;
+            this.draws = draws;
+            draws.reset(position);
+            this.whiteClock = clock;
+            this.redClock = clock;
+        }
+
+        Connection[] players() {
+            return new Connection[]{white, red};
+        }
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(4 * Protocol.MAX_FRAME);
+        ByteBuffer out = ByteBuffer.allocate(4 * Protocol.MAX_FRAME);
+        SelectionKey key;
+        ServerGame game;
+        boolean red;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /** Starts a frame in the output buffer and returns it positioned at the payload. */
+        ByteBuffer frame(byte type, int payloadLength) {
+            if (out.remaining() < 3 + payloadLength) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + 3 + payloadLength));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+            return out.putShort((short) (1 + payloadLength)).put(type);
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+        }
+    }
+}
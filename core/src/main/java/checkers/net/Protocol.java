@@ -0,0 +1,54 @@
+package checkers.net;
+
+/**
+ * Binary LAN protocol. Every frame is an unsigned 16-bit length followed by
+ * that many bytes: a message type and its payload. Integers are big-endian,
+ * squares are single bytes in {@code BoardGeometry} numbering.
+ * <pre>
+ * JOIN      C-&gt;S  int gameId (0 = pair with anyone waiting, else below FIRST_AUTO_GAME_ID)
+ * JOINED    S-&gt;C  int gameId, byte red, int baseMillis, int incrementMillis
+ * START     S-&gt;C  -
+ * MOVE      C-&gt;S  byte from, byte hops, hops x byte landing square
+ * MOVED     S-&gt;C  byte from, byte hops, hops x byte, int redMillis, int whiteMillis, byte over
+ * REJECT    S-&gt;C  byte reason
+ * GAME_OVER S-&gt;C  byte winner (0 white, 1 red, 2 draw), byte reason
+ * RESIGN    C-&gt;S  -
+ * </pre>
+ * {@code over} is 1 when the move ended the game and GAME_OVER follows, so
+ * a client that answers MOVED at once never moves into a finished game.
+ * Games paired by the server get ids from {@link #FIRST_AUTO_GAME_ID} up, so
+ * a table a client names itself is never one the server handed out.
+ */
+public final class Protocol {
+    public static final int DEFAULT_PORT = 5555;
+    public static final int MAX_FRAME = 256;
+    public static final int FIRST_AUTO_GAME_ID = 1_000_000;
+
+    public static final byte JOIN = 1;
+    public static final byte JOINED = 2;
+    public static final byte START = 3;
+    public static final byte MOVE = 4;
+    public static final byte MOVED = 5;
+    public static final byte REJECT = 6;
+    public static final byte GAME_OVER = 7;
+    public static final byte RESIGN = 8;
+
+    public static final byte REJECT_NOT_YOUR_TURN = 1;
+    public static final byte REJECT_ILLEGAL = 2;
+    public static final byte REJECT_NO_GAME = 3;
+    public static final byte REJECT_GAME_FULL = 4;
+    public static final byte REJECT_GAME_ID = 5;
+
+    public static final byte WINNER_WHITE = 0;
+    public static final byte WINNER_RED = 1;
+    public static final byte WINNER_NONE = 2;
+
+    public static final byte OVER_NO_MOVES = 1;
+    public static final byte OVER_TIME = 2;
+    public static final byte OVER_RESIGN = 3;
+    public static final byte OVER_DISCONNECT = 4;
+    public static final byte OVER_DRAW = 5;
+
+    private Protocol() {
+    }
+}
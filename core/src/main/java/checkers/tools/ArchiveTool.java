@@ -0,0 +1,157 @@
+package checkers.tools;
+
+import checkers.archive.GameArchiveReader;
+import checkers.archive.GameArchiveWriter;
+import checkers.archive.GameRecord;
+import checkers.archive.GameReplay;
+import checkers.archive.Pdn;
+import checkers.archive.PdnReader;
+import checkers.archive.PositionIndex;
+import checkers.archive.PositionStats;
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.Position;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Usage:
+ * <pre>
+ * ArchiveTool import &lt;games.pdn&gt; &lt;archive&gt;
+ * ArchiveTool export &lt;archive&gt; &lt;games.pdn&gt;
+ * ArchiveTool stats &lt;archive&gt;
+ * ArchiveTool replay &lt;archive&gt;
+ * ArchiveTool index &lt;archive&gt;
+ * ArchiveTool lookup &lt;archive&gt; [fen]
+ * </pre>
+ * {@code index} brings the archive's {@link PositionIndex} up to date and
+ * {@code lookup} shows what it holds for one position, the start position
+ * by default.
+ */
+public class ArchiveTool {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ArchiveTool import <pdn> <archive> | export <archive> <pdn> | stats <archive> | replay <archive> | index <archive> | lookup <archive> [fen]");
+            return;
+        }
+        long start = System.nanoTime();
+        long games = switch (args[0]) {
+            case "import" -> importPdn(Path.of(args[1]), Path.of(args[2]));
+            case "export" -> exportPdn(Path.of(args[1]), Path.of(args[2]));
+            case "stats" -> stats(Path.of(args[1]));
+            case "replay" -> replay(Path.of(args[1]));
+            case "index" -> index(Path.of(args[1]));
+            case "lookup" -> lookup(Path.of(args[1]), args.length > 2 ? args[2] : null);
+            default -> throw new IllegalArgumentException("Unknown command " + args[0]);
+        };
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.2f s (%.0f games/s)%n", games, seconds, games / seconds);
+    }
+
+    private static long importPdn(Path pdn, Path archive) throws IOException {
+        GameRecord game = new GameRecord();
+        long games = 0;
+        try (BufferedReader in = Files.newBufferedReader(pdn);
+             GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            PdnReader reader = new PdnReader(in);
+            while (reader.next(game)) {
+                writer.append(game);
+                games++;
+            }
+        }
+        return games;
+    }
+
+    private static long exportPdn(Path archive, Path pdn) throws IOException {
+        GameRecord game = new GameRecord();
+        long games = 0;
+        try (GameArchiveReader reader = new GameArchiveReader(archive);
+             BufferedWriter out = Files.newBufferedWriter(pdn)) {
+            while (reader.next(game)) {
+                Pdn.write(game, out);
+                games++;
+            }
+        }
+        return games;
+    }
+
+    private static long stats(Path archive) throws IOException {
+        GameRecord game = new GameRecord();
+        long games = 0;
+        long plies = 0;
+        long[] results = new long[4];
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            while (reader.next(game)) {
+                games++;
+                plies += game.plies();
+                results[game.result()]++;
+            }
+        }
+        System.out.printf("%s: %d bytes, %d plies (%.1f bytes/ply)%n", archive, Files.size(archive), plies,
+                plies == 0 ? 0.0 : (double) Files.size(archive) / plies);
+        System.out.printf("White %d  Red %d  Draw %d  Unknown %d%n",
+                results[GameRecord.RESULT_WHITE_WINS], results[GameRecord.RESULT_RED_WINS],
+                results[GameRecord.RESULT_DRAW], results[GameRecord.RESULT_UNKNOWN]);
+        return games;
+    }
+
+    /** Plays every game to the end and back to the start, checking each move against the rules. */
+    private static long replay(Path archive) throws IOException {
+        GameRecord game = new GameRecord();
+        GameReplay replay = new GameReplay();
+        long games = 0;
+        long plies = 0;
+        long start = System.nanoTime();
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            while (reader.next(game)) {
+                replay.load(game);
+                replay.seek(game.plies());
+                replay.seek(0);
+                games++;
+                plies += 2L * game.plies();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d plies made and unmade (%.0f plies/s)%n", plies, plies / seconds);
+        return games;
+    }
+
+    private static long index(Path archive) throws IOException {
+        try (PositionIndex index = new PositionIndex(PositionIndex.directoryFor(archive))) {
+            long games = index.update(archive);
+            System.out.printf("Indexed up to byte %d in %d segments%n", index.indexedEnd(), index.segmentCount());
+            return games;
+        }
+    }
+
+    /** Prints the moves played from the position and times repeated lookups of it. */
+    private static long lookup(Path archive, String fen) throws IOException {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        Position position = fen != null ? Fen.parse(fen, geometry) : Position.initial(geometry);
+        PositionStats stats = new PositionStats();
+        try (PositionIndex index = new PositionIndex(PositionIndex.directoryFor(archive))) {
+            int runs = 1000;
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                index.lookup(position.key(), 10, stats);
+            }
+            double micros = (System.nanoTime() - start) / 1e3 / runs;
+            for (int i = 0; i < stats.moveCount(); i++) {
+                System.out.printf("%-8s %8d  White %d  Red %d  Draw %d%n",
+                        stats.isGameEnd(i) ? "end" : stats.notation(i), stats.games(i),
+                        stats.games(i, GameRecord.RESULT_WHITE_WINS), stats.games(i, GameRecord.RESULT_RED_WINS),
+                        stats.games(i, GameRecord.RESULT_DRAW));
+            }
+            for (int j = 0; j < stats.listed(); j++) {
+                System.out.printf("  game at byte %d, ply %d%n", stats.gameOffset(j), stats.ply(j));
+            }
+            System.out.printf("%d occurrences in %d segments, %.1f us per lookup%n",
+                    stats.occurrences(), index.segmentCount(), micros);
+            return stats.occurrences();
+        }
+    }
+}
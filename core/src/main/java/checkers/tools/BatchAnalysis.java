@@ -0,0 +1,339 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.Fen;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.SearchLimits;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analyses a stream of positions headlessly: one thread parses, worker
+ * threads search and one thread writes the results in input order. The
+ * stages pass a fixed ring of slots around, so at most {@code --queue}
+ * positions are in flight and memory does not grow with the input. Each
+ * worker owns its {@link Search} and table, like {@link Tournament}.
+ * <p>
+ * Input is one FEN per line ({@code #} starts a comment) or, with
+ * {@code --binary}, records of four big-endian masks (red men, red kings,
+ * white men, white kings) and a side byte, 1 for red to move. Each output
+ * line is the position's FEN, the best move in FEN square numbers, the
+ * score in centi-men for the side to move, the depth and the nodes,
+ * separated by tabs. {@code --rule majority} makes the side to move take
+ * the most pieces when it can capture; the default is {@code free}.
+ * <p>
+ * Usage: {@code BatchAnalysis [--in file|-] [--out file|-] [--binary] [--threads T]
+ * [--depth D] [--millis M] [--nodes N] [--hash MB] [--queue Q] [--board 8|10]
+ * [--rule free|majority]}
+ */
+public class BatchAnalysis {
+    private static final int BINARY_RECORD = 4 * Long.BYTES + 1;
+
+    private final BoardGeometry geometry;
+    private final CaptureRule rule;
+    private final SearchLimits limits;
+    private final int hashMb;
+    private final BlockingQueue<Slot> free;
+    private final BlockingQueue<Slot> work;
+    private final BlockingQueue<Slot> order;
+    private final Slot end;
+    private final AtomicLong totalNodes = new AtomicLong();
+    private long positions;
+    private volatile IOException writeFailure;
+
+    public BatchAnalysis(BoardGeometry geometry, SearchLimits limits, int hashMb, int queue) {
+        this(geometry, CaptureRule.FREE, limits, hashMb, queue);
+    }
+
+    public BatchAnalysis(BoardGeometry geometry, CaptureRule rule, SearchLimits limits, int hashMb, int queue) {
+        this.geometry = geometry;
+        this.rule = rule;
+        this.limits = limits;
+        this.hashMb = hashMb;
+        free = new ArrayBlockingQueue<>(queue);
+        work = new ArrayBlockingQueue<>(queue + 1);
+        order = new ArrayBlockingQueue<>(queue + 1);
+        end = new Slot(geometry);
+        for (int i = 0; i < queue; i++) {
+            free.add(new Slot(geometry));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String in = "-";
+        String out = "-";
+        boolean binary = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int depth = SearchLimits.MAX_DEPTH;
+        long nodes = Long.MAX_VALUE;
+        long millis = 0;
+        int hashMb = 16;
+        int queue = 0;
+        int board = 8;
+        CaptureRule rule = CaptureRule.FREE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--in" -> in = args[++i];
+                case "--out" -> out = args[++i];
+                case "--binary" -> binary = true;
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--depth" -> depth = Integer.parseInt(args[++i]);
+                case "--millis" -> millis = Long.parseLong(args[++i]);
+                case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                case "--hash" -> hashMb = Integer.parseInt(args[++i]);
+                case "--queue" -> queue = Integer.parseInt(args[++i]);
+                case "--board" -> board = Integer.parseInt(args[++i]);
+                case "--rule" -> rule = CaptureRule.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (depth == SearchLimits.MAX_DEPTH && nodes == Long.MAX_VALUE && millis == 0) {
+            throw new IllegalArgumentException("Give at least one of --depth, --millis or --nodes");
+        }
+
+        SearchLimits limits = new SearchLimits(depth, nodes, millis > 0 ? millis * 1_000_000L : Long.MAX_VALUE);
+        BatchAnalysis batch = new BatchAnalysis(BoardGeometry.of(board), rule, limits, hashMb,
+                queue > 0 ? queue : threads * 4);
+        try (InputStream input = in.equals("-") ? System.in : Files.newInputStream(Path.of(in));
+             Writer writer = out.equals("-")
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Path.of(out))) {
+            batch.run(input, binary, new BufferedWriter(writer, 1 << 16), threads);
+        }
+    }
+
+    /** Runs the pipeline until {@code input} is exhausted and every result is written. */
+    public void run(InputStream input, boolean binary, BufferedWriter out, int threads)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(this::analyse, "batch-worker-" + t);
+            workers[t].start();
+        }
+        Thread writer = new Thread(() -> write(out), "batch-writer");
+        writer.start();
+
+        try {
+            if (binary) {
+                readBinary(new DataInputStream(new BufferedInputStream(input, 1 << 16)));
+            } else {
+                readText(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16));
+            }
+        } finally {
+            order.put(end);
+            for (int t = 0; t < threads; t++) {
+                work.put(end);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            writer.join();
+        }
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d positions in %.1f s: %.1f positions/s, %.2f Mn/s on %d threads%n",
+                positions, seconds, positions / seconds, totalNodes.get() / seconds / 1e6, threads);
+    }
+
+    private void readText(BufferedReader in) throws IOException, InterruptedException {
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            Slot slot = free.take();
+            slot.input = line;
+            try {
+                Fen.parseInto(line, slot.position);
+            } catch (RuntimeException e) {
+                slot.error = e.getMessage();
+            }
+            submit(slot);
+        }
+    }
+
+    private void readBinary(DataInputStream in) throws IOException, InterruptedException {
+        byte[] record = new byte[BINARY_RECORD];
+        while (true) {
+            try {
+                in.readFully(record);
+            } catch (EOFException e) {
+                return;
+            }
+            Slot slot = free.take();
+            Position position = slot.position;
+            position.clear();
+            long redMen = getLong(record, 0);
+            long redKings = getLong(record, 8);
+            long whiteMen = getLong(record, 16);
+            long whiteKings = getLong(record, 24);
+            long all = redMen | redKings | whiteMen | whiteKings;
+            if (Long.bitCount(all) != Long.bitCount(redMen) + Long.bitCount(redKings)
+                    + Long.bitCount(whiteMen) + Long.bitCount(whiteKings)
+                    || (geometry.squares < Long.SIZE && all >>> geometry.squares != 0)) {
+                slot.error = "Overlapping or off-board squares";
+            } else {
+                put(position, redMen, true, false);
+                put(position, redKings, true, true);
+                put(position, whiteMen, false, false);
+                put(position, whiteKings, false, true);
+                position.setRedToMove(record[32] != 0);
+            }
+            slot.input = null;
+            submit(slot);
+        }
+    }
+
+    private void submit(Slot slot) throws InterruptedException {
+        positions++;
+        order.put(slot);
+        if (slot.error != null) {
+            slot.finish();
+        } else {
+            work.put(slot);
+        }
+    }
+
+    private void analyse() {
+        try (TranspositionTable table = new TranspositionTable(hashMb)) {
+            Search search = new Search(geometry, table, rule);
+            for (Slot slot = work.take(); slot != end; slot = work.take()) {
+                try {
+                    slot.result = search.search(slot.position, limits);
+                    totalNodes.addAndGet(slot.result.nodes);
+                } catch (RuntimeException e) {
+                    slot.error = String.valueOf(e);
+                }
+                slot.finish();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(BufferedWriter out) {
+        StringBuilder line = new StringBuilder();
+        try {
+            while (true) {
+                Slot slot = order.poll();
+                if (slot == null) {
+                    flush(out);
+                    slot = order.take();
+                }
+                if (slot == end) break;
+                slot.awaitFinished();
+                if (writeFailure == null) {
+                    line.setLength(0);
+                    format(slot, line);
+                    try {
+                        out.append(line);
+                    } catch (IOException e) {
+                        writeFailure = e;
+                    }
+                }
+                slot.reset();
+                free.put(slot);
+            }
+            flush(out);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flush(BufferedWriter out) {
+        if (writeFailure != null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            writeFailure = e;
+        }
+    }
+
+    private static void format(Slot slot, StringBuilder line) {
+        line.append(slot.input != null ? slot.input : Fen.format(slot.position)).append('\t');
+        SearchResult result = slot.result;
+        if (slot.error != null) {
+            line.append("error\t").append(slot.error);
+        } else if (!result.hasMove()) {
+            line.append("none\t").append(result.score).append("\t0\t0");
+        } else {
+            line.append(result.from + 1);
+            char separator = result.captured != 0 ? 'x' : '-';
+            for (int square : result.path) {
+                line.append(separator).append(square + 1);
+            }
+            line.append('\t').append(result.score)
+                    .append('\t').append(result.depth)
+                    .append('\t').append(result.nodes);
+        }
+        line.append('\n');
+    }
+
+    private static void put(Position position, long mask, boolean red, boolean king) {
+        for (; mask != 0; mask &= mask - 1) {
+            position.put(Long.numberOfTrailingZeros(mask), red, king);
+        }
+    }
+
+    private static long getLong(byte[] b, int offset) {
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value = value << 8 | (b[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /** One position on its way through the pipeline; slots are reused once written. */
+    private static final class Slot {
+        final Position position;
+        String input;
+        String error;
+        SearchResult result;
+        private boolean finished;
+
+        Slot(BoardGeometry geometry) {
+            position = new Position(geometry);
+        }
+
+        synchronized void finish() {
+            finished = true;
+            notifyAll();
+        }
+
+        synchronized void awaitFinished() throws InterruptedException {
+            while (!finished) {
+                wait();
+            }
+        }
+
+        synchronized void reset() {
+            finished = false;
+            input = null;
+            error = null;
+            result = null;
+        }
+    }
+}
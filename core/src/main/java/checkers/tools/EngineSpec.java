@@ -0,0 +1,55 @@
+package checkers.tools;
+
+import checkers.engine.SearchLimits;
+import checkers.engine.TimeManager;
+
+/**
+ * Engine settings for headless play, parsed from strings such as
+ * {@code depth=10}, {@code nodes=200000} or {@code time=1.0,hash=32}.
+ * {@code time} scales the share of the clock the engine spends per move;
+ * see {@link TimeManager}.
+ */
+public class EngineSpec {
+    public final String name;
+    public final int depth;
+    public final long nodes;
+    public final double timeFactor;
+    public final int hashMb;
+    private final TimeManager timeManager;
+
+    public EngineSpec(String name, int depth, long nodes, double timeFactor, int hashMb) {
+        this.name = name;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeFactor = timeFactor;
+        this.hashMb = hashMb;
+        timeManager = new TimeManager(TimeManager.DEFAULT_OVERHEAD_NANOS, timeFactor);
+    }
+
+    public static EngineSpec parse(String spec) {
+        int depth = SearchLimits.MAX_DEPTH;
+        long nodes = Long.MAX_VALUE;
+        double timeFactor = 1.0;
+        int hashMb = 16;
+        for (String option : spec.split(",")) {
+            if (option.isBlank()) continue;
+            String[] kv = option.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Expected key=value in engine spec: " + option);
+            }
+            switch (kv[0].trim()) {
+                case "depth" -> depth = Integer.parseInt(kv[1].trim());
+                case "nodes" -> nodes = Long.parseLong(kv[1].trim());
+                case "time" -> timeFactor = Double.parseDouble(kv[1].trim());
+                case "hash" -> hashMb = Integer.parseInt(kv[1].trim());
+                default -> throw new IllegalArgumentException("Unknown engine option: " + kv[0]);
+            }
+        }
+        return new EngineSpec(spec, depth, nodes, timeFactor, hashMb);
+    }
+
+    /** Limits for the move at {@code ply} given the mover's remaining clock and increment. */
+    public SearchLimits limitsFor(long remainingNanos, long incrementNanos, int ply) {
+        return timeManager.limitsFor(remainingNanos, incrementNanos, ply, depth, nodes);
+    }
+}
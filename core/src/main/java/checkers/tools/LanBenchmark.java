@@ -0,0 +1,180 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.net.GameClient;
+import checkers.net.GameClientListener;
+import checkers.net.GameServer;
+import checkers.net.Protocol;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prints the throughput and round-trip latency of a {@link GameServer} on
+ * loopback while many random games are played through it at once. Every
+ * move is timed from send to the server's echo. Correctness of the server
+ * is covered by {@code GameServerTest}.
+ * <p>
+ * Usage: {@code LanBenchmark [games] [seconds]}
+ */
+public class LanBenchmark {
+    private static final int MAX_SAMPLES = 1 << 20;
+    private static final int MAX_PLIES = 400;
+
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final long[] latencies = new long[MAX_SAMPLES];
+    private final AtomicInteger samples = new AtomicInteger();
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger moves = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final CountDownLatch finished;
+
+    private LanBenchmark(int games) {
+        finished = new CountDownLatch(2 * games);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        new LanBenchmark(games).run(games, seconds);
+    }
+
+    private void run(int games, int seconds) throws Exception {
+        try (GameServer server = new GameServer(new InetSocketAddress("127.0.0.1", 0), 600_000, 0)) {
+            Thread serverThread = Thread.ofPlatform().name("lan-server").start(server);
+            long start = System.nanoTime();
+
+            Player[] players = new Player[2 * games];
+            for (int g = 0; g < games; g++) {
+                for (int side = 0; side < 2; side++) {
+                    Player player = new Player(new SplittableRandom(g * 2L + side));
+                    player.client = new GameClient("127.0.0.1", server.port(), player);
+                    player.client.join(g + 1);
+                    players[2 * g + side] = player;
+                }
+            }
+
+            boolean done = finished.await(seconds, TimeUnit.SECONDS);
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            for (Player player : players) {
+                player.client.close();
+            }
+            server.close();
+            serverThread.join();
+
+            int n = Math.min(samples.get(), MAX_SAMPLES);
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            System.out.printf("Games %d  draws %d  moves %d  %.1f s  %.0f moves/s%n", games, draws.get(),
+                    moves.get(), elapsed, moves.get() / elapsed);
+            if (n > 0) {
+                System.out.printf("Round trip  p50 %.0f us  p99 %.0f us  max %.0f us%n",
+                        sorted[n / 2] / 1e3, sorted[(int) (n * 0.99)] / 1e3, sorted[n - 1] / 1e3);
+            }
+            if (!done || rejected.get() > 0) {
+                System.out.printf("%d players unfinished, %d moves rejected%n", finished.getCount(), rejected.get());
+            }
+        }
+    }
+
+    private final class Player implements GameClientListener {
+        final Position position = Position.initial(geometry);
+        final MoveGenerator generator = new MoveGenerator(geometry);
+        final MoveBuffer buffer = new MoveBuffer();
+        final int[] path = new int[MoveBuffer.MAX_PATH];
+        final SplittableRandom random;
+        GameClient client;
+        boolean red;
+        int plies;
+        long sentAt;
+
+        Player(SplittableRandom random) {
+            this.random = random;
+        }
+
+        @Override
+        public void joined(int gameId, boolean red, int baseMillis, int incrementMillis) {
+            this.red = red;
+        }
+
+        @Override
+        public void started() {
+            playIfOnMove();
+        }
+
+        @Override
+        public void moved(int from, int[] landed, int redMillis, int whiteMillis, boolean gameOver) {
+            if (position.isRedToMove() == red) {
+                long latency = System.nanoTime() - sentAt;
+                int i = samples.getAndIncrement();
+                if (i < MAX_SAMPLES) latencies[i] = latency;
+                moves.incrementAndGet();
+            }
+            generator.generate(position, buffer);
+            position.play(buffer, find(from, landed));
+            plies++;
+            if (!gameOver) {
+                playIfOnMove();
+            }
+        }
+
+        private int find(int from, int[] landed) {
+            for (int i = 0; i < buffer.size(); i++) {
+                if (buffer.from(i) != from || buffer.pathLength(i) != landed.length) continue;
+                boolean same = true;
+                for (int h = 0; h < landed.length && same; h++) {
+                    same = buffer.pathSquare(i, h) == landed[h];
+                }
+                if (same) return i;
+            }
+            throw new IllegalStateException("Server relayed a move this client cannot play");
+        }
+
+        private void playIfOnMove() {
+            if (position.isRedToMove() != red) return;
+            int n = generator.generate(position, buffer);
+            if (n == 0) return;
+            try {
+                if (plies >= MAX_PLIES) {
+                    client.resign();
+                    return;
+                }
+                int i = random.nextInt(n);
+                int hops = buffer.pathLength(i);
+                for (int h = 0; h < hops; h++) {
+                    path[h] = buffer.pathSquare(i, h);
+                }
+                sentAt = System.nanoTime();
+                client.sendMove(buffer.from(i), path, hops);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void rejected(int reason) {
+            rejected.incrementAndGet();
+        }
+
+        @Override
+        public void gameOver(int winner, int reason) {
+            if (red && winner == Protocol.WINNER_NONE) {
+                draws.incrementAndGet();
+            }
+            finished.countDown();
+        }
+
+        @Override
+        public void disconnected() {
+        }
+    }
+}
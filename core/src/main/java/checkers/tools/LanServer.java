@@ -0,0 +1,30 @@
+package checkers.tools;
+
+import checkers.metrics.Metrics;
+import checkers.metrics.MetricsExporter;
+import checkers.net.GameServer;
+import checkers.net.Protocol;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Usage: {@code LanServer [port] [minutes+incrementSeconds]}
+ * <p>
+ * Metrics are exported when {@code -Dcheckers.metrics.port} or
+ * {@code -Dcheckers.metrics.file} is set; see {@link MetricsExporter}.
+ */
+public class LanServer {
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT;
+        String[] tc = (args.length > 1 ? args[1] : Tournament.TIME_LIMIT_MINUTES + "+0").split("\\+");
+        long baseMillis = (long) (Double.parseDouble(tc[0]) * 60_000);
+        long incrementMillis = tc.length > 1 ? (long) (Double.parseDouble(tc[1]) * 1000) : 0;
+
+        try (MetricsExporter metrics = MetricsExporter.fromSystemProperties(Metrics.REGISTRY);
+             GameServer server = new GameServer(new InetSocketAddress(port), baseMillis, incrementMillis)) {
+            System.out.printf("Listening on port %d%n", server.port());
+            server.run();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.Perft;
+import checkers.engine.SearchLimits;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Single entry point of the core jar for the headless tools, so one AppCDS
+ * archive covers all of them. {@code mvn package} writes the archive next
+ * to the jar after a {@code train} run; start with it as
+ * <pre>
+ * java -XX:SharedArchiveFile=core/target/warcaby-core.jsa -jar core/target/warcaby-core.jar batch --depth 8 --in positions.txt
+ * </pre>
+ * A missing or stale archive only costs startup time; the JVM then loads
+ * classes from the jar as usual.
+ * <p>
+ * Usage: {@code Launcher <command> [arguments of the tool]}
+ */
+public class Launcher {
+    private static final Map<String, String> COMMANDS = Map.of(
+            "archive", "checkers.tools.ArchiveTool",
+            "batch", "checkers.tools.BatchAnalysis",
+            "lan-load", "checkers.tools.LanBenchmark",
+            "lan-server", "checkers.tools.LanServer",
+            "perft", "checkers.tools.PerftReport",
+            "smp", "checkers.tools.SmpBenchmark",
+            "tablebase", "checkers.tools.TablebaseGenerator",
+            "tournament", "checkers.tools.Tournament");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: Launcher <command> [arguments], command one of "
+                    + String.join(", ", COMMANDS.keySet().stream().sorted().toList()) + ", train");
+            System.exit(2);
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        if (args[0].equals("train")) {
+            train();
+            return;
+        }
+        String tool = COMMANDS.get(args[0]);
+        if (tool == null) {
+            throw new IllegalArgumentException("Unknown command " + args[0]);
+        }
+        Class.forName(tool).getMethod("main", String[].class).invoke(null, (Object) rest);
+    }
+
+    /**
+     * Loads every tool and runs the rules, search and batch paths briefly on
+     * both boards, so the classes they need end up in the CDS archive.
+     */
+    private static void train() throws Exception {
+        for (String tool : COMMANDS.values()) {
+            Class.forName(tool);
+        }
+        StringBuilder input = new StringBuilder();
+        for (Object[] c : PerftReport.POSITIONS) {
+            input.append(c[1]).append('\n');
+        }
+        long nodes = 0;
+        for (BoardGeometry geometry : new BoardGeometry[]{BoardGeometry.STANDARD, BoardGeometry.INTERNATIONAL}) {
+            String initial = geometry == BoardGeometry.STANDARD ? PerftReport.INITIAL : PerftReport.INTERNATIONAL_INITIAL;
+            nodes += new Perft(geometry, 4).run(Fen.parse(initial, geometry), 4);
+
+            BatchAnalysis batch = new BatchAnalysis(geometry, SearchLimits.depth(4), 1, 4);
+            byte[] fens = (geometry == BoardGeometry.STANDARD ? input.toString() : initial + '\n')
+                    .getBytes(StandardCharsets.UTF_8);
+            batch.run(new ByteArrayInputStream(fens), false, new BufferedWriter(Writer.nullWriter()), 1);
+        }
+        System.err.printf("Training run done, %d perft nodes%n", nodes);
+    }
+}
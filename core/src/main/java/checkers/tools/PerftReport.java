@@ -0,0 +1,72 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.Fen;
+import checkers.engine.Perft;
+import checkers.engine.Position;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Perft throughput report for the 8x8 and 10x10 boards: nodes per second
+ * and bytes allocated per node at every depth of each position. The node
+ * counts themselves are checked by {@code PerftTest}.
+ * <p>
+ * Usage: {@code PerftReport [free|majority]}
+ */
+public class PerftReport {
+    public static final String INITIAL = "W:W21,22,23,24,25,26,27,28,29,30,31,32:R1,2,3,4,5,6,7,8,9,10,11,12";
+
+    /** Name, FEN and deepest reported depth of each 8x8 position. */
+    public static final Object[][] POSITIONS = {
+            {"initial", INITIAL, 8},
+            {"kings-vs-men", "W:W18,K22,27,K29:RK4,6,10,11,14,15", 6},
+            {"flying-kings", "R:WK1,19,20,K32:R11,K13,K17,24,27", 6},
+            {"man-chains", "W:W17,25,26,27:R7,8,14,15,22,23", 6},
+            {"king-endgame", "W:WK28:RK5,10,19", 6},
+    };
+
+    public static final String INTERNATIONAL_INITIAL = "W:W31,32,33,34,35,36,37,38,39,40,41,42,43,44,45,46,47,48,49,50:R1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20";
+
+    /** One king with over a thousand capture sequences, eleven pieces long at most. */
+    public static final String KING_CHAINS = "W:WK22:R8,9,17,18,19,27,28,37,38,39,41";
+
+    public static final Object[][] INTERNATIONAL_POSITIONS = {
+            {"initial", INTERNATIONAL_INITIAL, 7},
+            {"kings-and-men", "W:WK46,33,37,K3,29:R12,K24,18,19,K40,23", 6},
+            {"king-endgame", "W:WK50:RK6,K15,K27", 6},
+            {"king-chains", KING_CHAINS, 4},
+    };
+
+    public static void main(String[] args) {
+        CaptureRule rule = args.length > 0 ? CaptureRule.valueOf(args[0].toUpperCase(Locale.ROOT)) : CaptureRule.FREE;
+        run(BoardGeometry.STANDARD, POSITIONS, rule);
+        run(BoardGeometry.INTERNATIONAL, INTERNATIONAL_POSITIONS, rule);
+    }
+
+    private static void run(BoardGeometry geometry, Object[][] positions, CaptureRule rule) {
+        Perft perft = new Perft(geometry, 16, rule);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        String board = geometry.width + "x" + geometry.height + (rule == CaptureRule.MAJORITY ? "+M" : "");
+
+        for (Object[] c : positions) {
+            String name = (String) c[0];
+            Position position = Fen.parse((String) c[1], geometry);
+            int maxDepth = (Integer) c[2];
+
+            for (int depth = 1; depth <= maxDepth; depth++) {
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                long nodes = perft.run(position, depth);
+                long elapsed = System.nanoTime() - start;
+                long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+                System.out.printf("%-7s %-13s depth %2d %12d nodes  %8.2f Mn/s  %.3f B/node%n",
+                        board, name, depth, nodes, nodes * 1e3 / Math.max(elapsed, 1), (double) allocated / nodes);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.ParallelSearch;
+import checkers.engine.Position;
+import checkers.engine.SearchLimits;
+import checkers.engine.SearchResult;
+
+/**
+ * Prints the Lazy-SMP speedup curve: nodes/second and time to a fixed depth
+ * over the perft report positions for 1, 2, 4, ... threads.
+ * <p>
+ * Usage: {@code SmpBenchmark [maxThreads] [depth] [hashMb]}
+ */
+public class SmpBenchmark {
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+        int hashMb = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        double baseTime = 0;
+
+        System.out.printf("%7s %12s %12s %12s %8s%n", "threads", "nodes", "Mn/s", "time-to-depth", "speedup");
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            long nodes = 0;
+            long elapsed = 0;
+            try (ParallelSearch search = new ParallelSearch(geometry, threads, hashMb)) {
+                for (Object[] c : PerftReport.POSITIONS) {
+                    Position position = Fen.parse((String) c[1], geometry);
+                    search.table().clear();
+                    long start = System.nanoTime();
+                    SearchResult result = search.search(position, SearchLimits.depth(depth));
+                    elapsed += System.nanoTime() - start;
+                    nodes += result.nodes;
+                }
+            }
+            double seconds = elapsed / 1e9;
+            if (threads == 1) baseTime = seconds;
+            System.out.printf("%7d %12d %12.2f %11.3f s %7.2fx%n",
+                    threads, nodes, nodes / seconds / 1e6, seconds, baseTime / seconds);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.TablebaseBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Usage: {@code TablebaseGenerator <output file> [maxPieces]}
+ */
+public class TablebaseGenerator {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: TablebaseGenerator <output file> [maxPieces]");
+            return;
+        }
+        Path output = Path.of(args[0]);
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        long start = System.nanoTime();
+        TablebaseBuilder builder = new TablebaseBuilder(BoardGeometry.STANDARD, maxPieces);
+        builder.build(System.out::println);
+        builder.write(output);
+        System.out.printf("Wrote %s in %.1f s%n", output, (System.nanoTime() - start) / 1e9);
+    }
+}
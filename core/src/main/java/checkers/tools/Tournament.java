@@ -0,0 +1,314 @@
+package checkers.tools;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.DrawDetector;
+import checkers.engine.DrawRules;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.engine.Search;
+import checkers.engine.SearchResult;
+import checkers.engine.TranspositionTable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless engine-vs-engine matches. Every opening is played twice with
+ * colours swapped. Each worker thread owns its engines and tables, so
+ * workers share nothing but the game counter and the result file, and
+ * throughput grows with the number of cores.
+ * <p>
+ * Usage: {@code Tournament [--games N] [--threads T] [--tc minutes+incrementSeconds]
+ * [--openings file | --random-plies K] [--max-plies P] [--draw rules] [--out file]
+ * [--engine-a spec] [--engine-b spec] [--seed S]}, {@code rules} in the
+ * format of {@link DrawRules#parse}. Games the draw rules do not end are
+ * drawn at {@code P} plies.
+ */
+public class Tournament {
+    public static final int TIME_LIMIT_MINUTES = 10;
+
+    private static final int RESULT_A_WINS = 1;
+    private static final int RESULT_DRAW = 0;
+    private static final int RESULT_B_WINS = -1;
+
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final EngineSpec engineA;
+    private final EngineSpec engineB;
+    private final List<String> openings;
+    private final int games;
+    private final long baseNanos;
+    private final long incrementNanos;
+    private final int maxPlies;
+    private final DrawRules drawRules;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final AtomicInteger winsA = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private final AtomicInteger winsB = new AtomicInteger();
+    private final AtomicLong totalGameNanos = new AtomicLong();
+    private final AtomicLong totalPlies = new AtomicLong();
+    private final BufferedWriter out;
+
+    public Tournament(EngineSpec engineA, EngineSpec engineB, List<String> openings, int games,
+                      long baseNanos, long incrementNanos, int maxPlies, DrawRules drawRules, BufferedWriter out) {
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.openings = openings;
+        this.games = games;
+        this.baseNanos = baseNanos;
+        this.incrementNanos = incrementNanos;
+        this.maxPlies = maxPlies;
+        this.drawRules = drawRules;
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int games = 100;
+        int threads = Runtime.getRuntime().availableProcessors();
+        double minutes = TIME_LIMIT_MINUTES;
+        double incrementSeconds = 0;
+        String openingsFile = null;
+        int randomPlies = 4;
+        int maxPlies = 400;
+        DrawRules drawRules = DrawRules.fromProperty();
+        Path outFile = Path.of("tournament.csv");
+        EngineSpec a = EngineSpec.parse("time=1.0");
+        EngineSpec b = EngineSpec.parse("time=1.0");
+        long seed = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--tc" -> {
+                    String[] tc = args[++i].split("\\+");
+                    minutes = Double.parseDouble(tc[0]);
+                    incrementSeconds = tc.length > 1 ? Double.parseDouble(tc[1]) : 0;
+                }
+                case "--openings" -> openingsFile = args[++i];
+                case "--random-plies" -> randomPlies = Integer.parseInt(args[++i]);
+                case "--max-plies" -> maxPlies = Integer.parseInt(args[++i]);
+                case "--draw" -> drawRules = DrawRules.parse(args[++i]);
+                case "--out" -> outFile = Path.of(args[++i]);
+                case "--engine-a" -> a = EngineSpec.parse(args[++i]);
+                case "--engine-b" -> b = EngineSpec.parse(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        List<String> openings = openingsFile != null
+                ? readOpenings(Path.of(openingsFile))
+                : randomOpenings(geometry, (games + 1) / 2, randomPlies, seed);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(outFile)) {
+            Tournament tournament = new Tournament(a, b, openings, games,
+                    (long) (minutes * 60e9), (long) (incrementSeconds * 1e9), maxPlies, drawRules, writer);
+            tournament.run(threads);
+        }
+    }
+
+    public void run(int threads) throws IOException, InterruptedException {
+        out.write("game,opening,red,white,result,plies,red_ms,white_ms,reason");
+        out.newLine();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(this::work);
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        report(System.nanoTime() - start);
+    }
+
+    private void work() {
+        try (TranspositionTable tableA = new TranspositionTable(engineA.hashMb);
+             TranspositionTable tableB = new TranspositionTable(engineB.hashMb)) {
+            Search searchA = new Search(geometry, tableA);
+            Search searchB = new Search(geometry, tableB);
+            MoveGenerator generator = new MoveGenerator(geometry);
+            MoveBuffer moves = new MoveBuffer();
+            Position position = new Position(geometry);
+            DrawDetector drawDetector = new DrawDetector(drawRules);
+
+            for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+                String opening = openings.get((game / 2) % openings.size());
+                boolean aIsRed = game % 2 == 0;
+                tableA.clear();
+                tableB.clear();
+                playGame(game, opening, aIsRed, searchA, searchB, generator, moves, position, drawDetector);
+            }
+        }
+    }
+
+    private void playGame(int game, String opening, boolean aIsRed, Search searchA, Search searchB,
+                          MoveGenerator generator, MoveBuffer moves, Position position, DrawDetector drawDetector) {
+        long gameStart = System.nanoTime();
+        Fen.parseInto(opening, position);
+        drawDetector.reset(position);
+        DrawDetector.Reason draw = null;
+        long redClock = baseNanos;
+        long whiteClock = baseNanos;
+        long redUsed = 0;
+        long whiteUsed = 0;
+        int plies = 0;
+        int result;
+        String reason;
+
+        while (true) {
+            if (generator.generate(position, moves) == 0) {
+                boolean redLost = position.isRedToMove();
+                result = redLost == aIsRed ? RESULT_B_WINS : RESULT_A_WINS;
+                reason = "no-moves";
+                break;
+            }
+            if (draw != null) {
+                result = RESULT_DRAW;
+                reason = draw.name().toLowerCase(Locale.ROOT).replace('_', '-');
+                break;
+            }
+            if (plies >= maxPlies) {
+                result = RESULT_DRAW;
+                reason = "max-plies";
+                break;
+            }
+
+            boolean red = position.isRedToMove();
+            boolean aToMove = red == aIsRed;
+            EngineSpec spec = aToMove ? engineA : engineB;
+            Search search = aToMove ? searchA : searchB;
+            long clock = red ? redClock : whiteClock;
+
+            long moveStart = System.nanoTime();
+            SearchResult best = search.search(position, spec.limitsFor(clock, incrementNanos, plies));
+            long used = System.nanoTime() - moveStart;
+
+            if (red) {
+                redClock += incrementNanos - used;
+                redUsed += used;
+            } else {
+                whiteClock += incrementNanos - used;
+                whiteUsed += used;
+            }
+            if ((red ? redClock : whiteClock) < 0) {
+                result = aToMove ? RESULT_B_WINS : RESULT_A_WINS;
+                reason = "time";
+                break;
+            }
+
+            int index = -1;
+            for (int i = 0; i < moves.size(); i++) {
+                if (moves.from(i) == best.from && moves.to(i) == best.to && moves.captured(i) == best.captured) {
+                    index = i;
+                    break;
+                }
+            }
+            position.play(moves, index);
+            draw = drawDetector.onMove(position, moves, index);
+            plies++;
+        }
+
+        switch (result) {
+            case RESULT_A_WINS -> winsA.incrementAndGet();
+            case RESULT_B_WINS -> winsB.incrementAndGet();
+            default -> draws.incrementAndGet();
+        }
+        totalGameNanos.addAndGet(System.nanoTime() - gameStart);
+        totalPlies.addAndGet(plies);
+
+        String redName = aIsRed ? "A" : "B";
+        String whiteName = aIsRed ? "B" : "A";
+        String outcome = result == RESULT_DRAW ? "1/2-1/2"
+                : (result == RESULT_A_WINS) == aIsRed ? "red" : "white";
+        writeLine(game + ",\"" + opening + "\"," + redName + "," + whiteName + "," + outcome + "," + plies + ","
+                + redUsed / 1_000_000 + "," + whiteUsed / 1_000_000 + "," + reason);
+    }
+
+    private void writeLine(String line) {
+        synchronized (out) {
+            try {
+                out.write(line);
+                out.newLine();
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void report(long elapsedNanos) {
+        int w = winsA.get(), d = draws.get(), l = winsB.get();
+        int n = w + d + l;
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("A: %s%nB: %s%n", engineA.name, engineB.name);
+        System.out.printf("Games %d  (+%d =%d -%d)  %.2f games/s%n", n, w, d, l, n / seconds);
+        if (n == 0) return;
+
+        System.out.printf("Average game %.1f s, %.1f plies%n",
+                totalGameNanos.get() / 1e9 / n, (double) totalPlies.get() / n);
+
+        double score = (w + 0.5 * d) / n;
+        double variance = (w * Math.pow(1 - score, 2) + d * Math.pow(0.5 - score, 2) + l * Math.pow(score, 2)) / n;
+        double margin = 1.96 * Math.sqrt(variance / n);
+        System.out.printf("Score %.1f%%  Elo A-B %+.1f  (95%%: %+.1f .. %+.1f)%n", score * 100,
+                elo(score), elo(score - margin), elo(score + margin));
+    }
+
+    private static double elo(double score) {
+        double s = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    private static List<String> readOpenings(Path path) throws IOException {
+        List<String> openings = new ArrayList<>();
+        for (String line : Files.readAllLines(path)) {
+            line = line.trim();
+            if (!line.isEmpty() && !line.startsWith("#")) {
+                openings.add(line);
+            }
+        }
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings in " + path);
+        }
+        return openings;
+    }
+
+    private static List<String> randomOpenings(BoardGeometry geometry, int count, int plies, long seed) {
+        Random random = new Random(seed);
+        MoveGenerator generator = new MoveGenerator(geometry);
+        MoveBuffer moves = new MoveBuffer();
+        List<String> openings = new ArrayList<>();
+        while (openings.size() < Math.max(count, 1)) {
+            Position position = Position.initial(geometry);
+            boolean ok = true;
+            for (int ply = 0; ply < plies && ok; ply++) {
+                int n = generator.generate(position, moves);
+                if (n == 0) {
+                    ok = false;
+                } else {
+                    position.play(moves, random.nextInt(n));
+                }
+            }
+            if (ok) {
+                openings.add(Fen.format(position));
+            }
+        }
+        return openings;
+    }
+}
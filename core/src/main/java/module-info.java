@@ -0,0 +1,11 @@
+module checkers.core {
+    requires jdk.httpserver;
+    requires jdk.jfr;
+    requires jdk.management;
+
+    exports checkers.archive;
+    exports checkers.engine;
+    exports checkers.metrics;
+    exports checkers.net;
+    exports checkers.tools;
+}
@@ -0,0 +1,158 @@
+package checkers.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Games written by {@link GameArchiveWriter} come back unchanged from {@link GameArchiveReader}. */
+class GameArchiveTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void gamesReadBackAsWritten() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        write(archive, new RandomGames(1), 2000, 0);
+        assertReadBack(archive, new RandomGames(1), 2000, 0);
+    }
+
+    @Test
+    void appendsAfterReopening() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        RandomGames games = new RandomGames(2);
+        write(archive, games, 100, 0);
+        long size = Files.size(archive);
+        write(archive, games, 100, 0);
+        assertTrue(Files.size(archive) > size);
+        assertReadBack(archive, new RandomGames(2), 200, 0);
+    }
+
+    @Test
+    void recordsAcrossMappedWindowsReadBack() throws IOException {
+        // Long names push the archive past the writer's 8 MB window.
+        Path archive = dir.resolve("games.wca");
+        write(archive, new RandomGames(3), 2500, 4000);
+        assertTrue(Files.size(archive) > 10_000_000L);
+        assertReadBack(archive, new RandomGames(3), 2500, 4000);
+    }
+
+    @Test
+    void seekReturnsToARecordAndSkipPassesIt() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        write(archive, new RandomGames(4), 50, 0);
+        RandomGames expected = new RandomGames(4);
+        GameRecord game = new GameRecord();
+        GameRecord wanted = new GameRecord();
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            for (int i = 0; i < 30; i++) {
+                assertTrue(reader.skip());
+                expected.next(wanted, 120);
+            }
+            long offset = reader.position();
+            expected.next(wanted, 120);
+            while (reader.skip()) {
+            }
+            assertFalse(reader.hasNext());
+            reader.seek(offset);
+            assertTrue(reader.next(game));
+            RandomGames.assertSameGame(wanted, game);
+        }
+    }
+
+    @Test
+    void rejectsFilesThatAreNotArchives() throws IOException {
+        Path file = Files.writeString(dir.resolve("notes.txt"), "not an archive at all");
+        assertThrows(IOException.class, () -> new GameArchiveReader(file));
+        assertThrows(IOException.class, () -> new GameArchiveWriter(file).close());
+        Path empty = Files.createFile(dir.resolve("empty.wca"));
+        assertThrows(IOException.class, () -> new GameArchiveReader(empty));
+    }
+
+    @Test
+    void corruptRecordsAreReportedAtTheirOffset() throws IOException {
+        // Flags, start time, time control, two empty names and no plies: seven zero bytes.
+        byte[] empty = new byte[7];
+        byte[] tooManyHops = new byte[7 + 2 + 33 + 1];
+        tooManyHops[6] = 1;
+        tooManyHops[8] = 33;
+        assertCorrupt(record(tooManyHops.length, tooManyHops), "33 hops");
+        assertCorrupt(record(50, empty), "past the end");
+        assertCorrupt(record(empty.length + 2, empty, new byte[2]), "decodes to 8 bytes, not 10");
+        assertCorrupt(record(empty.length - 2, empty), "truncated");
+    }
+
+    /** A record of the given declared length followed by {@code body}. */
+    private static byte[] record(int length, byte[]... body) {
+        int size = 1;
+        for (byte[] part : body) {
+            size += part.length;
+        }
+        byte[] bytes = new byte[size];
+        bytes[0] = (byte) length;
+        int at = 1;
+        for (byte[] part : body) {
+            System.arraycopy(part, 0, bytes, at, part.length);
+            at += part.length;
+        }
+        return bytes;
+    }
+
+    private void assertCorrupt(byte[] record, String why) throws IOException {
+        Path archive = Files.createTempFile(dir, "corrupt", ".wca");
+        Files.delete(archive);
+        new GameArchiveWriter(archive).close();
+        // Append the record and move the header's end past it, as the writer would.
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(record), GameArchive.HEADER_BYTES);
+            ByteBuffer end = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.nativeOrder());
+            channel.write(end.putLong(0, GameArchive.HEADER_BYTES + record.length), GameArchive.END_OFFSET);
+        }
+        String at = "at " + GameArchive.HEADER_BYTES + ": ";
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            String message = assertThrows(IOException.class, () -> reader.next(new GameRecord())).getMessage();
+            assertTrue(message.contains(at) && message.contains(why), message);
+        }
+    }
+
+    private static void write(Path archive, RandomGames games, int count, int nameLength) throws IOException {
+        GameRecord game = new GameRecord();
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            for (int i = 0; i < count; i++) {
+                next(games, game, nameLength);
+                writer.append(game);
+            }
+        }
+    }
+
+    private static void assertReadBack(Path archive, RandomGames games, int count, int nameLength) throws IOException {
+        GameRecord expected = new GameRecord();
+        GameRecord actual = new GameRecord();
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            for (int i = 0; i < count; i++) {
+                next(games, expected, nameLength);
+                assertTrue(reader.next(actual), "game " + i + " missing");
+                RandomGames.assertSameGame(expected, actual);
+            }
+            assertFalse(reader.next(actual));
+        }
+    }
+
+    private static void next(RandomGames games, GameRecord game, int nameLength) {
+        games.next(game, 120);
+        if (nameLength > 0) {
+            game.setPlayers("w".repeat(nameLength) + game.white(), game.red());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Games formatted by {@link Pdn} come back unchanged from {@link PdnReader}. */
+class PdnTest {
+    @Test
+    void gamesParseBackAsFormatted() throws IOException {
+        StringBuilder text = new StringBuilder();
+        RandomGames games = new RandomGames(5);
+        GameRecord game = new GameRecord();
+        for (int i = 0; i < 500; i++) {
+            games.next(game, 150);
+            Pdn.write(game, text);
+        }
+
+        RandomGames expected = new RandomGames(5);
+        GameRecord wanted = new GameRecord();
+        PdnReader reader = new PdnReader(new StringReader(text.toString()));
+        for (int i = 0; i < 500; i++) {
+            expected.next(wanted, 150);
+            assertTrue(reader.next(game), "game " + i + " missing");
+            RandomGames.assertSameGame(wanted, game);
+        }
+        assertFalse(reader.next(game));
+    }
+
+    @Test
+    void formatsTagsMovesAndTimes() throws IOException {
+        GameRecord game = new GameRecord();
+        game.setPlayers("Ala", "Ola");
+        game.setResult(GameRecord.RESULT_DRAW);
+        game.setStartEpochMillis(86_400_000L);
+        game.setTimeControl(300_000, 2000);
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        game.addMove(Pdn.parseSquare(geometry, "c3"), new int[]{Pdn.parseSquare(geometry, "d4")}, 1, 1500);
+        game.addMove(Pdn.parseSquare(geometry, "f6"), new int[]{Pdn.parseSquare(geometry, "e5")}, 1, 20);
+        game.addMove(Pdn.parseSquare(geometry, "d4"), new int[]{Pdn.parseSquare(geometry, "f6")}, 1, 0);
+
+        StringBuilder text = new StringBuilder();
+        Pdn.write(game, text);
+        assertEquals("""
+                [Event "Warcaby"]
+                [Date "1970.01.02"]
+                [White "Ala"]
+                [Black "Ola"]
+                [Result "1/2-1/2"]
+                [GameType "25"]
+                [TimeControl "300+2"]
+
+                1. c3-d4 {[%emt 1.500]} f6-e5 {[%emt 0.020]} 2. d4:f6 {[%emt 0.000]} 1/2-1/2
+
+                """, text.toString());
+    }
+
+    @Test
+    void squaresRoundTrip() {
+        BoardGeometry geometry = BoardGeometry.STANDARD;
+        for (int s = 0; s < geometry.squares; s++) {
+            assertEquals(s, Pdn.parseSquare(geometry, Pdn.square(geometry, s)));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Pdn.parseSquare(geometry, "a2"));
+    }
+
+    @Test
+    void illegalMovesAreReported() {
+        PdnReader reader = new PdnReader(new StringReader("1. c3-c4 *\n"));
+        assertThrows(IllegalArgumentException.class, () -> reader.next(new GameRecord()));
+    }
+}
@@ -0,0 +1,274 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A {@link PositionIndex} answers every position of an archive as a replay
+ * of its games does, whether its segments were just written, merged,
+ * reopened, or left behind by a merge that did not finish.
+ */
+class PositionIndexTest {
+    private static final int GAMES_PER_UPDATE = 60;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void segmentsMergeAndSurviveReopening() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        Path indexDir = PositionIndex.directoryFor(archive);
+        RandomGames games = new RandomGames(1);
+        int[] segmentsAfter = {1, 2, 3, 1, 2, 3, 1, 2};
+        try (PositionIndex index = new PositionIndex(indexDir)) {
+            for (int expected : segmentsAfter) {
+                append(archive, games, GAMES_PER_UPDATE);
+                assertEquals(GAMES_PER_UPDATE, index.update(archive));
+                assertEquals(expected, index.segmentCount());
+                assertEquals(Files.size(archive), index.indexedEnd());
+                assertIndexes(index, replay(archive));
+            }
+        }
+        assertEquals(2, segmentFiles(indexDir).size());
+
+        try (PositionIndex index = new PositionIndex(indexDir)) {
+            assertEquals(2, index.segmentCount());
+            assertEquals(Files.size(archive), index.indexedEnd());
+            assertIndexes(index, replay(archive));
+            assertEquals(0, index.update(archive));
+            assertEquals(2, index.segmentCount());
+        }
+    }
+
+    @Test
+    void lookupListsTheFirstOccurrencesUpToTheLimit() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        RandomGames games = new RandomGames(2);
+        try (PositionIndex index = new PositionIndex(PositionIndex.directoryFor(archive))) {
+            for (int i = 0; i < PositionIndex.MERGE_FACTOR; i++) {
+                append(archive, games, GAMES_PER_UPDATE);
+                index.update(archive);
+            }
+            Map<Long, Expected> expected = replay(archive);
+            long key = Position.initial(BoardGeometry.STANDARD).key();
+            List<long[]> all = expected.get(key).occurrences;
+            PositionStats stats = index.lookup(key, 5, new PositionStats());
+            assertEquals(all.size(), stats.occurrences());
+            assertEquals(5, stats.listed());
+            for (int j = 0; j < 5; j++) {
+                assertEquals(all.get(j)[0], stats.gameOffset(j));
+                assertEquals(all.get(j)[1], stats.ply(j));
+            }
+            for (int i = 1; i < stats.moveCount(); i++) {
+                assertTrue(stats.games(i) <= stats.games(i - 1), "moves by games played");
+            }
+
+            index.lookup(0x5EED_0000_0000_0001L, 5, stats);
+            assertEquals(0, stats.occurrences());
+            assertEquals(0, stats.moveCount());
+        }
+    }
+
+    @Test
+    void leftoversOfAnInterruptedMergeAreDeletedOnOpen() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        Path indexDir = PositionIndex.directoryFor(archive);
+        Path saved = Files.createDirectory(dir.resolve("saved"));
+        RandomGames games = new RandomGames(3);
+        try (PositionIndex index = new PositionIndex(indexDir)) {
+            for (int i = 0; i < PositionIndex.MERGE_FACTOR; i++) {
+                if (i == PositionIndex.MERGE_FACTOR - 1) {
+                    for (Path segment : segmentFiles(indexDir)) {
+                        Files.copy(segment, saved.resolve(segment.getFileName()));
+                    }
+                }
+                append(archive, games, GAMES_PER_UPDATE);
+                index.update(archive);
+            }
+            assertEquals(1, index.segmentCount());
+        }
+
+        // The merged segment was written but its inputs not all deleted, and a later merge died mid-write.
+        try (Stream<Path> inputs = Files.list(saved)) {
+            for (Path input : inputs.toList()) {
+                Files.copy(input, indexDir.resolve(input.getFileName()));
+            }
+        }
+        String partial = PositionIndex.PREFIX + "0000000000000010-00000000000fffff" + PositionIndex.SUFFIX;
+        Files.writeString(indexDir.resolve(partial + ".tmp"), "partial");
+        Files.writeString(indexDir.resolve(partial + ".keys.tmp"), "partial");
+        assertEquals(PositionIndex.MERGE_FACTOR, segmentFiles(indexDir).size());
+
+        try (PositionIndex index = new PositionIndex(indexDir)) {
+            assertEquals(1, index.segmentCount());
+            try (Stream<Path> files = Files.list(indexDir)) {
+                assertEquals(1, files.count());
+            }
+            assertIndexes(index, replay(archive));
+
+            append(archive, games, GAMES_PER_UPDATE);
+            assertEquals(GAMES_PER_UPDATE, index.update(archive));
+            assertEquals(2, index.segmentCount());
+            assertIndexes(index, replay(archive));
+        }
+    }
+
+    @Test
+    void gameEndsInTheIndexBeforeItsFirstIllegalMove() throws IOException {
+        Path archive = dir.resolve("games.wca");
+        Position start = Position.initial(BoardGeometry.STANDARD);
+        MoveBuffer moves = new MoveBuffer();
+        new MoveGenerator(BoardGeometry.STANDARD).generate(start, moves);
+        int[] path = {moves.to(0)};
+        GameRecord game = new GameRecord();
+        game.addMove(moves.from(0), path, 1, 1000);
+        // The same man again, now that it is red's turn.
+        game.addMove(moves.to(0), new int[]{moves.to(0) - 4}, 1, 1000);
+        game.addMove(moves.from(0), path, 1, 1000);
+        game.setResult(GameRecord.RESULT_DRAW);
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            writer.append(game);
+        }
+        Position after = Position.initial(BoardGeometry.STANDARD);
+        after.play(moves, 0);
+
+        try (PositionIndex index = new PositionIndex(PositionIndex.directoryFor(archive))) {
+            assertEquals(1, index.update(archive));
+            PositionStats stats = index.lookup(start.key(), 10, new PositionStats());
+            assertEquals(1, stats.occurrences());
+            assertEquals(1, stats.moveCount());
+            assertEquals(PositionStats.moveCode(moves.from(0), moves.to(0)), stats.moveCode(0));
+            assertEquals(1, stats.games(0, GameRecord.RESULT_DRAW));
+
+            index.lookup(after.key(), 10, stats);
+            assertEquals(1, stats.occurrences());
+            assertEquals(1, stats.ply(0));
+            assertEquals(1, stats.moveCount());
+            assertTrue(stats.isGameEnd(0), "no posting for the illegal move");
+        }
+    }
+
+    @Test
+    void failedUpdateLeavesNoPostingsForTheNext() throws IOException {
+        Path broken = dir.resolve("broken.wca");
+        append(broken, new RandomGames(4), GAMES_PER_UPDATE);
+        long last;
+        try (GameArchiveWriter writer = new GameArchiveWriter(broken)) {
+            last = writer.size();
+            GameRecord game = new GameRecord();
+            new RandomGames(5).next(game, 120);
+            writer.append(game);
+        }
+        // Shorten the length of the last record by one so that decoding it fails.
+        try (FileChannel channel = FileChannel.open(broken, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, last);
+            int low = b.get(0) & 0x7F;
+            b.put(0, (byte) (b.get(0) + (low == 0 ? 1 : -1)));
+            channel.write(b.flip(), last);
+        }
+
+        Path archive = dir.resolve("games.wca");
+        append(archive, new RandomGames(6), GAMES_PER_UPDATE);
+        try (PositionIndex index = new PositionIndex(dir.resolve("index"))) {
+            assertThrows(IOException.class, () -> index.update(broken));
+            assertEquals(0, index.segmentCount());
+            assertEquals(GAMES_PER_UPDATE, index.update(archive));
+            assertIndexes(index, replay(archive));
+        }
+    }
+
+    /** What the index should hold for one position. */
+    private static final class Expected {
+        final Map<Integer, long[]> moves = new HashMap<>();
+        final List<long[]> occurrences = new ArrayList<>();
+
+        void add(int move, int result, long gameOffset, int ply) {
+            moves.computeIfAbsent(move, m -> new long[4])[result]++;
+            occurrences.add(new long[]{gameOffset, ply});
+        }
+    }
+
+    /** Every position of the games in {@code archive}, in archive order. */
+    private static Map<Long, Expected> replay(Path archive) throws IOException {
+        Map<Long, Expected> positions = new HashMap<>();
+        GameRecord game = new GameRecord();
+        GameReplay replay = new GameReplay();
+        try (GameArchiveReader reader = new GameArchiveReader(archive)) {
+            while (reader.hasNext()) {
+                long offset = reader.position();
+                reader.next(game);
+                replay.load(game);
+                for (int ply = 0; ply < game.plies(); ply++) {
+                    int move = PositionStats.moveCode(game.from(ply), game.to(ply));
+                    positions.computeIfAbsent(replay.position().key(), k -> new Expected())
+                            .add(move, game.result(), offset, ply);
+                    replay.forward();
+                }
+                positions.computeIfAbsent(replay.position().key(), k -> new Expected())
+                        .add(0, game.result(), offset, game.plies());
+            }
+        }
+        return positions;
+    }
+
+    private static void assertIndexes(PositionIndex index, Map<Long, Expected> positions) {
+        PositionStats stats = new PositionStats();
+        for (Map.Entry<Long, Expected> entry : positions.entrySet()) {
+            Expected expected = entry.getValue();
+            String position = Long.toHexString(entry.getKey());
+            index.lookup(entry.getKey(), Integer.MAX_VALUE, stats);
+            assertEquals(expected.occurrences.size(), stats.occurrences(), "occurrences of " + position);
+            assertEquals(expected.occurrences.size(), stats.listed(), "listed of " + position);
+            for (int j = 0; j < stats.listed(); j++) {
+                assertEquals(expected.occurrences.get(j)[0], stats.gameOffset(j), "game of " + position);
+                assertEquals(expected.occurrences.get(j)[1], stats.ply(j), "ply of " + position);
+            }
+            assertEquals(expected.moves.size(), stats.moveCount(), "moves of " + position);
+            for (int i = 0; i < stats.moveCount(); i++) {
+                long[] counts = expected.moves.get(stats.moveCode(i));
+                assertNotNull(counts, "unplayed move in " + position);
+                for (int result = 0; result < 4; result++) {
+                    assertEquals(counts[result], stats.games(i, result), "games of a move in " + position);
+                }
+            }
+        }
+    }
+
+    private static void append(Path archive, RandomGames games, int count) throws IOException {
+        GameRecord game = new GameRecord();
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            for (int i = 0; i < count; i++) {
+                games.next(game, 120);
+                writer.append(game);
+            }
+        }
+    }
+
+    private static List<Path> segmentFiles(Path indexDir) throws IOException {
+        try (Stream<Path> files = Files.list(indexDir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(PositionIndex.SUFFIX)).toList();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package checkers.archive;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Legal random games on the standard board, and equality of records. */
+final class RandomGames {
+    /** Start positions with kings and capture chains, in {@link Fen} format as the readers produce it. */
+    static final String[] STARTS = {
+            Fen.format(Fen.parse("W:W18,K22,27,K29:RK4,6,10,11,14,15", BoardGeometry.STANDARD)),
+            Fen.format(Fen.parse("R:WK1,19,20,K32:R11,K13,K17,24,27", BoardGeometry.STANDARD)),
+            Fen.format(Fen.parse("W:W17,25,26,27:R7,8,14,15,22,23", BoardGeometry.STANDARD)),
+    };
+
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private final MoveGenerator generator = new MoveGenerator(geometry);
+    private final MoveBuffer moves = new MoveBuffer();
+    private final int[] path = new int[MoveBuffer.MAX_PATH];
+    private final SplittableRandom random;
+
+    RandomGames(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Fills {@code game} with a random legal game of up to {@code maxPlies}
+     * plies and a header whose values all survive PDN: whole days, whole
+     * seconds of time control, millisecond move times.
+     */
+    void next(GameRecord game, int maxPlies) {
+        game.clear();
+        game.setPlayers("white \"" + random.nextInt(100) + "\" \\", "red " + random.nextInt(100));
+        game.setResult(random.nextInt(4));
+        game.setStartEpochMillis(random.nextInt(20_000) * 86_400_000L);
+        game.setTimeControl(random.nextInt(600) * 1000, random.nextInt(10) * 1000);
+        Position position = Position.initial(geometry);
+        if (random.nextInt(4) == 0) {
+            String fen = STARTS[random.nextInt(STARTS.length)];
+            game.setStartFen(fen);
+            position = Fen.parse(fen, geometry);
+        }
+        int plies = random.nextInt(maxPlies + 1);
+        for (int ply = 0; ply < plies; ply++) {
+            int n = generator.generate(position, moves);
+            if (n == 0) break;
+            int i = random.nextInt(n);
+            int hops = moves.pathLength(i);
+            for (int h = 0; h < hops; h++) {
+                path[h] = moves.pathSquare(i, h);
+            }
+            game.addMove(moves.from(i), path, hops, random.nextInt(120_000));
+            position.play(moves, i);
+        }
+    }
+
+    static void assertSameGame(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.white(), actual.white(), "white");
+        assertEquals(expected.red(), actual.red(), "red");
+        assertEquals(expected.result(), actual.result(), "result");
+        assertEquals(expected.startEpochMillis(), actual.startEpochMillis(), "start time");
+        assertEquals(expected.baseMillis(), actual.baseMillis(), "base time");
+        assertEquals(expected.incrementMillis(), actual.incrementMillis(), "increment");
+        assertEquals(expected.startFen(), actual.startFen(), "start position");
+        assertEquals(expected.plies(), actual.plies(), "plies");
+        for (int ply = 0; ply < expected.plies(); ply++) {
+            assertEquals(expected.from(ply), actual.from(ply), "from at ply " + ply);
+            assertEquals(expected.pathLength(ply), actual.pathLength(ply), "hops at ply " + ply);
+            for (int h = 0; h < expected.pathLength(ply); h++) {
+                assertEquals(expected.pathSquare(ply, h), actual.pathSquare(ply, h), "hop " + h + " at ply " + ply);
+            }
+            assertEquals(expected.moveMillis(ply), actual.moveMillis(ply), "time at ply " + ply);
+        }
+    }
+}
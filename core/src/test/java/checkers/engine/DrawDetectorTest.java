@@ -0,0 +1,149 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Plays king shuffles on the standard board through a {@link DrawDetector}
+ * and checks the ply each rule fires on. Squares are numbered as in
+ * {@link Fen}, from 1.
+ */
+class DrawDetectorTest {
+    private static final int[] NO_MATERIAL = {};
+    private static final DrawRules REPETITION_ONLY = new DrawRules(3, 0, NO_MATERIAL, NO_MATERIAL);
+    private static final DrawRules KING_MOVES_ONLY = new DrawRules(0, 2, NO_MATERIAL, NO_MATERIAL);
+    private static final DrawRules MATERIAL_ONLY = new DrawRules(0, 0, new int[]{1, 2, 3}, new int[]{0, 5, 16});
+
+    /** White 29-25-29 against red 2-6-2: four plies back to the start. */
+    private static final int[][] SHUFFLE = {{29, 25}, {2, 6}, {25, 29}, {6, 2}};
+
+    private final MoveGenerator generator = new MoveGenerator(BoardGeometry.STANDARD);
+    private final MoveBuffer moves = new MoveBuffer();
+    private final UndoStack undo = new UndoStack();
+    private Position position;
+    private DrawDetector detector;
+
+    private void start(String fen, DrawRules rules) {
+        position = Fen.parse(fen, BoardGeometry.STANDARD);
+        undo.clear();
+        detector = new DrawDetector(rules);
+        detector.reset(position);
+    }
+
+    private DrawDetector.Reason play(int from, int to) {
+        int n = generator.generate(position, moves);
+        for (int i = 0; i < n; i++) {
+            if (moves.from(i) == from - 1 && moves.to(i) == to - 1) {
+                position.make(moves, i, undo);
+                return detector.onMove(position, moves, i);
+            }
+        }
+        throw new AssertionError("No move " + from + "-" + to + " in " + Fen.format(position));
+    }
+
+    /** Plays {@code plies} plies of {@code cycle} from its start and expects no draw before the last. */
+    private DrawDetector.Reason shuffle(int[][] cycle, int plies) {
+        for (int ply = 0; ply < plies - 1; ply++) {
+            int[] move = cycle[ply % cycle.length];
+            assertNull(play(move[0], move[1]), "draw at ply " + (ply + 1));
+        }
+        int[] last = cycle[(plies - 1) % cycle.length];
+        return play(last[0], last[1]);
+    }
+
+    @Test
+    void thirdOccurrenceIsARepetition() {
+        start("W:WK29:RK1,K2", REPETITION_ONLY);
+        assertEquals(DrawDetector.Reason.REPETITION, shuffle(SHUFFLE, 8));
+    }
+
+    @Test
+    void repetitionCountSurvivesTakingMovesBack() {
+        start("W:WK29:RK1,K2", REPETITION_ONLY);
+        shuffle(SHUFFLE, 7);
+        for (int i = 0; i < 3; i++) {
+            position.unmake(undo);
+        }
+        detector.rebuild(position, undo);
+        for (int ply = 4; ply < 7; ply++) {
+            int[] move = SHUFFLE[ply % SHUFFLE.length];
+            assertNull(play(move[0], move[1]), "draw at ply " + (ply + 1));
+        }
+        assertEquals(DrawDetector.Reason.REPETITION, play(6, 2));
+
+        while (undo.size() > 0) {
+            position.unmake(undo);
+        }
+        detector.rebuild(position, undo);
+        assertEquals(DrawDetector.Reason.REPETITION, shuffle(SHUFFLE, 8));
+    }
+
+    @Test
+    void kingMovesCountBothSides() {
+        start("W:WK29:RK1,K2", KING_MOVES_ONLY);
+        assertEquals(DrawDetector.Reason.KING_MOVES, shuffle(SHUFFLE, 4));
+    }
+
+    @Test
+    void manMoveStartsTheCountsAgain() {
+        start("W:WK29,22:RK1,K2", KING_MOVES_ONLY);
+        shuffle(SHUFFLE, 2);
+        assertNull(play(22, 18));
+        assertNull(shuffle(new int[][]{{6, 2}, {25, 29}, {2, 6}}, 3));
+        assertEquals(DrawDetector.Reason.KING_MOVES, play(29, 25));
+    }
+
+    @Test
+    void captureStartsTheCountsAgain() {
+        start("R:WK29:RK1,K2,25", KING_MOVES_ONLY);
+        assertNull(play(2, 6));
+        assertNull(play(29, 22));
+        assertNull(play(6, 2));
+        assertNull(play(22, 26));
+        assertNull(play(2, 6));
+        assertEquals(DrawDetector.Reason.KING_MOVES, play(26, 22));
+    }
+
+    @Test
+    void kingAgainstKingIsDrawnAtOnce() {
+        start("W:WK29:RK1", MATERIAL_ONLY);
+        assertEquals(DrawDetector.Reason.MATERIAL, play(29, 25));
+    }
+
+    @Test
+    void loneKingAgainstTwoIsDrawnAfterFiveMovesEach() {
+        start("W:WK29:RK1,K2", MATERIAL_ONLY);
+        assertEquals(DrawDetector.Reason.MATERIAL, shuffle(SHUFFLE, 10));
+    }
+
+    @Test
+    void loneKingAgainstThreeIsDrawnAfterSixteenMovesEach() {
+        start("W:WK29:RK1,K2,K3", MATERIAL_ONLY);
+        assertEquals(DrawDetector.Reason.MATERIAL, shuffle(SHUFFLE, 32));
+    }
+
+    @Test
+    void captureRestartsTheMaterialCount() {
+        start("R:WK29:RK1,K2,K3,25", MATERIAL_ONLY);
+        assertNull(play(2, 6));
+        assertNull(play(29, 22));
+        int[][] cycle = {{6, 2}, {22, 26}, {2, 6}, {26, 22}};
+        assertEquals(DrawDetector.Reason.MATERIAL, shuffle(cycle, 32));
+    }
+
+    @Test
+    void loneKingAgainstFourIsNotAMaterialDraw() {
+        start("W:WK29:RK1,K2,K3,K12", MATERIAL_ONLY);
+        assertNull(shuffle(SHUFFLE, 100));
+    }
+
+    @Test
+    void materialRulesNeedAKingOnTheStrongerSide() {
+        start("W:WK29:R1", MATERIAL_ONLY);
+        assertNull(play(29, 25));
+        start("W:WK29:RK1", DrawRules.NONE);
+        assertNull(play(29, 25));
+    }
+}
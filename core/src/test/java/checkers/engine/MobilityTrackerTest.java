@@ -0,0 +1,86 @@
+package checkers.engine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Random walks of make and unmake with a {@link MobilityTracker} fed only
+ * the touched squares, checked against a full rescan of the position after
+ * every ply.
+ */
+class MobilityTrackerTest {
+    private static final int STEPS = 100_000;
+    private static final int MAX_DEPTH = 60;
+
+    static List<Arguments> walks() {
+        return List.of(
+                Arguments.of(8, PerftTest.INITIAL, 1L),
+                Arguments.of(8, "W:W18,K22,27,K29:RK4,6,10,11,14,15", 2L),
+                Arguments.of(10, PerftTest.INTERNATIONAL_INITIAL, 3L),
+                Arguments.of(10, PerftTest.KING_CHAINS, 4L));
+    }
+
+    @ParameterizedTest(name = "{0}x{0} {1}")
+    @MethodSource("walks")
+    void masksMatchFullScanAfterEveryPly(int board, String fen, long seed) {
+        BoardGeometry geometry = BoardGeometry.of(board);
+        Position position = Fen.parse(fen, geometry);
+        MoveGenerator generator = new MoveGenerator(geometry);
+        MoveBuffer moves = new MoveBuffer();
+        UndoStack undo = new UndoStack();
+        MobilityTracker tracker = new MobilityTracker(geometry);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        tracker.reset();
+        tracker.update(position);
+        check(tracker, position, "start");
+
+        for (int step = 0; step < STEPS; step++) {
+            int n = generator.generate(position, moves);
+            boolean back = undo.size() > 0 && (n == 0 || undo.size() >= MAX_DEPTH || random.nextInt(3) == 0);
+            if (back) {
+                int top = undo.size() - 1;
+                touch(tracker, undo.from(top), undo.to(top), undo.captured(top));
+                position.unmake(undo);
+            } else if (n > 0) {
+                int i = random.nextInt(n);
+                touch(tracker, moves.from(i), moves.to(i), moves.captured(i));
+                position.make(moves, i, undo);
+            } else {
+                break;
+            }
+            tracker.update(position);
+            check(tracker, position, "step " + step + (back ? " unmake" : " make"));
+        }
+    }
+
+    private static void touch(MobilityTracker tracker, int from, int to, long captured) {
+        tracker.touch(from);
+        tracker.touch(to);
+        tracker.touchAll(captured);
+    }
+
+    private static void check(MobilityTracker tracker, Position position, String when) {
+        for (boolean red : new boolean[]{true, false}) {
+            String side = (red ? "red" : "white") + " at " + when;
+            assertEquals(position.capturers(red), tracker.capturers(red), "capturers of " + side);
+            assertEquals(movers(position, red), tracker.movers(red), "movers of " + side);
+            assertEquals(position.hasAnyMove(red), tracker.hasAnyMove(red), "any move of " + side);
+        }
+    }
+
+    private static long movers(Position position, boolean red) {
+        long result = 0;
+        for (long own = position.pieces(red); own != 0; own &= own - 1) {
+            int s = Long.numberOfTrailingZeros(own);
+            if (position.canMoveNormally(s)) result |= 1L << s;
+        }
+        return result;
+    }
+}
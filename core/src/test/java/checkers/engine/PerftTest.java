@@ -0,0 +1,77 @@
+package checkers.engine;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Leaf counts of the legal move tree on both boards under both capture
+ * rules. Any change to move generation or make/unmake that alters the
+ * rules shows up here.
+ */
+class PerftTest {
+    static final String INITIAL = "W:W21,22,23,24,25,26,27,28,29,30,31,32:R1,2,3,4,5,6,7,8,9,10,11,12";
+    static final String INTERNATIONAL_INITIAL = "W:W31,32,33,34,35,36,37,38,39,40,41,42,43,44,45,46,47,48,49,50:R1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20";
+    /** One king with over a thousand capture sequences, eleven pieces long at most. */
+    static final String KING_CHAINS = "W:WK22:R8,9,17,18,19,27,28,37,38,39,41";
+
+    private static final Object[][] STANDARD = {
+            {"initial", INITIAL, new long[]{7, 49, 302, 1469, 7482, 37986, 190146, 929984}},
+            {"kings-vs-men", "W:W18,K22,27,K29:RK4,6,10,11,14,15", new long[]{2, 10, 42, 170, 1452, 4085}},
+            {"flying-kings", "R:WK1,19,20,K32:R11,K13,K17,24,27", new long[]{1, 8, 81, 476, 4456, 39487}},
+            {"man-chains", "W:W17,25,26,27:R7,8,14,15,22,23", new long[]{9, 45, 153, 1106, 5775, 37016}},
+            {"king-endgame", "W:WK28:RK5,10,19", new long[]{2, 13, 96, 782, 5824, 42747}},
+    };
+
+    private static final Object[][] INTERNATIONAL = {
+            {"initial", INTERNATIONAL_INITIAL, new long[]{9, 81, 658, 4265, 27132, 168316, 1060829}},
+            {"kings-and-men", "W:WK46,33,37,K3,29:R12,K24,18,19,K40,23", new long[]{4, 14, 77, 492, 3934, 37937}},
+            {"king-endgame", "W:WK50:RK6,K15,K27", new long[]{8, 66, 268, 6229, 62719, 1318880}},
+            {"king-chains", KING_CHAINS, new long[]{1026, 6296, 61300, 422786}},
+    };
+
+    /** Counts under {@link CaptureRule#MAJORITY}, for the positions where it changes them. */
+    private static final Object[][] STANDARD_MAJORITY = {
+            {"kings-vs-men", "W:W18,K22,27,K29:RK4,6,10,11,14,15", new long[]{2, 10, 36, 122, 894, 2051}},
+            {"flying-kings", "R:WK1,19,20,K32:R11,K13,K17,24,27", new long[]{1, 2, 22, 112, 886, 6863}},
+            {"man-chains", "W:W17,25,26,27:R7,8,14,15,22,23", new long[]{1, 1, 8, 37, 158, 738}},
+    };
+
+    private static final Object[][] INTERNATIONAL_MAJORITY = {
+            {"initial", INTERNATIONAL_INITIAL, new long[]{9, 81, 658, 4265, 27117, 167140}},
+            {"kings-and-men", "W:WK46,33,37,K3,29:R12,K24,18,19,K40,23", new long[]{4, 14, 66, 323, 2265, 18634}},
+            {"king-endgame", "W:WK50:RK6,K15,K27", new long[]{8, 66, 264, 6142, 60567, 1279108}},
+            {"king-chains", KING_CHAINS, new long[]{41}},
+    };
+
+    static List<Arguments> cases() {
+        List<Arguments> cases = new ArrayList<>();
+        add(cases, 8, CaptureRule.FREE, STANDARD);
+        add(cases, 10, CaptureRule.FREE, INTERNATIONAL);
+        add(cases, 8, CaptureRule.MAJORITY, STANDARD_MAJORITY);
+        add(cases, 10, CaptureRule.MAJORITY, INTERNATIONAL_MAJORITY);
+        return cases;
+    }
+
+    private static void add(List<Arguments> cases, int board, CaptureRule rule, Object[][] table) {
+        for (Object[] c : table) {
+            long[] counts = (long[]) c[2];
+            for (int depth = 1; depth <= counts.length; depth++) {
+                cases.add(Arguments.of(board, rule, c[0], c[1], depth, counts[depth - 1]));
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}x{0} {1} {2} depth {4}")
+    @MethodSource("cases")
+    void countsLeaves(int board, CaptureRule rule, String name, String fen, int depth, long expected) {
+        BoardGeometry geometry = BoardGeometry.of(board);
+        Perft perft = new Perft(geometry, depth, rule);
+        assertEquals(expected, perft.run(Fen.parse(fen, geometry), depth));
+    }
+}
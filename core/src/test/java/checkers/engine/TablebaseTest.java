@@ -0,0 +1,157 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TablebaseTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void builderRejectsClassesTooLargeForOneBlock() {
+        assertEquals(6, TablebaseBuilder.maxSupportedPieces(BoardGeometry.STANDARD));
+        assertEquals(5, TablebaseBuilder.maxSupportedPieces(BoardGeometry.of(10)));
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseBuilder(BoardGeometry.STANDARD, 7));
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseBuilder(BoardGeometry.of(10), 6));
+        assertThrows(IllegalArgumentException.class, () -> new TablebaseBuilder(BoardGeometry.STANDARD, 1));
+    }
+
+    @Test
+    void builtFileHoldsTheGameValues() throws IOException {
+        Path file = build(3);
+        try (Tablebase tablebase = Tablebase.open(file)) {
+            assertEquals(3, tablebase.maxPieces());
+            assertEquals(0, probe(tablebase, "W:WK1:RK32"), "king against king");
+            assertEquals(0, probe(tablebase, "R:WK1:RK32"), "king against king");
+            assertEquals(1, probe(tablebase, "W:WK29,K30:RK25"), "two kings take the lone king");
+            assertEquals(7, probe(tablebase, "W:WK1,K2:RK28"), "two kings win in seven plies");
+            assertEquals(1, probe(tablebase, "W:W22:R18"), "taking the last piece");
+            assertEquals(-1, probe(tablebase, "R:W16,19:R12"), "no move for the side to move");
+            assertEquals(Tablebase.NOT_FOUND, probe(tablebase, "W:WK1,K2:RK31,K32"), "four pieces");
+            assertEveryValueFollowsFromItsMoves(tablebase);
+        }
+    }
+
+    private static int probe(Tablebase tablebase, String fen) {
+        return tablebase.probe(Fen.parse(fen, BoardGeometry.STANDARD));
+    }
+
+    /**
+     * Walks every position of two and three pieces and checks its entry
+     * against the entries after each of its moves: the nearest win, else a
+     * draw, else the longest loss, and a loss in 0 plies without a move or
+     * a piece. A man on its promotion row is the only invalid placement.
+     */
+    private static void assertEveryValueFollowsFromItsMoves(Tablebase tablebase) {
+        ValueCheck check = new ValueCheck(tablebase);
+        int squares = BoardGeometry.STANDARD.squares;
+        for (int a = 0; a < squares; a++) {
+            for (int b = a + 1; b < squares; b++) {
+                check.placements(a, b);
+                for (int c = b + 1; c < squares; c++) {
+                    check.placements(a, b, c);
+                }
+            }
+        }
+    }
+
+    private static final class ValueCheck {
+        private final BoardGeometry geometry = BoardGeometry.STANDARD;
+        private final MoveGenerator generator = new MoveGenerator(geometry);
+        private final MoveBuffer moves = new MoveBuffer();
+        private final Position position = new Position(geometry);
+        private final Position child = new Position(geometry);
+        private final Tablebase tablebase;
+
+        ValueCheck(Tablebase tablebase) {
+            this.tablebase = tablebase;
+        }
+
+        /** Checks every assignment of red or white man or king to {@code squares}, either side to move. */
+        void placements(int... squares) {
+            for (int kinds = 0; kinds < 1 << 2 * squares.length; kinds++) {
+                for (boolean redToMove : new boolean[]{false, true}) {
+                    position.clear();
+                    boolean onPromotionRow = false;
+                    for (int p = 0; p < squares.length; p++) {
+                        boolean red = (kinds >>> 2 * p & 2) == 0;
+                        boolean king = (kinds >>> 2 * p & 1) != 0;
+                        position.put(squares[p], red, king);
+                        onPromotionRow |= !king && geometry.y(squares[p]) == (red ? geometry.height - 1 : 0);
+                    }
+                    if (position.pieces(true) == 0 || position.pieces(false) == 0) continue;
+                    position.setRedToMove(redToMove);
+                    int expected = onPromotionRow ? Tablebase.INVALID : expectedValue();
+                    assertEquals(expected, tablebase.probe(position), Fen.format(position));
+                }
+            }
+        }
+
+        private int expectedValue() {
+            int n = generator.generate(position, moves);
+            int nearestWin = Integer.MAX_VALUE;
+            int longestLoss = 0;
+            boolean draw = false;
+            for (int i = 0; i < n; i++) {
+                child.copyFrom(position);
+                child.play(moves, i);
+                int value = child.pieces(child.isRedToMove()) == 0 ? -1 : tablebase.probe(child);
+                if (Tablebase.isLoss(value)) {
+                    nearestWin = Math.min(nearestWin, Tablebase.distance(value) + 1);
+                } else if (value == 0) {
+                    draw = true;
+                } else {
+                    longestLoss = Math.max(longestLoss, Tablebase.distance(value) + 1);
+                }
+            }
+            if (nearestWin < Integer.MAX_VALUE) return nearestWin;
+            if (draw) return 0;
+            return -(longestLoss + 1);
+        }
+    }
+
+    @Test
+    void truncatedHeaderIsAnIOException() throws IOException {
+        Path file = build(2);
+        for (int length : new int[]{0, 8, 19}) {
+            Path truncated = copyTruncated(file, length);
+            assertThrows(IOException.class, () -> Tablebase.open(truncated), length + " bytes");
+        }
+    }
+
+    @Test
+    void truncatedDirectoryOrBlockIsAnIOException() throws IOException {
+        Path file = build(3);
+        long size = Files.size(file);
+        for (long length : new long[]{Tablebase.HEADER_BYTES + 5, size / 2, size - 1}) {
+            Path truncated = copyTruncated(file, length);
+            assertThrows(IOException.class, () -> Tablebase.open(truncated), length + " bytes");
+        }
+    }
+
+    private Path build(int maxPieces) throws IOException {
+        TablebaseBuilder builder = new TablebaseBuilder(BoardGeometry.STANDARD, maxPieces);
+        builder.build(_ -> {
+        });
+        Path file = dir.resolve("tb" + maxPieces + ".bin");
+        builder.write(file);
+        return file;
+    }
+
+    private Path copyTruncated(Path file, long length) throws IOException {
+        Path copy = Files.copy(file, dir.resolve("truncated-" + length + ".bin"));
+        try (FileChannel channel = FileChannel.open(copy, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,84 @@
+package checkers.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeManagerTest {
+    private static final long MS = 1_000_000L;
+    private static final long SECOND = 1000 * MS;
+
+    private final TimeManager manager = new TimeManager();
+
+    @Test
+    void suddenDeathSplitsTheClockOverTheExpectedMoves() {
+        // 5 minutes, no increment, first move: 50 moves expected, 50 ms kept back.
+        SearchLimits limits = manager.limitsFor(300 * SECOND, 0, 0, 20, 1000);
+        long usable = 300 * SECOND - 50 * MS;
+        assertEquals(usable / 50, limits.softTimeNanos);
+        assertEquals(usable / 50 * 4, limits.maxTimeNanos);
+        assertEquals(20, limits.maxDepth);
+        assertEquals(1000, limits.maxNodes);
+    }
+
+    @Test
+    void incrementAddsThreeQuartersOfItself() {
+        SearchLimits limits = manager.limitsFor(60 * SECOND, 2 * SECOND, 0, SearchLimits.MAX_DEPTH, Long.MAX_VALUE);
+        long usable = 60 * SECOND - 50 * MS;
+        long soft = usable / 50 + 1500 * MS;
+        assertEquals(soft, limits.softTimeNanos);
+        assertEquals(soft * 4, limits.maxTimeNanos);
+    }
+
+    @Test
+    void movesToGoShrinksWithThePliesPlayedDownToAFloor() {
+        long usable = 100 * SECOND - 50 * MS;
+        assertEquals(usable / 40, manager.limitsFor(100 * SECOND, 0, 20, 64, Long.MAX_VALUE).softTimeNanos);
+        assertEquals(usable / 20, manager.limitsFor(100 * SECOND, 0, 60, 64, Long.MAX_VALUE).softTimeNanos);
+        assertEquals(usable / 20, manager.limitsFor(100 * SECOND, 0, 300, 64, Long.MAX_VALUE).softTimeNanos);
+    }
+
+    @Test
+    void hardLimitNeverTakesMoreThanAThirdOfTheClock() {
+        // A large increment on a low clock: the soft target is capped by the hard limit.
+        SearchLimits limits = manager.limitsFor(3 * SECOND, 10 * SECOND, 0, 64, Long.MAX_VALUE);
+        long usable = 3 * SECOND - 50 * MS;
+        assertEquals(usable / 3, limits.maxTimeNanos);
+        assertEquals(usable / 3, limits.softTimeNanos);
+    }
+
+    @Test
+    void lowClockKeepsBackAtMostHalfAndNeverDropsBelowTheFloor() {
+        SearchLimits low = manager.limitsFor(60 * MS, 0, 0, 64, Long.MAX_VALUE);
+        long usable = 30 * MS;
+        assertEquals(usable / 50, low.softTimeNanos);
+        assertEquals(usable / 50 * 4, low.maxTimeNanos);
+
+        SearchLimits flagged = manager.limitsFor(0, 0, 0, 64, Long.MAX_VALUE);
+        assertEquals(200_000L, flagged.softTimeNanos);
+        assertEquals(200_000L, flagged.maxTimeNanos);
+    }
+
+    @Test
+    void factorScalesTheTarget() {
+        TimeManager slow = new TimeManager(0, 2.0);
+        SearchLimits limits = slow.limitsFor(100 * SECOND, 0, 0, 64, Long.MAX_VALUE);
+        assertEquals(4 * SECOND, limits.softTimeNanos);
+        assertEquals(16 * SECOND, limits.maxTimeNanos);
+    }
+
+    @Test
+    void deepeningStopsWhenTheNextIterationWouldOverrunTheTarget() {
+        long soft = 1000 * MS;
+        // 100 ms spent, last iteration 100 ms after 25 ms: growth 4 predicts 400 ms more.
+        assertFalse(TimeManager.stopDeepening(100 * MS, 100 * MS, 25 * MS, soft, 1, 0));
+        assertTrue(TimeManager.stopDeepening(700 * MS, 100 * MS, 25 * MS, soft, 1, 0));
+        // A stable best move stops sooner; a changed one or a dropping score goes on longer.
+        assertTrue(TimeManager.stopDeepening(400 * MS, 100 * MS, 25 * MS, soft, 4, 0));
+        assertFalse(TimeManager.stopDeepening(700 * MS, 100 * MS, 25 * MS, soft, 0, 0));
+        assertFalse(TimeManager.stopDeepening(700 * MS, 100 * MS, 25 * MS, soft, 1, 50));
+        assertFalse(TimeManager.stopDeepening(10 * SECOND, 10 * SECOND, MS, Long.MAX_VALUE, 9, 0));
+    }
+}
@@ -0,0 +1,276 @@
+package checkers.net;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.DrawRules;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Games played through a loopback {@link GameServer}. */
+class GameServerTest {
+    private static final BoardGeometry GEOMETRY = BoardGeometry.STANDARD;
+
+    private GameServer server;
+    private Thread serverThread;
+    private final List<GameClient> clients = new ArrayList<>();
+
+    private void startServer(DrawRules rules) throws IOException {
+        startServer(600_000, rules);
+    }
+
+    private void startServer(long baseMillis, DrawRules rules) throws IOException {
+        server = new GameServer(new InetSocketAddress("127.0.0.1", 0), baseMillis, 0, rules);
+        serverThread = Thread.ofPlatform().name("lan-server").start(server);
+    }
+
+    private GameClient connect(GameClientListener listener) throws IOException {
+        GameClient client = new GameClient("127.0.0.1", server.port(), listener);
+        clients.add(client);
+        return client;
+    }
+
+    @AfterEach
+    void stopServer() throws Exception {
+        clients.forEach(GameClient::close);
+        server.close();
+        serverThread.join();
+    }
+
+    @Test
+    void drawnMoveIsFlaggedBeforeGameOver() throws Exception {
+        // Every position counts as repeated once it occurs, so the first move draws.
+        startServer(new DrawRules(1, 0, new int[0], new int[0]));
+        Recorder white = new Recorder();
+        Recorder red = new Recorder();
+        GameClient whiteClient = connect(white);
+        whiteClient.join(7);
+        assertEquals("joined 7 white", white.next());
+        connect(red).join(7);
+        assertEquals("joined 7 red", red.next());
+        assertEquals("started", white.next());
+        assertEquals("started", red.next());
+
+        MoveBuffer moves = new MoveBuffer();
+        new MoveGenerator(GEOMETRY).generate(Position.initial(GEOMETRY), moves);
+        whiteClient.sendMove(moves.from(0), new int[]{moves.to(0)}, 1);
+
+        String moved = "moved " + moves.from(0) + "-" + moves.to(0) + " over";
+        for (Recorder player : new Recorder[]{white, red}) {
+            assertEquals(moved, player.next());
+            assertEquals("game over " + Protocol.WINNER_NONE + " " + Protocol.OVER_DRAW, player.next());
+        }
+    }
+
+    @Test
+    void tablesNamedByClientsStayBelowPairedGames() throws Exception {
+        startServer(DrawRules.DEFAULT);
+        Recorder first = new Recorder();
+        connect(first).join(0);
+        assertEquals("joined " + Protocol.FIRST_AUTO_GAME_ID + " white", first.next());
+
+        Recorder intruder = new Recorder();
+        connect(intruder).join(Protocol.FIRST_AUTO_GAME_ID);
+        assertEquals("rejected " + Protocol.REJECT_GAME_ID, intruder.next());
+        Recorder negative = new Recorder();
+        connect(negative).join(-1);
+        assertEquals("rejected " + Protocol.REJECT_GAME_ID, negative.next());
+
+        Recorder second = new Recorder();
+        connect(second).join(0);
+        assertEquals("joined " + Protocol.FIRST_AUTO_GAME_ID + " red", second.next());
+        Recorder table = new Recorder();
+        connect(table).join(Protocol.FIRST_AUTO_GAME_ID - 1);
+        assertEquals("joined " + (Protocol.FIRST_AUTO_GAME_ID - 1) + " white", table.next());
+    }
+
+    @Test
+    void flagFallsOnTheSideToMoveAfterAMove() throws Exception {
+        startServer(400, DrawRules.DEFAULT);
+        Recorder white = new Recorder();
+        Recorder red = new Recorder();
+        GameClient whiteClient = connect(white);
+        whiteClient.join(3);
+        assertEquals("joined 3 white", white.next());
+        connect(red).join(3);
+        assertEquals("joined 3 red", red.next());
+        assertEquals("started", white.next());
+
+        // White uses half its time; its first flag must not fall on red.
+        Thread.sleep(200);
+        MoveBuffer moves = new MoveBuffer();
+        new MoveGenerator(GEOMETRY).generate(Position.initial(GEOMETRY), moves);
+        whiteClient.sendMove(moves.from(0), new int[]{moves.to(0)}, 1);
+        assertEquals("moved " + moves.from(0) + "-" + moves.to(0), white.next());
+        long movedAt = System.nanoTime();
+
+        assertEquals("game over " + Protocol.WINNER_WHITE + " " + Protocol.OVER_TIME, white.next());
+        long redThinkingMillis = (System.nanoTime() - movedAt) / 1_000_000L;
+        assertTrue(redThinkingMillis >= 300, "red flagged after " + redThinkingMillis + " ms");
+    }
+
+    @Test
+    void clientsAnsweringAtOnceNeverMoveIntoFinishedGames() throws Exception {
+        startServer(DrawRules.DEFAULT);
+        int games = 100;
+        CountDownLatch finished = new CountDownLatch(2 * games);
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger draws = new AtomicInteger();
+        for (int g = 0; g < games; g++) {
+            for (int side = 0; side < 2; side++) {
+                RandomPlayer player = new RandomPlayer(new SplittableRandom(g * 2L + side), finished, rejected, draws);
+                player.client = connect(player);
+                player.client.join(g + 1);
+            }
+        }
+
+        assertTrue(finished.await(60, TimeUnit.SECONDS), finished.getCount() + " players unfinished");
+        assertEquals(0, rejected.get(), "moves rejected");
+        assertTrue(draws.get() > 0, "no game was drawn, so the draw path went untested");
+    }
+
+    /** Records callbacks as text, one event at a time. */
+    private static final class Recorder implements GameClientListener {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        String next() throws InterruptedException {
+            return events.poll(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void joined(int gameId, boolean red, int baseMillis, int incrementMillis) {
+            events.add("joined " + gameId + (red ? " red" : " white"));
+        }
+
+        @Override
+        public void started() {
+            events.add("started");
+        }
+
+        @Override
+        public void moved(int from, int[] path, int redMillis, int whiteMillis, boolean gameOver) {
+            events.add("moved " + from + "-" + path[path.length - 1] + (gameOver ? " over" : ""));
+        }
+
+        @Override
+        public void rejected(int reason) {
+            events.add("rejected " + reason);
+        }
+
+        @Override
+        public void gameOver(int winner, int reason) {
+            events.add("game over " + winner + " " + reason);
+        }
+
+        @Override
+        public void disconnected() {
+            events.add("disconnected");
+        }
+    }
+
+    /** Answers every move of the opponent at once with a random legal move. */
+    private static final class RandomPlayer implements GameClientListener {
+        private static final int MAX_PLIES = 400;
+
+        final Position position = Position.initial(GEOMETRY);
+        final MoveGenerator generator = new MoveGenerator(GEOMETRY);
+        final MoveBuffer buffer = new MoveBuffer();
+        final SplittableRandom random;
+        final CountDownLatch finished;
+        final AtomicInteger rejected;
+        final AtomicInteger draws;
+        GameClient client;
+        boolean red;
+        int plies;
+
+        RandomPlayer(SplittableRandom random, CountDownLatch finished, AtomicInteger rejected, AtomicInteger draws) {
+            this.random = random;
+            this.finished = finished;
+            this.rejected = rejected;
+            this.draws = draws;
+        }
+
+        @Override
+        public void joined(int gameId, boolean red, int baseMillis, int incrementMillis) {
+            this.red = red;
+        }
+
+        @Override
+        public void started() {
+            playIfOnMove();
+        }
+
+        @Override
+        public void moved(int from, int[] path, int redMillis, int whiteMillis, boolean gameOver) {
+            int n = generator.generate(position, buffer);
+            int index = -1;
+            for (int i = 0; i < n && index < 0; i++) {
+                if (buffer.from(i) != from || buffer.pathLength(i) != path.length) continue;
+                boolean same = true;
+                for (int h = 0; h < path.length && same; h++) {
+                    same = buffer.pathSquare(i, h) == path[h];
+                }
+                if (same) index = i;
+            }
+            assertTrue(index >= 0, "server relayed a move this client cannot play");
+            position.play(buffer, index);
+            plies++;
+            if (!gameOver) {
+                playIfOnMove();
+            }
+        }
+
+        private void playIfOnMove() {
+            if (position.isRedToMove() != red) return;
+            int n = generator.generate(position, buffer);
+            assertTrue(n > 0, "server did not end a game without moves");
+            try {
+                if (plies >= MAX_PLIES) {
+                    client.resign();
+                    return;
+                }
+                int i = random.nextInt(n);
+                int[] path = new int[buffer.pathLength(i)];
+                for (int h = 0; h < path.length; h++) {
+                    path[h] = buffer.pathSquare(i, h);
+                }
+                client.sendMove(buffer.from(i), path, path.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void rejected(int reason) {
+            rejected.incrementAndGet();
+        }
+
+        @Override
+        public void gameOver(int winner, int reason) {
+            if (red && winner == Protocol.WINNER_NONE) {
+                draws.incrementAndGet();
+            }
+            finished.countDown();
+        }
+
+        @Override
+        public void disconnected() {
+        }
+    }
+}
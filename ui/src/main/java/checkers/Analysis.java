@@ -0,0 +1,41 @@
+package checkers;
+
+import checkers.engine.Search;
+
+/**
+ * One published result of {@link AnalysisService}: the best move found so
+ * far, its score and the pieces of the side to move that the opponent could
+ * take if it were its turn.
+ */
+public class Analysis {
+    /** Origin square of the hinted move, or -1 when the side to move has no move. */
+    public final int from;
+    /** Landing squares of the hinted move, one per hop. */
+    public final int[] path;
+    /** Squares the hinted move captures, as a mask. */
+    public final long captured;
+    /** In centi-men from white's point of view, like the evaluation bar shows it. */
+    public final int whiteScore;
+    public final int depth;
+    public final long nodes;
+    /** Squares of the side to move that are attacked, as a mask. */
+    public final long threats;
+
+    public Analysis(int from, int[] path, long captured, int whiteScore, int depth, long nodes, long threats) {
+        this.from = from;
+        this.path = path;
+        this.captured = captured;
+        this.whiteScore = whiteScore;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.threats = threats;
+    }
+
+    public boolean hasMove() {
+        return from >= 0;
+    }
+
+    public boolean isWin() {
+        return Math.abs(whiteScore) > Search.WIN_BOUND;
+    }
+}
@@ -0,0 +1,141 @@
+package checkers;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.ParallelSearch;
+import checkers.engine.Position;
+import checkers.engine.SearchLimits;
+import checkers.engine.SearchResult;
+import javafx.application.Platform;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Analyses the game position on its own threads while the player thinks.
+ * Every {@link #analyse} cancels the position being searched and starts on
+ * the new one in a single iterative-deepening search that publishes an
+ * {@link Analysis} after each completed depth. Results reach the
+ * application thread through {@link Platform#runLater}, at most one pending
+ * call at a time: a result that arrives while the previous one is still
+ * queued replaces it, so a fast search never floods the event queue.
+ * <p>
+ * Its search and table are separate from {@link ComputerPlayer}'s, so both
+ * can run at once.
+ */
+public class AnalysisService {
+    public static final int TABLE_MEGABYTES = Integer.getInteger("checkers.analysis.hashMb", 32);
+    public static final int THREADS = Integer.getInteger("checkers.analysis.threads", 1);
+
+    private final BoardGeometry geometry;
+    private final ParallelSearch search;
+    private final Consumer<Analysis> onAnalysis;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "analysis");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final Position flipped;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Published> latest = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Runnable deliver = this::deliver;
+
+    /** {@code onAnalysis} is called on the application thread. */
+    public AnalysisService(BoardGeometry geometry, CaptureRule rule, Consumer<Analysis> onAnalysis) {
+        this.geometry = geometry;
+        this.onAnalysis = onAnalysis;
+        search = new ParallelSearch(geometry, THREADS, TABLE_MEGABYTES, rule);
+        generator = new MoveGenerator(geometry, rule);
+        flipped = new Position(geometry);
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public CaptureRule getCaptureRule() {
+        return generator.rule();
+    }
+
+    /** Drops the current work and starts analysing a copy of {@code current}. */
+    public void analyse(Position current) {
+        Position snapshot = new Position(geometry);
+        snapshot.copyFrom(current);
+        long forGeneration = generation.incrementAndGet();
+        search.stop();
+        long stops = search.stops();
+        executor.execute(() -> run(forGeneration, snapshot, stops));
+    }
+
+    /** Drops the current work; nothing more is published until the next {@link #analyse}. */
+    public void cancel() {
+        generation.incrementAndGet();
+        search.stop();
+    }
+
+    /** Stops analysing and frees the search once the running request has returned. */
+    public void close() {
+        cancel();
+        executor.execute(search::close);
+        executor.shutdown();
+    }
+
+    private void run(long forGeneration, Position position, long stops) {
+        long threats = threats(position);
+        boolean red = position.isRedToMove();
+
+        SearchResult result = search.search(position, SearchLimits.depth(SearchLimits.MAX_DEPTH), stops,
+                iteration -> publish(forGeneration, iteration, red, threats));
+        if (!result.hasMove()) {
+            // No move to search, so no iteration was published.
+            publish(forGeneration, result, red, threats);
+        }
+    }
+
+    private void publish(long forGeneration, SearchResult result, boolean red, long threats) {
+        if (forGeneration != generation.get()) return;
+        int score = red ? -result.score : result.score;
+        publish(forGeneration, new Analysis(result.from, result.path, result.captured, score, result.depth, result.nodes, threats));
+    }
+
+    /** The pieces of the side to move that the opponent could capture if it were to move now. */
+    private long threats(Position position) {
+        flipped.copyFrom(position);
+        flipped.setRedToMove(!position.isRedToMove());
+        int n = generator.generate(flipped, moves);
+        long threats = 0;
+        for (int i = 0; i < n && moves.isCapture(i); i++) {
+            threats |= moves.captured(i);
+        }
+        return threats;
+    }
+
+    private void publish(long forGeneration, Analysis analysis) {
+        latest.set(new Published(forGeneration, analysis));
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(deliver);
+        }
+    }
+
+    private void deliver() {
+        scheduled.set(false);
+        Published published = latest.getAndSet(null);
+        if (published != null && published.generation == generation.get()) {
+            onAnalysis.accept(published.analysis);
+        }
+    }
+
+    private record Published(long generation, Analysis analysis) {
+    }
+}
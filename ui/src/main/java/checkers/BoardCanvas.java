@@ -0,0 +1,166 @@
+package checkers;
+
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import checkers.metrics.Metrics;
+import checkers.metrics.Timer;
+
+import java.util.Arrays;
+
+/**
+ * Draws the board and its pieces on one canvas instead of a node per tile
+ * and piece. It remembers what it last drew on every square, so
+ * {@link #refresh} repaints only the squares whose contents changed, and a
+ * dragged piece only repaints the squares under its old and new position.
+ * The {@link Tile} and {@link Piece} objects stay the model; they are just
+ * never added to the scene.
+ */
+public class BoardCanvas extends Canvas {
+    private static final int TILE_SIZE = Tile.TILE_SIZE;
+    private static final Timer REDRAW = Metrics.timer("checkers_redraw", "BoardCanvas repaint of changed squares");
+    private static final byte UNKNOWN = -1;
+    private static final byte EMPTY = 0;
+    private static final byte WHITE_MAN = 1;
+    private static final byte WHITE_KING = 2;
+    private static final byte RED_MAN = 3;
+    private static final byte RED_KING = 4;
+
+    private final int width;
+    private final int height;
+    private final GraphicsContext g;
+    private final byte[] drawn;
+    private final Color[] highlights;
+    private final Color[] drawnHighlights;
+    private Tile[][] board;
+    private Piece dragged;
+    private double dragX, dragY;
+
+    public BoardCanvas(int width, int height) {
+        super(width * TILE_SIZE, height * TILE_SIZE);
+        this.width = width;
+        this.height = height;
+        g = getGraphicsContext2D();
+        drawn = new byte[width * height];
+        highlights = new Color[width * height];
+        drawnHighlights = new Color[width * height];
+    }
+
+    /** Shows a new board, repainting every square. */
+    public void setBoard(Tile[][] board) {
+        this.board = board;
+        dragged = null;
+        Arrays.fill(drawn, UNKNOWN);
+        Arrays.fill(highlights, null);
+        refresh();
+    }
+
+    /** Frames a square like {@link Tile#setHighlight}; shown by the next {@link #refresh}. */
+    public void setHighlight(int x, int y, Color color) {
+        highlights[y * width + x] = color;
+    }
+
+    /** Repaints the squares whose piece or highlight changed since they were last drawn. */
+    public void refresh() {
+        if (board == null) return;
+        long start = Timer.start();
+        boolean painted = false;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                byte contents = contents(x, y);
+                int i = y * width + x;
+                if (drawn[i] != contents || drawnHighlights[i] != highlights[i]) {
+                    paintSquare(x, y, contents);
+                    painted = true;
+                }
+            }
+        }
+        if (painted && dragged != null) {
+            paintPiece(dragX, dragY, code(dragged));
+        }
+        REDRAW.stop(start);
+    }
+
+    /** Lifts {@code piece} off its square; it follows its layout position until {@link #endDrag}. */
+    public void startDrag(Piece piece) {
+        dragged = piece;
+        dragX = piece.getLayoutX();
+        dragY = piece.getLayoutY();
+        refresh();
+    }
+
+    public void drag() {
+        if (dragged == null) return;
+        long start = Timer.start();
+        repaintUnder(dragX, dragY);
+        dragX = dragged.getLayoutX();
+        dragY = dragged.getLayoutY();
+        repaintUnder(dragX, dragY);
+        paintPiece(dragX, dragY, code(dragged));
+        REDRAW.stop(start);
+    }
+
+    public void endDrag() {
+        if (dragged == null) return;
+        dragged = null;
+        repaintUnder(dragX, dragY);
+        refresh();
+    }
+
+    private void repaintUnder(double px, double py) {
+        int x0 = Math.max(0, (int) Math.floor(px / TILE_SIZE));
+        int y0 = Math.max(0, (int) Math.floor(py / TILE_SIZE));
+        int x1 = Math.min(width - 1, (int) Math.floor((px + TILE_SIZE - 1) / TILE_SIZE));
+        int y1 = Math.min(height - 1, (int) Math.floor((py + TILE_SIZE - 1) / TILE_SIZE));
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                paintSquare(x, y, contents(x, y));
+            }
+        }
+    }
+
+    private byte contents(int x, int y) {
+        Piece piece = board[x][y].getPiece();
+        return piece == null || piece == dragged ? EMPTY : code(piece);
+    }
+
+    private static byte code(Piece piece) {
+        if (piece.getType() == PieceType.RED) {
+            return piece.isKing ? RED_KING : RED_MAN;
+        }
+        return piece.isKing ? WHITE_KING : WHITE_MAN;
+    }
+
+    private void paintSquare(int x, int y, byte contents) {
+        g.setFill((x + y) % 2 == 0 ? Color.BEIGE : Color.BROWN);
+        g.fillRect(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+        Color highlight = highlights[y * width + x];
+        if (highlight != null) {
+            g.setStroke(highlight);
+            g.setLineWidth(6);
+            g.strokeRect(x * TILE_SIZE + 3, y * TILE_SIZE + 3, TILE_SIZE - 6, TILE_SIZE - 6);
+        }
+        if (contents != EMPTY) {
+            paintPiece(x * TILE_SIZE, y * TILE_SIZE, contents);
+        }
+        drawn[y * width + x] = contents;
+        drawnHighlights[y * width + x] = highlight;
+    }
+
+    /** Paints a piece the way {@link Piece} builds it, with its square's corner at {@code (px, py)}. */
+    private void paintPiece(double px, double py, byte code) {
+        double cx = px + TILE_SIZE / 2.0;
+        double cy = py + TILE_SIZE / 2.0;
+        double r = TILE_SIZE * 0.4;
+        g.setFill(code >= RED_MAN ? Color.RED : Color.WHITE);
+        g.fillOval(cx - r, cy - r, 2 * r, 2 * r);
+        g.setStroke(Color.BLACK);
+        g.setLineWidth(2);
+        g.strokeOval(cx - r, cy - r, 2 * r, 2 * r);
+        if (code == WHITE_KING || code == RED_KING) {
+            double k = TILE_SIZE * 0.15;
+            g.setFill(Color.GOLD);
+            g.fillOval(cx - k, cy - k, 2 * k, 2 * k);
+        }
+    }
+}
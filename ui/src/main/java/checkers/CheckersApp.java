@@ -0,0 +1,28 @@
+package checkers;
+
+import checkers.metrics.Metrics;
+import checkers.metrics.MetricsExporter;
+import javafx.application.Application;
+import javafx.stage.Stage;
+
+public class CheckersApp extends Application {
+    private MetricsExporter metrics;
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+
+    @Override
+    public void start(Stage primaryStage) throws Exception {
+        metrics = MetricsExporter.fromSystemProperties(Metrics.REGISTRY);
+        CheckersGame game = new CheckersGame();
+        game.start(primaryStage);
+    }
+
+    @Override
+    public void stop() {
+        if (metrics != null) {
+            metrics.close();
+        }
+    }
+}
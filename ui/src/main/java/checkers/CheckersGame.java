@@ -0,0 +1,947 @@
+package checkers;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.Group;
+import javafx.scene.layout.*;
+import javafx.scene.control.*;
+import javafx.stage.Stage;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.geometry.Pos;
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.DrawDetector;
+import checkers.engine.DrawRules;
+import checkers.engine.MoveBuffer;
+import checkers.engine.Position;
+import checkers.engine.SearchResult;
+import checkers.archive.GameArchiveWriter;
+import checkers.archive.GameRecord;
+import checkers.archive.PositionStats;
+import checkers.net.Protocol;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class CheckersGame {
+    private static final int TILE_SIZE = Tile.TILE_SIZE;
+    /** Board offered first in the menu: {@code -Dcheckers.board=10} for 10x10. */
+    public static final int DEFAULT_BOARD_SIZE = Integer.getInteger("checkers.board", 8);
+    public static final int TIME_LIMIT_MINUTES = 10;
+    public static final Path ARCHIVE_PATH = Path.of(System.getProperty("checkers.archive",
+            Path.of(System.getProperty("user.home"), ".warcaby", "games.ckga").toString()));
+    /** {@code -Dcheckers.renderer=canvas} draws the board on one canvas instead of a node per tile and piece. */
+    public static final boolean CANVAS_RENDERER = "canvas".equals(System.getProperty("checkers.renderer"));
+    /** {@code -Dcheckers.rules.draw}, see {@link DrawRules#parse}. */
+    public static final DrawRules DRAW_RULES = DrawRules.fromProperty();
+    private static final Color HINT_COLOR = Color.LIMEGREEN;
+    private static final Color THREAT_COLOR = Color.ORANGE;
+
+    private BoardGeometry geometry = BoardGeometry.of(DEFAULT_BOARD_SIZE);
+    private CaptureRule captureRule = CaptureRule.fromProperty();
+    private Tile[][] board;
+    private final Group tileGroup = new Group();
+    private final Group pieceGroup = new Group();
+    private BoardCanvas boardCanvas;
+    private Piece canvasPiece;
+    private GameLogic gameLogic;
+
+    private Stage primaryStage;
+    private BorderPane root;
+
+    private final MoveTimeList whiteTimeList = new MoveTimeList();
+    private final MoveTimeList redTimeList = new MoveTimeList();
+    private ListView<String> whiteTimeView, redTimeView;
+
+    private Label whiteClockLabel, redClockLabel;
+    private ChessClock clock;
+    private PieceType computerType = null;
+    private ComputerPlayer computerPlayer;
+    private long gameId = 0;
+
+    private LanPlayer lanPlayer;
+    private PieceType lanType;
+    private boolean lanStarted;
+
+    private final GameRecord gameRecord = new GameRecord();
+    private int moveFrom;
+    private PieceType moveType;
+    private int moveHops;
+    private final int[] movePath = new int[MoveBuffer.MAX_PATH];
+    private long lastMoveNanos;
+    private boolean replaying;
+    private final Consumer<PieceType> onGameEnd = this::endGame;
+    private Button undoButton, redoButton;
+
+    private AnalysisService analysisService;
+    private boolean analysisEnabled;
+    private ProgressBar evalBar;
+    private Label evalLabel, hintLabel;
+    private long highlighted;
+
+    private final GameDatabase gameDatabase = new GameDatabase(ARCHIVE_PATH, this::showPositionStats);
+    private Label databaseLabel;
+
+    public void start(Stage primaryStage) {
+        this.primaryStage = primaryStage;
+        showStartMenu();
+    }
+
+    private void showStartMenu() {
+        Button localPlayButton = new Button("Graj lokalnie (1vs1)");
+        Button computerPlayButton = new Button("Graj z komputerem");
+        Button lanPlayButton = new Button("Graj przez LAN (1vs1)");
+        ChoiceBox<String> boardChoice = new ChoiceBox<>();
+        boardChoice.getItems().addAll("Plansza 8x8", "Plansza 10x10");
+        boardChoice.getSelectionModel().select(geometry == BoardGeometry.INTERNATIONAL ? 1 : 0);
+        boardChoice.setOnAction(_ -> geometry = boardChoice.getSelectionModel().getSelectedIndex() == 1
+                ? BoardGeometry.INTERNATIONAL : BoardGeometry.STANDARD);
+        CheckBox majorityBox = new CheckBox("Bicie większości");
+        majorityBox.setSelected(captureRule == CaptureRule.MAJORITY);
+        majorityBox.setOnAction(_ -> captureRule = majorityBox.isSelected() ? CaptureRule.MAJORITY : CaptureRule.FREE);
+
+        String buttonStyle = """
+        -fx-font-size: 16px;
+        -fx-padding: 10 20;
+        -fx-background-color: linear-gradient(to bottom, #4CAF50, #2E7D32);
+        -fx-text-fill: white;
+        -fx-background-radius: 10;
+        -fx-cursor: hand;
+        """;
+
+        String hoverStyle = """
+        -fx-background-color: linear-gradient(to bottom, #66BB6A, #388E3C);
+        """;
+
+        localPlayButton.setStyle(buttonStyle);
+        computerPlayButton.setStyle(buttonStyle);
+        lanPlayButton.setStyle(buttonStyle);
+
+        localPlayButton.setOnMouseEntered(_ -> localPlayButton.setStyle(buttonStyle + hoverStyle));
+        localPlayButton.setOnMouseExited(_ -> localPlayButton.setStyle(buttonStyle));
+        computerPlayButton.setOnMouseEntered(_ -> computerPlayButton.setStyle(buttonStyle + hoverStyle));
+        computerPlayButton.setOnMouseExited(_ -> computerPlayButton.setStyle(buttonStyle));
+        lanPlayButton.setOnMouseEntered(_ -> lanPlayButton.setStyle(buttonStyle + hoverStyle));
+        lanPlayButton.setOnMouseExited(_ -> lanPlayButton.setStyle(buttonStyle));
+
+        localPlayButton.setOnAction(_ -> {
+            this.gameLogic = new GameLogic(board, geometry, captureRule, DRAW_RULES);
+            this.computerType = null;
+            initializeGame();
+            primaryStage.setScene(new Scene(root));
+        });
+
+        computerPlayButton.setOnAction(_ -> {
+            this.gameLogic = new GameLogic(board, geometry, captureRule, DRAW_RULES);
+            this.computerType = PieceType.RED;
+            if (computerPlayer != null
+                    && (computerPlayer.getGeometry() != geometry || computerPlayer.getCaptureRule() != captureRule)) {
+                computerPlayer.close();
+                computerPlayer = null;
+            }
+            if (computerPlayer == null) {
+                computerPlayer = new ComputerPlayer(geometry, captureRule);
+            }
+            initializeGame();
+            primaryStage.setScene(new Scene(root));
+        });
+
+        lanPlayButton.setOnAction(_ -> showLanDialog());
+
+        VBox menuLayout = new VBox(20, boardChoice, majorityBox, localPlayButton, computerPlayButton, lanPlayButton);
+        menuLayout.setStyle("-fx-padding: 40; -fx-alignment: center; -fx-background-color: linear-gradient(to bottom, #d0d0d0, #f0f0f0);");
+
+        Scene menuScene = new Scene(menuLayout, 400, 400);
+        primaryStage.setScene(menuScene);
+        primaryStage.setTitle("Warcaby");
+        primaryStage.show();
+    }
+
+    private void showLanDialog() {
+        TextInputDialog dialog = new TextInputDialog("localhost:" + Protocol.DEFAULT_PORT);
+        dialog.setTitle("LAN");
+        dialog.setHeaderText("Adres serwera (host:port), opcjonalnie numer stołu po '/'");
+        dialog.setContentText("Serwer:");
+        Optional<String> address = dialog.showAndWait();
+        if (address.isEmpty() || address.get().isBlank()) return;
+
+        String text = address.get().trim();
+        int table = 0;
+        int slash = text.indexOf('/');
+        if (slash >= 0) {
+            table = Integer.parseInt(text.substring(slash + 1).trim());
+            text = text.substring(0, slash);
+        }
+        int colon = text.lastIndexOf(':');
+        String host = colon >= 0 ? text.substring(0, colon) : text;
+        int port = colon >= 0 ? Integer.parseInt(text.substring(colon + 1)) : Protocol.DEFAULT_PORT;
+
+        try {
+            LanPlayer player = new LanPlayer(this, host, port);
+            // The server checks moves by the free capture rule on the 8x8 board and decides draws.
+            this.geometry = BoardGeometry.STANDARD;
+            this.gameLogic = new GameLogic(board, geometry, CaptureRule.FREE, DrawRules.NONE);
+            this.computerType = null;
+            this.lanPlayer = player;
+            this.lanType = null;
+            this.lanStarted = false;
+            initializeGame();
+            primaryStage.setScene(new Scene(root));
+            primaryStage.setTitle("Warcaby - oczekiwanie na przeciwnika");
+            player.join(table);
+        } catch (IOException | RuntimeException e) {
+            closeLan();
+            Alert alert = new Alert(Alert.AlertType.ERROR);
+            alert.setTitle("LAN");
+            alert.setHeaderText("Nie można połączyć się z serwerem.");
+            alert.setContentText(e.getMessage());
+            alert.showAndWait();
+            showStartMenu();
+        }
+    }
+
+    void onLanJoined(LanPlayer source, int table, boolean red, int baseMillis) {
+        if (source != lanPlayer) return;
+        lanType = red ? PieceType.RED : PieceType.WHITE;
+        clock.set(baseMillis * 1_000_000L, baseMillis * 1_000_000L);
+        primaryStage.setTitle("Warcaby - stół " + table + " (" + (red ? "czerwony" : "biały") + ")"
+                + " - oczekiwanie na przeciwnika");
+    }
+
+    void onLanStarted(LanPlayer source) {
+        if (source != lanPlayer) return;
+        lanStarted = true;
+        primaryStage.setTitle("Warcaby - LAN (" + (lanType == PieceType.RED ? "czerwony" : "biały") + ")");
+        clock.start(gameLogic.isRedTurn());
+    }
+
+    void onLanMove(LanPlayer source, int from, int[] path, int redMillis, int whiteMillis, boolean gameOver) {
+        if (source != lanPlayer || gameLogic.isGameEnded()) return;
+        if (gameOver) {
+            // The server ended the game with this move, possibly by a draw rule the board does not track.
+            lanStarted = false;
+        }
+        Position position = gameLogic.getPosition();
+        if (position.isOccupied(from) && position.isRed(from) != (lanType == PieceType.RED)) {
+            playMove(gameId, from, path);
+        }
+        clock.set(redMillis * 1_000_000L, whiteMillis * 1_000_000L);
+    }
+
+    void onLanGameOver(LanPlayer source, int winner) {
+        if (source != lanPlayer || gameLogic.isGameEnded()) return;
+        endGame(winner == Protocol.WINNER_NONE ? null
+                : winner == Protocol.WINNER_RED ? PieceType.RED : PieceType.WHITE);
+    }
+
+    void onLanLost(LanPlayer source, String message) {
+        if (source != lanPlayer || gameLogic.isGameEnded()) return;
+        closeLan();
+        showLanMessage(message);
+    }
+
+    private void showLanMessage(String message) {
+        stopTimer();
+        gameLogic.setGameEnded(true);
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
+        alert.setTitle("LAN");
+        alert.setHeaderText("Koniec gry");
+        alert.setContentText(message);
+        alert.showAndWait();
+        showStartMenu();
+    }
+
+    private void closeLan() {
+        if (lanPlayer != null) {
+            lanPlayer.close();
+            lanPlayer = null;
+        }
+    }
+
+    private void recordHop(Piece piece, int newX, int newY) {
+        if (moveHops == 0) {
+            moveFrom = gameLogic.squareOf(piece);
+            moveType = piece.getType();
+        }
+        movePath[moveHops++] = geometry.square(newX, newY);
+    }
+
+    private void finishMove(long elapsedNanos) {
+        if (moveHops == 0) return;
+        int ply = gameLogic.getHistory().size();
+        int millis = (int) (elapsedNanos / 1_000_000L);
+        // Throws, before anything is recorded or sent, if the engine does not know the move.
+        gameLogic.commitMove(moveFrom, movePath, moveHops);
+        if (isRecordedMove(ply)) {
+            gameRecord.setMoveMillis(ply, millis);
+        } else {
+            gameRecord.truncate(ply);
+            gameRecord.addMove(moveFrom, movePath, moveHops, millis);
+        }
+        if (lanPlayer != null && moveType == lanType) {
+            lanPlayer.sendMove(moveFrom, movePath, moveHops);
+        }
+        moveHops = 0;
+        updateUndoButtons();
+    }
+
+    /** Whether the move just finished is the one already recorded at {@code ply}, as when redoing. */
+    private boolean isRecordedMove(int ply) {
+        if (ply >= gameRecord.plies() || gameRecord.from(ply) != moveFrom || gameRecord.pathLength(ply) != moveHops) {
+            return false;
+        }
+        for (int h = 0; h < moveHops; h++) {
+            if (gameRecord.pathSquare(ply, h) != movePath[h]) return false;
+        }
+        return true;
+    }
+
+    private void undoMove() {
+        int plies = computerType != null ? 2 : 1;
+        if (computerType != null && gameLogic.isRedTurn() == computerType.isRed) {
+            plies = 1;
+        }
+        if (!gameLogic.canUndo() || gameLogic.getHistory().size() < plies) return;
+
+        gameId++;
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+        for (int i = 0; i < plies; i++) {
+            long captured = gameLogic.undoMove();
+            Position position = gameLogic.getPosition();
+            for (; captured != 0; captured &= captured - 1) {
+                int square = Long.numberOfTrailingZeros(captured);
+                int x = geometry.x(square);
+                int y = geometry.y(square);
+                Piece piece = makePiece(position.isRed(square) ? PieceType.RED : PieceType.WHITE, x, y);
+                if (position.isKing(square)) {
+                    piece.makeKing();
+                }
+                gameLogic.placePiece(piece, x, y);
+                pieceGroup.getChildren().add(piece);
+            }
+            (gameLogic.isRedTurn() ? redTimeList : whiteTimeList).removeLastMove();
+        }
+        moveHops = 0;
+        gameLogic.updateAvailableCaptures();
+        boardChanged();
+        clock.restartTurn(gameLogic.isRedTurn());
+        updateUndoButtons();
+        requestComputerMove();
+        requestAnalysis();
+    }
+
+    private void redoMove() {
+        int ply = gameLogic.getHistory().size();
+        if (!gameLogic.canUndo() && ply > 0 || ply >= gameRecord.plies()) return;
+
+        int plies = computerType != null ? Math.min(2, gameRecord.plies() - ply) : 1;
+        long forGame = ++gameId;
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+        replaying = true;
+        int[] path = new int[MoveBuffer.MAX_PATH];
+        for (int i = 0; i < plies && !gameLogic.isGameEnded(); i++, ply++) {
+            int hops = gameRecord.pathLength(ply);
+            for (int h = 0; h < hops; h++) {
+                path[h] = gameRecord.pathSquare(ply, h);
+            }
+            playMove(forGame, gameRecord.from(ply), Arrays.copyOf(path, hops));
+        }
+        replaying = false;
+        requestComputerMove();
+        requestAnalysis();
+    }
+
+    private void updateUndoButtons() {
+        if (undoButton == null) return;
+        boolean allowed = lanPlayer == null && !gameLogic.isGameEnded();
+        undoButton.setDisable(!allowed || !gameLogic.canUndo());
+        redoButton.setDisable(!allowed || gameLogic.getCapturingPiece() != null
+                || gameLogic.getHistory().size() >= gameRecord.plies());
+    }
+
+    private void saveGame(int result) {
+        // A capture sequence cut short by the clock is not a move.
+        moveHops = 0;
+        gameRecord.truncate(gameLogic.getHistory().size());
+        gameRecord.setResult(result);
+        if (geometry != BoardGeometry.STANDARD) {
+            // Archived games and their PDN export use 8x8 square numbers.
+            return;
+        }
+        try {
+            Files.createDirectories(ARCHIVE_PATH.toAbsolutePath().getParent());
+            try (GameArchiveWriter writer = new GameArchiveWriter(ARCHIVE_PATH)) {
+                writer.append(gameRecord);
+            }
+            gameDatabase.gameArchived();
+        } catch (IOException e) {
+            System.err.println("Could not archive game to " + ARCHIVE_PATH + ": " + e.getMessage());
+        }
+    }
+
+    public void initializeGame() {
+        resetAndPrepareGame();
+        setupRootLayout();
+        createBoardAndPieces();
+        if (boardCanvas != null) {
+            boardCanvas.setBoard(board);
+        }
+        setupMoveTimeSidebar();
+        setupChessClocks();
+        finalizeInitialization();
+    }
+
+    private void resetAndPrepareGame() {
+        gameId++;
+        moveHops = 0;
+        gameRecord.clear();
+        gameRecord.setStartEpochMillis(System.currentTimeMillis());
+        gameRecord.setTimeControl(TIME_LIMIT_MINUTES * 60_000, 0);
+        gameRecord.setPlayers(lanPlayer != null ? "LAN" : "Gracz",
+                computerType == PieceType.RED ? "Komputer" : lanPlayer != null ? "LAN" : "Gracz");
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+        if (analysisService != null) {
+            analysisService.cancel();
+        }
+        highlighted = 0;
+        gameLogic.resetGame();
+        tileGroup.getChildren().clear();
+        pieceGroup.getChildren().clear();
+
+        board = new Tile[geometry.width][geometry.height];
+        gameLogic.setBoard(board);
+        if (clock != null) {
+            clock.stop();
+        }
+    }
+
+    private void setupRootLayout() {
+        root = new BorderPane();
+
+        Pane boardPane = new Pane();
+        boardPane.setPrefSize(geometry.width * TILE_SIZE, geometry.height * TILE_SIZE);
+        if (CANVAS_RENDERER) {
+            boardCanvas = new BoardCanvas(geometry.width, geometry.height);
+            boardCanvas.setOnMousePressed(e -> {
+                int x = gameLogic.toBoard(e.getX() - TILE_SIZE / 2.0);
+                int y = gameLogic.toBoard(e.getY() - TILE_SIZE / 2.0);
+                if (x < 0 || y < 0 || x >= geometry.width || y >= geometry.height) return;
+                Piece piece = board[x][y].getPiece();
+                if (piece != null && pressPiece(piece, e.getX(), e.getY())) {
+                    canvasPiece = piece;
+                    boardCanvas.startDrag(piece);
+                }
+            });
+            boardCanvas.setOnMouseDragged(e -> {
+                if (canvasPiece != null) {
+                    dragPiece(canvasPiece, e.getX(), e.getY());
+                    boardCanvas.drag();
+                }
+            });
+            boardCanvas.setOnMouseReleased(_ -> {
+                Piece piece = canvasPiece;
+                if (piece == null) return;
+                canvasPiece = null;
+                boardCanvas.endDrag();
+                releasePiece(piece);
+            });
+            boardPane.getChildren().add(boardCanvas);
+        } else {
+            boardPane.getChildren().addAll(tileGroup, pieceGroup);
+        }
+
+        root.setCenter(boardPane);
+    }
+
+    private void createBoardAndPieces() {
+        for (int y = 0; y < geometry.height; y++) {
+            for (int x = 0; x < geometry.width; x++) {
+                Tile tile = new Tile((x + y) % 2 == 0, x, y);
+                board[x][y] = tile;
+                tileGroup.getChildren().add(tile);
+
+                Piece piece = createInitialPiece(x, y);
+                if (piece != null) {
+                    tile.setPiece(piece);
+                    pieceGroup.getChildren().add(piece);
+                }
+            }
+        }
+    }
+
+    private Piece createInitialPiece(int x, int y) {
+        int square = geometry.square(x, y);
+        if (square < 0) {
+            return null;
+        }
+        if (geometry.isInitialRedSquare(square)) {
+            return makePiece(PieceType.RED, x, y);
+        }
+        if (geometry.isInitialWhiteSquare(square)) {
+            return makePiece(PieceType.WHITE, x, y);
+        }
+        return null;
+    }
+
+    private void setupMoveTimeSidebar() {
+        whiteTimeList.clear();
+        redTimeList.clear();
+
+        whiteTimeView = new ListView<>(whiteTimeList);
+        redTimeView = new ListView<>(redTimeList);
+        whiteTimeView.setPrefHeight(200);
+        redTimeView.setPrefHeight(200);
+    }
+
+    private void setupChessClocks() {
+        whiteClockLabel = new Label();
+        redClockLabel = new Label();
+        clock = new ChessClock(whiteClockLabel, redClockLabel);
+        clock.setOnFlag(winner -> {
+            if (!gameLogic.isGameEnded()) endGame(winner);
+        });
+        clock.setFlagEnabled(lanPlayer == null);
+        clock.reset(TIME_LIMIT_MINUTES * 60L * 1_000_000_000L);
+
+        whiteClockLabel.setFont(Font.font(20));
+        redClockLabel.setFont(Font.font(20));
+
+        whiteClockLabel.setStyle("-fx-text-fill: #333333; -fx-font-weight: bold;");
+        redClockLabel.setStyle("-fx-text-fill: #333333; -fx-font-weight: bold;");
+
+        Label whiteText = new Label("BIAŁY:");
+        Label redText = new Label("CZERWONY:");
+        whiteText.setStyle("-fx-font-weight: bold; -fx-padding: 0 5 0 0;");
+        redText.setStyle("-fx-font-weight: bold; -fx-padding: 0 5 0 0;");
+
+        HBox whiteClockBox = new HBox(whiteText, whiteClockLabel);
+        HBox redClockBox = new HBox(redText, redClockLabel);
+
+        whiteClockBox.setAlignment(Pos.CENTER_LEFT);
+        redClockBox.setAlignment(Pos.CENTER_LEFT);
+        whiteClockBox.setMinHeight(40);
+        redClockBox.setMinHeight(40);
+        whiteClockBox.setStyle("-fx-padding: 0 10; -fx-background-color: #f8f8f8; -fx-border-color: #cccccc; -fx-border-width: 1;");
+        redClockBox.setStyle("-fx-padding: 0 10; -fx-background-color: #f8f8f8; -fx-border-color: #cccccc; -fx-border-width: 1;");
+
+        VBox clocksBox = new VBox(10, whiteClockBox, redClockBox);
+
+        undoButton = new Button("Cofnij");
+        redoButton = new Button("Ponów");
+        undoButton.setOnAction(_ -> undoMove());
+        redoButton.setOnAction(_ -> redoMove());
+        undoButton.setDisable(true);
+        redoButton.setDisable(true);
+        HBox historyBox = new HBox(10, undoButton, redoButton);
+
+        CheckBox analysisToggle = new CheckBox("Analiza");
+        analysisToggle.setSelected(analysisEnabled);
+        analysisToggle.setOnAction(_ -> {
+            analysisEnabled = analysisToggle.isSelected();
+            requestAnalysis();
+        });
+        evalBar = new ProgressBar(0.5);
+        evalBar.setMaxWidth(Double.MAX_VALUE);
+        evalBar.setStyle("-fx-accent: white; -fx-control-inner-background: #d32f2f;");
+        evalLabel = new Label();
+        hintLabel = new Label();
+        VBox analysisBox = new VBox(5, analysisToggle, evalBar, evalLabel, hintLabel);
+        databaseLabel = new Label();
+        databaseLabel.setWrapText(true);
+
+        VBox sidebar = new VBox(10,
+                clocksBox,
+                historyBox,
+                analysisBox,
+                databaseLabel,
+                new Label("Czas ruchów BIAŁY:"), whiteTimeView,
+                new Label("Czas ruchów CZERWONY:"), redTimeView
+        );
+        sidebar.setPrefWidth(250);
+        sidebar.setStyle("-fx-padding: 20; -fx-background-color: #f0f0f0;");
+
+        root.setRight(sidebar);
+    }
+
+    private void finalizeInitialization() {
+        gameLogic.syncPosition();
+        gameLogic.updateAvailableCaptures();
+        if (lanPlayer == null) {
+            clock.start(gameLogic.isRedTurn());
+        }
+        requestComputerMove();
+        requestAnalysis();
+    }
+
+    private void stopTimer() {
+        if (clock != null) {
+            clock.stop();
+        }
+    }
+
+    private void switchPlayerClock() {
+        boolean red = gameLogic.isRedTurn();
+        long elapsed = clock.press();
+        lastMoveNanos = elapsed;
+
+        if (clock.remaining(red) <= 0 && lanPlayer == null) {
+            endGame(red ? PieceType.WHITE : PieceType.RED);
+            return;
+        }
+
+        MoveTimeList times = red ? redTimeList : whiteTimeList;
+        times.add(elapsed);
+        (red ? redTimeView : whiteTimeView).scrollTo(times.size() - 1);
+    }
+
+    private Piece makePiece(PieceType type, int x, int y) {
+        Piece piece = new Piece(type, x, y);
+
+        piece.setOnMousePressed(e -> {
+            if (!pressPiece(piece, e.getSceneX(), e.getSceneY())) {
+                e.consume();
+            }
+        });
+        piece.setOnMouseDragged(e -> dragPiece(piece, e.getSceneX(), e.getSceneY()));
+        piece.setOnMouseReleased(_ -> releasePiece(piece));
+
+        return piece;
+    }
+
+    private boolean pressPiece(Piece piece, double mouseX, double mouseY) {
+        if (!canHumanMove(piece)) return false;
+        piece.mouseX = mouseX - piece.getLayoutX() - TILE_SIZE / 2.0;
+        piece.mouseY = mouseY - piece.getLayoutY() - TILE_SIZE / 2.0;
+        piece.toFront();
+        return true;
+    }
+
+    private void dragPiece(Piece piece, double mouseX, double mouseY) {
+        if (canHumanMove(piece)) {
+            piece.setLayoutX(mouseX - piece.mouseX - TILE_SIZE / 2.0);
+            piece.setLayoutY(mouseY - piece.mouseY - TILE_SIZE / 2.0);
+        }
+    }
+
+    private void releasePiece(Piece piece) {
+        if (!canHumanMove(piece)) {
+            piece.abortMove();
+            return;
+        }
+
+        int newX = gameLogic.toBoard(piece.getLayoutX());
+        int newY = gameLogic.toBoard(piece.getLayoutY());
+
+        MoveResult result = gameLogic.tryMove(piece, newX, newY);
+
+        if (result.getType() == MoveType.NORMAL) {
+            handleNormalMove(piece, newX, newY);
+        } else if (result.getType() == MoveType.KILL && !result.getCapturedPieces().isEmpty()) {
+            handleKillMove(piece, newX, newY, result);
+        } else {
+            piece.abortMove();
+        }
+    }
+
+    private void boardChanged() {
+        if (boardCanvas != null) {
+            boardCanvas.refresh();
+        }
+    }
+
+    private boolean canHumanMove(Piece piece) {
+        if (lanPlayer != null && (!lanStarted || piece.getType() != lanType)) return false;
+        return piece.getType() != computerType && gameLogic.canPieceMove(piece);
+    }
+
+    private void requestComputerMove() {
+        if (replaying || computerType == null || gameLogic.isGameEnded() || gameLogic.getCapturingPiece() != null) return;
+        if (gameLogic.isRedTurn() != computerType.isRed) return;
+
+        long forGame = gameId;
+        long remaining = clock.remaining(computerType.isRed) - clock.elapsed();
+        computerPlayer.requestMove(gameLogic.getPosition(), remaining, 0, gameLogic.getHistory().size(),
+                result -> playComputerMove(forGame, result));
+    }
+
+    private void playComputerMove(long forGame, SearchResult result) {
+        if (result.hasMove()) {
+            playMove(forGame, result.from, result.path);
+        }
+        if (forGame == gameId && !gameLogic.isGameEnded() && gameLogic.isRedTurn() != computerType.isRed) {
+            computerPlayer.ponder(gameLogic.getPosition());
+        }
+    }
+
+    private void playMove(long forGame, int from, int[] path) {
+        if (forGame != gameId || gameLogic.isGameEnded()) return;
+
+        Piece piece = board[geometry.x(from)][geometry.y(from)].getPiece();
+        if (piece == null) return;
+
+        for (int square : path) {
+            if (forGame != gameId || gameLogic.isGameEnded()) return;
+            int newX = geometry.x(square);
+            int newY = geometry.y(square);
+            MoveResult hop = gameLogic.tryMove(piece, newX, newY);
+            if (hop.getType() == MoveType.NORMAL) {
+                handleNormalMove(piece, newX, newY);
+            } else if (hop.getType() == MoveType.KILL) {
+                handleKillMove(piece, newX, newY, hop);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void handleNormalMove(Piece piece, int newX, int newY) {
+        if (!gameLogic.getPiecesWithCaptures().isEmpty() || gameLogic.getCapturingPiece() != null) {
+            piece.abortMove();
+            return;
+        }
+
+        recordHop(piece, newX, newY);
+        gameLogic.makeMove(piece, newX, newY);
+        gameLogic.checkAndPromote(piece, newY);
+        boardChanged();
+        gameLogic.setCapturingPiece(null);
+        switchPlayerClock();
+        gameLogic.switchTurn();
+        finishMove(lastMoveNanos);
+        gameLogic.updateAvailableCaptures();
+        checkGameEnd();
+        requestComputerMove();
+        requestAnalysis();
+    }
+
+    private void handleKillMove(Piece piece, int newX, int newY, MoveResult result) {
+        recordHop(piece, newX, newY);
+        gameLogic.makeMove(piece, newX, newY);
+
+        for (Piece captured : result.getCapturedPieces()) {
+            gameLogic.removePiece(captured);
+            pieceGroup.getChildren().remove(captured);
+        }
+        gameLogic.checkAndPromote(piece, newY);
+        boardChanged();
+
+        int currentX = gameLogic.toBoard(piece.oldX);
+        int currentY = gameLogic.toBoard(piece.oldY);
+
+        if (gameLogic.hasAnyCaptures(piece, currentX, currentY)) {
+            gameLogic.setCapturingPiece(piece);
+        } else {
+            gameLogic.setCapturingPiece(null);
+            switchPlayerClock();
+            gameLogic.switchTurn();
+            finishMove(lastMoveNanos);
+        }
+
+        gameLogic.updateAvailableCaptures();
+        if (gameLogic.getCapturingPiece() == null) {
+            checkGameEnd();
+        }
+        requestComputerMove();
+        requestAnalysis();
+    }
+
+    /**
+     * Ends the game when the side to move has no move or a draw rule applies.
+     * The server ends LAN games with its GAME_OVER frame, so a game it still
+     * runs is never ended here and its connection stays open.
+     */
+    private void checkGameEnd() {
+        if (lanPlayer == null) {
+            gameLogic.checkGameEnd(onGameEnd);
+        }
+    }
+
+    /**
+     * Starts analysing the position on the board, or stops when analysis is
+     * off or no complete move can be analysed, as in the middle of a capture
+     * sequence. Results arrive in {@link #showAnalysis}. Also looks the
+     * position up in the game database.
+     */
+    private void requestAnalysis() {
+        if (replaying || evalBar == null) return;
+        requestPositionStats();
+        clearAnalysis();
+        if (!analysisEnabled || gameLogic.isGameEnded() || gameLogic.getCapturingPiece() != null) {
+            if (analysisService != null) {
+                analysisService.cancel();
+            }
+            return;
+        }
+        if (analysisService != null && (analysisService.getGeometry() != geometry
+                || analysisService.getCaptureRule() != gameLogic.getCaptureRule())) {
+            analysisService.close();
+            analysisService = null;
+        }
+        if (analysisService == null) {
+            analysisService = new AnalysisService(geometry, gameLogic.getCaptureRule(), this::showAnalysis);
+        }
+        analysisService.analyse(gameLogic.getPosition());
+    }
+
+    private void showAnalysis(Analysis analysis) {
+        clearHighlights();
+        evalBar.setProgress(1 / (1 + Math.exp(-analysis.whiteScore / 200.0)));
+        if (analysis.isWin()) {
+            evalLabel.setText(analysis.whiteScore > 0 ? "Wygrywa biały" : "Wygrywa czerwony");
+        } else {
+            evalLabel.setText(String.format("Ocena: %+.2f (głębokość %d)", analysis.whiteScore / 100.0, analysis.depth));
+        }
+
+        if (analysis.hasMove()) {
+            StringBuilder hint = new StringBuilder("Podpowiedź: ").append(analysis.from + 1);
+            long squares = 1L << analysis.from;
+            for (int square : analysis.path) {
+                hint.append(analysis.captured != 0 ? 'x' : '-').append(square + 1);
+                squares |= 1L << square;
+            }
+            hintLabel.setText(hint.toString());
+            highlight(squares, HINT_COLOR);
+        } else {
+            hintLabel.setText("");
+        }
+        highlight(analysis.threats, THREAT_COLOR);
+        boardChanged();
+    }
+
+    private void requestPositionStats() {
+        databaseLabel.setText("");
+        if (geometry != BoardGeometry.STANDARD) {
+            // Only 8x8 games are archived.
+            gameDatabase.cancel();
+            databaseLabel.setText("Baza partii: tylko plansza 8x8");
+        } else if (gameLogic.getCapturingPiece() != null) {
+            gameDatabase.cancel();
+        } else {
+            gameDatabase.lookup(gameLogic.getPosition());
+        }
+    }
+
+    /** Lists the moves played from the board position in archived games, the most played first. */
+    private void showPositionStats(PositionStats stats) {
+        if (stats.occurrences() == 0) {
+            databaseLabel.setText("Baza partii: brak tej pozycji");
+            return;
+        }
+        StringBuilder text = new StringBuilder("Baza partii: pozycja wystąpiła ")
+                .append(stats.occurrences()).append(" razy");
+        for (int i = 0; i < Math.min(stats.moveCount(), 5); i++) {
+            long games = stats.games(i);
+            text.append('\n');
+            if (stats.isGameEnd(i)) {
+                text.append("koniec gry");
+            } else {
+                text.append(stats.from(i) + 1).append('-').append(stats.to(i) + 1);
+            }
+            text.append(": ").append(games)
+                    .append(String.format(" (B %d%%, C %d%%, R %d%%)",
+                            100 * stats.games(i, GameRecord.RESULT_WHITE_WINS) / games,
+                            100 * stats.games(i, GameRecord.RESULT_RED_WINS) / games,
+                            100 * stats.games(i, GameRecord.RESULT_DRAW) / games));
+        }
+        databaseLabel.setText(text.toString());
+    }
+
+    private void clearAnalysis() {
+        clearHighlights();
+        boardChanged();
+        evalBar.setProgress(0.5);
+        evalLabel.setText("");
+        hintLabel.setText("");
+    }
+
+    private void highlight(long squares, Color color) {
+        highlighted |= squares;
+        for (; squares != 0; squares &= squares - 1) {
+            int square = Long.numberOfTrailingZeros(squares);
+            int x = geometry.x(square);
+            int y = geometry.y(square);
+            if (boardCanvas != null) {
+                boardCanvas.setHighlight(x, y, color);
+            } else {
+                board[x][y].setHighlight(color);
+            }
+        }
+    }
+
+    private void clearHighlights() {
+        highlight(highlighted, null);
+        highlighted = 0;
+    }
+
+    /** Ends the game won by {@code winner}, or drawn when it is {@code null}. */
+    public void endGame(PieceType winner) {
+        stopTimer();
+        gameLogic.setGameEnded(true);
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+        if (analysisService != null) {
+            analysisService.cancel();
+        }
+        saveGame(winner == null ? GameRecord.RESULT_DRAW
+                : winner == PieceType.RED ? GameRecord.RESULT_RED_WINS : GameRecord.RESULT_WHITE_WINS);
+        long forGame = gameId;
+        // Shown once the mouse handler that ended the game has returned, not nested inside it.
+        Platform.runLater(() -> showGameOver(forGame, winner));
+    }
+
+    private void showGameOver(long forGame, PieceType winner) {
+        if (forGame != gameId) return;
+
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Koniec gry");
+        alert.setHeaderText("Gra zakończona!");
+        alert.setContentText(resultText(winner) + "\n\nCzy chcesz zagrać ponownie?");
+
+        ButtonType playAgainButton = new ButtonType("Zagraj ponownie");
+        ButtonType exitButton = new ButtonType("Wyjście");
+        alert.getButtonTypes().setAll(playAgainButton, exitButton);
+
+        Optional<ButtonType> result = alert.showAndWait();
+
+        if (lanPlayer != null) {
+            closeLan();
+            if (result.isPresent() && result.get() == playAgainButton) {
+                showStartMenu();
+            } else {
+                primaryStage.close();
+            }
+        } else if (result.isPresent() && result.get() == playAgainButton) {
+            initializeGame();
+            primaryStage.setScene(new Scene(root));
+        } else {
+            primaryStage.close();
+        }
+    }
+
+    private String resultText(PieceType winner) {
+        if (winner != null) {
+            return "Wygrał gracz: " + (winner == PieceType.RED ? "Czerwony" : "Biały");
+        }
+        DrawDetector.Reason reason = gameLogic.getDrawReason();
+        if (reason == null) {
+            return "Remis.";
+        }
+        return "Remis: " + switch (reason) {
+            case REPETITION -> "powtórzenie pozycji.";
+            case KING_MOVES -> "ruchy samymi damkami bez bicia.";
+            case MATERIAL -> "samotna damka przeciw zbyt małej przewadze.";
+        };
+    }
+}
@@ -0,0 +1,170 @@
+package checkers;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+import checkers.metrics.Metrics;
+import checkers.metrics.Timer;
+
+import java.util.function.Consumer;
+
+/**
+ * The two game clocks, kept as nanosecond counters. Nothing runs per frame:
+ * a single {@link PauseTransition} is armed for whichever comes first, the
+ * next change of the displayed seconds or the side to move running out of
+ * time, and a label's text is only set when the shown value changes.
+ */
+public class ChessClock {
+    private static final long SECOND = 1_000_000_000L;
+    private static final Timer TICK = Metrics.timer("checkers_clock_tick", "ChessClock display update");
+
+    private final Label whiteLabel;
+    private final Label redLabel;
+    private final PauseTransition tick = new PauseTransition();
+    private Consumer<PieceType> onFlag = _ -> { };
+    private boolean flagEnabled = true;
+
+    private long whiteRemaining;
+    private long redRemaining;
+    private long turnStart;
+    private boolean redToMove;
+    private boolean running;
+    private long whiteShown = -1;
+    private long redShown = -1;
+
+    public ChessClock(Label whiteLabel, Label redLabel) {
+        this.whiteLabel = whiteLabel;
+        this.redLabel = redLabel;
+        tick.setOnFinished(_ -> update());
+    }
+
+    /** Called with the winner when the side to move runs out of time. */
+    public void setOnFlag(Consumer<PieceType> onFlag) {
+        this.onFlag = onFlag;
+    }
+
+    /** With flag-fall disabled the clocks stop at zero and someone else, like a LAN server, decides. */
+    public void setFlagEnabled(boolean flagEnabled) {
+        this.flagEnabled = flagEnabled;
+    }
+
+    public void reset(long nanosEach) {
+        stop();
+        set(nanosEach, nanosEach);
+        redToMove = false;
+    }
+
+    /** Sets both clocks, as when the server reports them, and restarts the current turn. */
+    public void set(long redNanos, long whiteNanos) {
+        redRemaining = redNanos;
+        whiteRemaining = whiteNanos;
+        turnStart = System.nanoTime();
+        show(true, redRemaining);
+        show(false, whiteRemaining);
+        schedule();
+    }
+
+    public void start(boolean redToMove) {
+        this.redToMove = redToMove;
+        turnStart = System.nanoTime();
+        running = true;
+        schedule();
+    }
+
+    public void stop() {
+        running = false;
+        tick.stop();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Restarts the turn of {@code redToMove} without charging anyone, as after an undo. */
+    public void restartTurn(boolean redToMove) {
+        this.redToMove = redToMove;
+        turnStart = System.nanoTime();
+        show(redToMove, remaining(redToMove));
+        schedule();
+    }
+
+    /**
+     * Charges the current turn to the side to move and starts the other
+     * side's clock. Returns the time the move took.
+     */
+    public long press() {
+        long now = System.nanoTime();
+        long elapsed = now - turnStart;
+        if (redToMove) redRemaining -= elapsed; else whiteRemaining -= elapsed;
+        show(redToMove, remaining(redToMove));
+        redToMove = !redToMove;
+        turnStart = now;
+        schedule();
+        return elapsed;
+    }
+
+    /** Time left on the stored clock of one side, not counting the turn in progress. */
+    public long remaining(boolean red) {
+        return red ? redRemaining : whiteRemaining;
+    }
+
+    /** Time spent on the turn in progress. */
+    public long elapsed() {
+        return System.nanoTime() - turnStart;
+    }
+
+    private long left() {
+        return remaining(redToMove) - elapsed();
+    }
+
+    private void update() {
+        if (!running) return;
+        long start = Timer.start();
+        long left = left();
+        show(redToMove, left);
+        TICK.stop(start);
+        if (left <= 0) {
+            if (flagEnabled) {
+                running = false;
+                PieceType winner = redToMove ? PieceType.WHITE : PieceType.RED;
+                Platform.runLater(() -> onFlag.accept(winner));
+            }
+            return;
+        }
+        schedule();
+    }
+
+    private void schedule() {
+        tick.stop();
+        if (!running) return;
+        long left = left();
+        if (left <= 0) {
+            update();
+            return;
+        }
+        long untilNextSecond = left % SECOND;
+        long delay = untilNextSecond == 0 ? SECOND : untilNextSecond;
+        tick.setDuration(Duration.millis(delay / 1_000_000.0 + 1));
+        tick.playFromStart();
+    }
+
+    private void show(boolean red, long nanos) {
+        long seconds = Math.max(0, nanos) / SECOND;
+        if (red) {
+            if (seconds == redShown) return;
+            redShown = seconds;
+            redLabel.setText(format(seconds));
+        } else {
+            if (seconds == whiteShown) return;
+            whiteShown = seconds;
+            whiteLabel.setText(format(seconds));
+        }
+    }
+
+    static String format(long totalSeconds) {
+        long minutes = totalSeconds / 60;
+        long seconds = totalSeconds % 60;
+        return (minutes < 10 ? "0" : "") + minutes + (seconds < 10 ? ":0" : ":") + seconds;
+    }
+}
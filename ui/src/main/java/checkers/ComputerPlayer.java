@@ -0,0 +1,150 @@
+package checkers;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.ParallelSearch;
+import checkers.engine.Position;
+import checkers.engine.SearchLimits;
+import checkers.engine.SearchResult;
+import checkers.engine.Tablebase;
+import checkers.engine.TimeManager;
+import checkers.engine.TranspositionTable;
+import checkers.metrics.Counter;
+import checkers.metrics.Metrics;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * The computer opponent. Each move's time comes from its clock through a
+ * {@link TimeManager}. While the opponent thinks it ponders: it guesses the
+ * reply from its table and searches the position after it, deepening until
+ * the opponent moves. When the guess was right the table already holds
+ * that work, so the real search gets through those depths at once and goes
+ * deeper in the same time.
+ */
+public class ComputerPlayer {
+    public static final int TABLE_MEGABYTES = Integer.getInteger("checkers.search.hashMb", 64);
+    public static final int THREADS = Integer.getInteger("checkers.search.threads",
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    /** Kept back from every move for handing it to the board: {@code -Dcheckers.search.overheadMillis}. */
+    public static final long OVERHEAD_MILLIS = Long.getLong("checkers.search.overheadMillis", 150);
+    public static final boolean PONDER = !"false".equals(System.getProperty("checkers.search.ponder"));
+    public static final String TABLEBASE_PATH = System.getProperty("checkers.tablebase");
+
+    private static final Counter PONDER_HITS = Metrics.counter("checkers_ponder_hits",
+            "Computer moves whose position had been pondered");
+    private static final Counter PONDER_MISSES = Metrics.counter("checkers_ponder_misses",
+            "Computer moves after a wrongly guessed reply");
+
+    private final BoardGeometry geometry;
+    private final ParallelSearch search;
+    private final TimeManager timeManager = new TimeManager(OVERHEAD_MILLIS * 1_000_000L, 1.0);
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "computer-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer();
+    /** Position after the guessed reply, or {@code null} when not pondering; application thread only. */
+    private Position pondered;
+
+    public ComputerPlayer(BoardGeometry geometry, CaptureRule rule) {
+        this.geometry = geometry;
+        this.search = new ParallelSearch(geometry, THREADS, TABLE_MEGABYTES, rule);
+        generator = new MoveGenerator(geometry, rule);
+        if (TABLEBASE_PATH != null) {
+            try {
+                search.setTablebase(Tablebase.open(Path.of(TABLEBASE_PATH)));
+            } catch (IOException e) {
+                System.err.println("Could not open tablebase " + TABLEBASE_PATH + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Searches {@code current} within the time {@link TimeManager} gives a
+     * move at {@code ply} with {@code remainingNanos} left on the clock.
+     */
+    public void requestMove(Position current, long remainingNanos, long incrementNanos, int ply,
+                            Consumer<SearchResult> onResult) {
+        if (pondered != null) {
+            (samePosition(pondered, current) ? PONDER_HITS : PONDER_MISSES).increment();
+            pondered = null;
+        }
+        cancel();
+        long stops = search.stops();
+        Position snapshot = new Position(geometry);
+        snapshot.copyFrom(current);
+        long requested = System.nanoTime();
+        executor.execute(() -> {
+            // The clock has been running while a ponder iteration wound down.
+            long left = remainingNanos - (System.nanoTime() - requested);
+            SearchLimits limits = timeManager.limitsFor(left, incrementNanos, ply, SearchLimits.MAX_DEPTH, Long.MAX_VALUE);
+            SearchResult result = search.search(snapshot, limits, stops);
+            Platform.runLater(() -> onResult.accept(result));
+        });
+    }
+
+    /**
+     * Starts pondering on the opponent's time, {@code current} being the
+     * position the opponent is to move in. Does nothing when pondering is
+     * off or the table has no move to expect.
+     */
+    public void ponder(Position current) {
+        if (!PONDER) return;
+        cancel();
+        Position expected = new Position(geometry);
+        expected.copyFrom(current);
+        long entry = search.table().probe(expected.key());
+        int move = entry != 0 ? TranspositionTable.move(entry) : TranspositionTable.NO_MOVE;
+        if (move == TranspositionTable.NO_MOVE) return;
+
+        generator.generate(expected, moves);
+        int index = moves.find(TranspositionTable.moveFrom(move), TranspositionTable.moveTo(move));
+        if (index < 0) return;
+        expected.play(moves, index);
+        pondered = expected;
+
+        long stops = search.stops();
+        // One unbounded search deepens on its own and keeps its killers and history; cancel() ends it.
+        executor.execute(() -> search.search(expected, SearchLimits.depth(SearchLimits.MAX_DEPTH), stops));
+    }
+
+    private static boolean samePosition(Position a, Position b) {
+        return a.key() == b.key() && a.isRedToMove() == b.isRedToMove()
+                && a.redMen() == b.redMen() && a.redKings() == b.redKings()
+                && a.whiteMen() == b.whiteMen() && a.whiteKings() == b.whiteKings();
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public CaptureRule getCaptureRule() {
+        return generator.rule();
+    }
+
+    /**
+     * Stops pondering and any move request made so far; a request that was
+     * already searching still returns its best move so far.
+     */
+    public void cancel() {
+        search.stop();
+    }
+
+    /** Stops thinking and frees the search once any queued request has returned. */
+    public void close() {
+        cancel();
+        executor.execute(search::close);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,92 @@
+package checkers;
+
+import checkers.archive.PositionIndex;
+import checkers.archive.PositionStats;
+import checkers.engine.Position;
+import javafx.application.Platform;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The {@link PositionIndex} of the game archive, used on a thread of its
+ * own: finished games are indexed there as they are archived, and lookups
+ * of the board position come back through {@link Platform#runLater}. The
+ * index is opened on first use and brought up to date with the archive
+ * then, which covers games archived before it existed. Only the answer to
+ * the latest {@link #lookup} is delivered.
+ */
+public class GameDatabase {
+    private final Path archive;
+    private final Consumer<PositionStats> onStats;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "game-database");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong generation = new AtomicLong();
+
+    private PositionIndex index;
+    private boolean failed;
+
+    /** {@code onStats} is called on the application thread. */
+    public GameDatabase(Path archive, Consumer<PositionStats> onStats) {
+        this.archive = archive;
+        this.onStats = onStats;
+    }
+
+    /** Indexes the games appended to the archive since the last call. */
+    public void gameArchived() {
+        executor.execute(() -> {
+            PositionIndex index = index();
+            if (index == null) return;
+            try {
+                index.update(archive);
+            } catch (IOException e) {
+                System.err.println("Could not index " + archive + ": " + e.getMessage());
+            }
+        });
+    }
+
+    /** Looks up {@code position}, dropping any lookup still waiting. */
+    public void lookup(Position position) {
+        long key = position.key();
+        long forGeneration = generation.incrementAndGet();
+        executor.execute(() -> {
+            if (forGeneration != generation.get()) return;
+            PositionIndex index = index();
+            if (index == null) return;
+            PositionStats stats = index.lookup(key, 0, new PositionStats());
+            Platform.runLater(() -> {
+                if (forGeneration == generation.get()) {
+                    onStats.accept(stats);
+                }
+            });
+        });
+    }
+
+    /** Drops the pending lookup; nothing more is delivered until the next {@link #lookup}. */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    private PositionIndex index() {
+        if (index == null && !failed) {
+            try {
+                index = new PositionIndex(PositionIndex.directoryFor(archive));
+                if (Files.exists(archive)) {
+                    index.update(archive);
+                }
+            } catch (IOException e) {
+                System.err.println("Could not open the index of " + archive + ": " + e.getMessage());
+                failed = true;
+            }
+        }
+        return index;
+    }
+}
@@ -0,0 +1,419 @@
+package checkers;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.CaptureRule;
+import checkers.engine.DrawDetector;
+import checkers.engine.DrawRules;
+import checkers.engine.MobilityTracker;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import checkers.engine.Position;
+import checkers.engine.UndoStack;
+import checkers.metrics.Metrics;
+import checkers.metrics.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class GameLogic {
+    private static final Timer TRY_MOVE = Metrics.timer("checkers_try_move", "GameLogic.tryMove");
+    private static final Timer UPDATE_CAPTURES = Metrics.timer("checkers_update_captures",
+            "GameLogic.updateAvailableCaptures");
+    private static final Timer CHECK_GAME_END = Metrics.timer("checkers_check_game_end", "GameLogic.checkGameEnd");
+
+    private final BoardGeometry geometry;
+    private final Position position;
+    private final MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final Position moveStart;
+    private final UndoStack history = new UndoStack();
+    private final MobilityTracker mobility;
+    private final DrawDetector draws;
+    private DrawDetector.Reason drawReason;
+    private final MoveResult kill = MoveResult.reusableKill();
+    /** Origin and landing squares of the move being played, for checking hops against the generated moves. */
+    private int moveOrigin;
+    private final int[] moveHops = new int[MoveBuffer.MAX_PATH];
+    private int moveHopCount;
+
+    private Tile[][] board;
+    private boolean redTurn = false;
+    private Piece capturingPiece = null;
+    private final List<Piece> piecesWithCaptures = new ArrayList<>();
+    private long captureMask = 0;
+    private boolean gameEnded = false;
+
+    public GameLogic(Tile[][] board) {
+        this(board, BoardGeometry.STANDARD);
+    }
+
+    public GameLogic(Tile[][] board, BoardGeometry geometry) {
+        this(board, geometry, CaptureRule.FREE);
+    }
+
+    public GameLogic(Tile[][] board, BoardGeometry geometry, CaptureRule captureRule) {
+        this(board, geometry, captureRule, DrawRules.DEFAULT);
+    }
+
+    public GameLogic(Tile[][] board, BoardGeometry geometry, CaptureRule captureRule, DrawRules drawRules) {
+        this.board = board;
+        this.geometry = geometry;
+        position = new Position(geometry);
+        generator = new MoveGenerator(geometry, captureRule);
+        moveStart = new Position(geometry);
+        mobility = new MobilityTracker(geometry);
+        draws = new DrawDetector(drawRules);
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public CaptureRule getCaptureRule() {
+        return generator.rule();
+    }
+
+    public void resetGame() {
+        redTurn = false;
+        capturingPiece = null;
+        piecesWithCaptures.clear();
+        captureMask = 0;
+        gameEnded = false;
+        drawReason = null;
+        position.clear();
+        history.clear();
+        mobility.reset();
+    }
+
+    public void setBoard(Tile[][] board) {
+        this.board = board;
+    }
+
+    public void syncPosition() {
+        position.clear();
+        for (int y = 0; y < geometry.height; y++) {
+            for (int x = 0; x < geometry.width; x++) {
+                Piece piece = board[x][y].getPiece();
+                if (piece != null) {
+                    position.put(geometry.square(x, y), piece.getType().isRed, piece.isKing);
+                }
+            }
+        }
+        position.setRedToMove(redTurn);
+        mobility.reset();
+        draws.reset(position);
+        drawReason = null;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public UndoStack getHistory() {
+        return history;
+    }
+
+    public boolean isRedTurn() {
+        return redTurn;
+    }
+
+    public void switchTurn() {
+        redTurn = !redTurn;
+        position.setRedToMove(redTurn);
+    }
+
+    public Piece getCapturingPiece() {
+        return capturingPiece;
+    }
+
+    public void setCapturingPiece(Piece piece) {
+        this.capturingPiece = piece;
+    }
+
+    public List<Piece> getPiecesWithCaptures() {
+        return piecesWithCaptures;
+    }
+
+    public void setGameEnded(boolean gameEnded) {
+        this.gameEnded = gameEnded;
+    }
+
+    public boolean isGameEnded() {
+        return gameEnded;
+    }
+
+    public void updateAvailableCaptures() {
+        long start = Timer.start();
+        findAvailableCaptures();
+        UPDATE_CAPTURES.stop(start);
+    }
+
+    private void findAvailableCaptures() {
+        piecesWithCaptures.clear();
+        captureMask = 0;
+        mobility.update(position);
+
+        if (capturingPiece != null) {
+            if (sequenceContinues()) {
+                captureMask = 1L << squareOf(capturingPiece);
+                piecesWithCaptures.add(capturingPiece);
+            }
+            return;
+        }
+
+        if (generator.rule() == CaptureRule.MAJORITY) {
+            // Only the pieces that start one of the longest sequences may capture.
+            int n = generator.generateCaptures(position, moves);
+            for (int i = 0; i < n; i++) {
+                captureMask |= 1L << moves.from(i);
+            }
+        } else {
+            captureMask = mobility.capturers(redTurn);
+        }
+        for (long mask = captureMask; mask != 0; mask &= mask - 1) {
+            int square = Long.numberOfTrailingZeros(mask);
+            piecesWithCaptures.add(board[geometry.x(square)][geometry.y(square)].getPiece());
+        }
+    }
+
+    public boolean canPieceMove(Piece piece) {
+        if (gameEnded) {
+            return false;
+        }
+
+        boolean isPlayerTurn = (piece.getType().isRed && redTurn) || (!piece.getType().isRed && !redTurn);
+
+        if (!isPlayerTurn) {
+            return false;
+        }
+
+        if (capturingPiece != null) {
+            return capturingPiece == piece;
+        }
+
+        if (captureMask != 0) {
+            return (captureMask & (1L << squareOf(piece))) != 0;
+        }
+
+        return true;
+    }
+
+    public void checkAndPromote(Piece piece, int newY) {
+        if (!piece.isKing) {
+            if ((piece.getType() == PieceType.RED && newY == geometry.height - 1) ||
+                    (piece.getType() == PieceType.WHITE && newY == 0)) {
+                piece.makeKing();
+                int square = geometry.square(toBoard(piece.oldX), newY);
+                position.promote(square);
+                mobility.touch(square);
+            }
+        }
+    }
+
+    /** Whether the capture sequence {@code piece} is playing goes on from its square {@code x}, {@code y}. */
+    public boolean hasAnyCaptures(Piece piece, int x, int y) {
+        return moveHopCount > 0 && moveHops[moveHopCount - 1] == geometry.square(x, y) && sequenceContinues();
+    }
+
+    public void makeMove(Piece piece, int newX, int newY) {
+        int x0 = toBoard(piece.oldX);
+        int y0 = toBoard(piece.oldY);
+        int from = geometry.square(x0, y0);
+        int to = geometry.square(newX, newY);
+        if (capturingPiece == null) {
+            moveStart.copyFrom(position);
+            moveOrigin = from;
+            moveHopCount = 0;
+        }
+        moveHops[moveHopCount++] = to;
+        board[x0][y0].setPiece(null);
+        piece.move(newX, newY);
+        board[newX][newY].setPiece(piece);
+        position.move(from, to);
+        mobility.touch(from);
+        mobility.touch(to);
+    }
+
+    /**
+     * Records the move just played hop by hop as one reversible move. Every
+     * hop passed {@link #tryMove}, which only accepts hops of generated
+     * moves, so a move the rules engine does not know is a bug and throws
+     * {@link IllegalStateException} without touching the history.
+     */
+    public void commitMove(int from, int[] path, int hops) {
+        int n = generator.generate(moveStart, moves);
+        for (int i = 0; i < n; i++) {
+            if (moves.from(i) != from || moves.pathLength(i) != hops) continue;
+            boolean same = true;
+            for (int h = 0; h < hops && same; h++) {
+                same = moves.pathSquare(i, h) == path[h];
+            }
+            if (same) {
+                position.copyFrom(moveStart);
+                position.make(moves, i, history);
+                drawReason = draws.onMove(position, moves, i);
+                return;
+            }
+        }
+        throw new IllegalStateException("Move from square " + from + " is not a legal move");
+    }
+
+    public boolean canUndo() {
+        return !history.isEmpty() && capturingPiece == null && !gameEnded;
+    }
+
+    /**
+     * Takes back the last complete move on the board and in the position.
+     * Pieces it captured are not recreated here; the caller puts them back
+     * on the squares of the returned mask.
+     */
+    public long undoMove() {
+        int i = history.size() - 1;
+        int from = history.from(i);
+        int to = history.to(i);
+        long captured = history.captured(i);
+        boolean promoted = history.promoted(i);
+
+        Piece piece = board[geometry.x(to)][geometry.y(to)].getPiece();
+        board[geometry.x(to)][geometry.y(to)].setPiece(null);
+        board[geometry.x(from)][geometry.y(from)].setPiece(piece);
+        piece.move(geometry.x(from), geometry.y(from));
+        if (promoted) {
+            piece.makeMan();
+        }
+
+        position.unmake(history);
+        draws.rebuild(position, history);
+        drawReason = null;
+        mobility.touch(from);
+        mobility.touch(to);
+        mobility.touchAll(captured);
+        redTurn = position.isRedToMove();
+        capturingPiece = null;
+        return captured;
+    }
+
+    public void placePiece(Piece piece, int x, int y) {
+        board[x][y].setPiece(piece);
+    }
+
+    public void removePiece(Piece piece) {
+        int x = toBoard(piece.oldX);
+        int y = toBoard(piece.oldY);
+        board[x][y].setPiece(null);
+        int square = geometry.square(x, y);
+        position.remove(square);
+        mobility.touch(square);
+    }
+
+    private boolean isInBounds(int x, int y) {
+        return x < 0 || y < 0 || x >= geometry.width || y >= geometry.height;
+    }
+
+    /** Checks one hop of {@code piece}; the result is reused by the next call. */
+    public MoveResult tryMove(Piece piece, int newX, int newY) {
+        long start = Timer.start();
+        MoveResult result = checkMove(piece, newX, newY);
+        TRY_MOVE.stop(start);
+        return result;
+    }
+
+    /**
+     * Accepts the hop only if the hops made so far followed by it begin a
+     * move of {@link MoveGenerator}, which also decides whether it captures.
+     */
+    private MoveResult checkMove(Piece piece, int newX, int newY) {
+        if (isInBounds(newX, newY)) return MoveResult.NONE;
+        if (board[newX][newY].hasPiece() || (newX + newY) % 2 == 0) return MoveResult.NONE;
+
+        int x0 = toBoard(piece.oldX);
+        int y0 = toBoard(piece.oldY);
+        int i = findContinuation(geometry.square(x0, y0), geometry.square(newX, newY));
+        if (i < 0) return MoveResult.NONE;
+        if (moves.captured(i) == 0) return MoveResult.NORMAL;
+
+        kill.clearCaptured();
+        long taken = between(x0, y0, newX, newY) & position.pieces(!piece.getType().isRed);
+        for (; taken != 0; taken &= taken - 1) {
+            int square = Long.numberOfTrailingZeros(taken);
+            kill.addCaptured(board[geometry.x(square)][geometry.y(square)].getPiece());
+        }
+        return kill;
+    }
+
+    /** Why the last committed move drew the game, or {@code null}. */
+    public DrawDetector.Reason getDrawReason() {
+        return drawReason;
+    }
+
+    /**
+     * Calls {@code endGameCallback} with the winner, or with {@code null} when
+     * the game is drawn. Call it once a move is complete and the turn has
+     * passed: the side to move loses when it has no move left.
+     */
+    public void checkGameEnd(Consumer<PieceType> endGameCallback) {
+        if (gameEnded) return;
+
+        long start = Timer.start();
+        mobility.update(position);
+        boolean over = !mobility.hasAnyMove(redTurn);
+        CHECK_GAME_END.stop(start);
+        if (over) {
+            endGameCallback.accept(redTurn ? PieceType.WHITE : PieceType.RED);
+        } else if (drawReason != null) {
+            endGameCallback.accept(null);
+        }
+    }
+
+    /** Returns the squares strictly between two squares on one diagonal. */
+    private long between(int x0, int y0, int newX, int newY) {
+        int d = BoardGeometry.direction(newX - x0, newY - y0);
+        int to = geometry.square(newX, newY);
+        return geometry.ray(geometry.square(x0, y0), d) & ~(geometry.ray(to, d) | 1L << to);
+    }
+
+    /**
+     * Index in {@link #moves} of a generated move that starts with the hops
+     * made so far followed by {@code from}-{@code to}, or -1. Only a piece
+     * in the middle of a capture sequence continues one.
+     */
+    private int findContinuation(int from, int to) {
+        boolean continuing = capturingPiece != null;
+        int origin = continuing ? moveOrigin : from;
+        int done = continuing ? moveHopCount : 0;
+        if (continuing && from != moveHops[done - 1]) return -1;
+        int n = generator.generate(continuing ? moveStart : position, moves);
+        for (int i = 0; i < n; i++) {
+            if (moves.pathLength(i) > done && moves.pathSquare(i, done) == to && startsWithHopsMade(i, origin, done)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Whether a generated move takes the piece on from the last hop made. */
+    private boolean sequenceContinues() {
+        int n = generator.generate(moveStart, moves);
+        for (int i = 0; i < n; i++) {
+            if (moves.pathLength(i) > moveHopCount && startsWithHopsMade(i, moveOrigin, moveHopCount)) return true;
+        }
+        return false;
+    }
+
+    private boolean startsWithHopsMade(int i, int origin, int done) {
+        if (moves.from(i) != origin) return false;
+        for (int h = 0; h < done; h++) {
+            if (moves.pathSquare(i, h) != moveHops[h]) return false;
+        }
+        return true;
+    }
+
+    public int squareOf(Piece piece) {
+        return geometry.square(toBoard(piece.oldX), toBoard(piece.oldY));
+    }
+
+    public int toBoard(double pixel) {
+        return (int)(pixel + (double) Tile.TILE_SIZE / 2) / Tile.TILE_SIZE;
+    }
+}
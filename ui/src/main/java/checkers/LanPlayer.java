@@ -0,0 +1,67 @@
+package checkers;
+
+import checkers.net.GameClient;
+import checkers.net.GameClientListener;
+import checkers.net.Protocol;
+import javafx.application.Platform;
+
+import java.io.IOException;
+
+public class LanPlayer implements GameClientListener {
+    private final CheckersGame game;
+    private final GameClient client;
+
+    public LanPlayer(CheckersGame game, String host, int port) throws IOException {
+        this.game = game;
+        this.client = new GameClient(host, port, this);
+    }
+
+    public void join(int gameId) throws IOException {
+        client.join(gameId);
+    }
+
+    public void sendMove(int from, int[] path, int hops) {
+        try {
+            client.sendMove(from, path, hops);
+        } catch (IOException e) {
+            disconnected();
+        }
+    }
+
+    public void close() {
+        client.close();
+    }
+
+    @Override
+    public void joined(int gameId, boolean red, int baseMillis, int incrementMillis) {
+        Platform.runLater(() -> game.onLanJoined(this, gameId, red, baseMillis));
+    }
+
+    @Override
+    public void started() {
+        Platform.runLater(() -> game.onLanStarted(this));
+    }
+
+    @Override
+    public void moved(int from, int[] path, int redMillis, int whiteMillis, boolean gameOver) {
+        Platform.runLater(() -> game.onLanMove(this, from, path, redMillis, whiteMillis, gameOver));
+    }
+
+    @Override
+    public void rejected(int reason) {
+        String message = reason == Protocol.REJECT_GAME_ID
+                ? "Numer stołu musi być mniejszy niż " + Protocol.FIRST_AUTO_GAME_ID + "."
+                : "Serwer odrzucił ruch (kod " + reason + ").";
+        Platform.runLater(() -> game.onLanLost(this, message));
+    }
+
+    @Override
+    public void gameOver(int winner, int reason) {
+        Platform.runLater(() -> game.onLanGameOver(this, winner));
+    }
+
+    @Override
+    public void disconnected() {
+        Platform.runLater(() -> game.onLanLost(this, "Połączenie z serwerem zostało przerwane."));
+    }
+}
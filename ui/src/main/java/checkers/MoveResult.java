@@ -0,0 +1,75 @@
+package checkers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of {@link GameLogic#tryMove}. {@link #NONE} and {@link #NORMAL}
+ * are shared constants and a capture reuses one result per
+ * {@code GameLogic}, so checking a move does not allocate; a result is only
+ * valid until the next call to {@code tryMove}.
+ */
+public class MoveResult {
+    public static final MoveResult NONE = new MoveResult(MoveType.NONE);
+    public static final MoveResult NORMAL = new MoveResult(MoveType.NORMAL);
+
+    private final MoveType type;
+    private final List<Piece> captured;
+    private final List<Piece> capturedView;
+    private final boolean reusable;
+
+    public MoveResult(MoveType type) {
+        this(type, List.of());
+    }
+
+    public MoveResult(MoveType type, Piece piece) {
+        this(type, List.of(piece));
+    }
+
+    public MoveResult(MoveType type, List<Piece> capturedPieces) {
+        this(type, new ArrayList<>(capturedPieces), false);
+    }
+
+    private MoveResult(MoveType type, List<Piece> captured, boolean reusable) {
+        this.type = type;
+        this.captured = captured;
+        this.capturedView = Collections.unmodifiableList(captured);
+        this.reusable = reusable;
+    }
+
+    /** The capture result a {@code GameLogic} refills on every {@code tryMove}. */
+    static MoveResult reusableKill() {
+        return new MoveResult(MoveType.KILL, new ArrayList<>(), true);
+    }
+
+    public MoveType getType() {
+        return type;
+    }
+
+    /** The first captured piece, or null. */
+    public Piece getPiece() {
+        return captured.isEmpty() ? null : captured.getFirst();
+    }
+
+    /** The captured pieces in path order, read-only. */
+    public List<Piece> getCapturedPieces() {
+        return capturedView;
+    }
+
+    void clearCaptured() {
+        checkReusable();
+        captured.clear();
+    }
+
+    void addCaptured(Piece piece) {
+        checkReusable();
+        captured.add(piece);
+    }
+
+    private void checkReusable() {
+        if (!reusable) {
+            throw new IllegalStateException("Only the reusable kill result is refilled");
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package checkers;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One side's move times, stored as nanoseconds in a growing array. It is
+ * the item list of a {@code ListView}, which only asks for the rows it
+ * shows, so a row's text is built on demand and long games add no nodes.
+ */
+public class MoveTimeList extends ObservableListBase<String> {
+    private long[] nanos = new long[64];
+    private int size;
+
+    public void add(long moveNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = moveNanos;
+        beginChange();
+        nextAdd(size - 1, size);
+        endChange();
+    }
+
+    public void removeLastMove() {
+        if (size == 0) return;
+        String removed = get(size - 1);
+        size--;
+        beginChange();
+        nextRemove(size, removed);
+        endChange();
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) return;
+        List<String> removed = new ArrayList<>(this);
+        size = 0;
+        beginChange();
+        nextRemove(0, removed);
+        endChange();
+    }
+
+    public long nanos(int index) {
+        return nanos[index];
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return String.format("Ruch %d: %.3f s", index + 1, nanos[index] / 1_000_000_000.0);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -3,16 +3,23 @@ package checkers;
 import javafx.scene.Group;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Piece extends Group {
-    public static final int TILE_SIZE = 80;
+    private static final int TILE_SIZE = Tile.TILE_SIZE;
+
+    private static final List<int[]> ALL_DIRECTIONS = List.of(
+            new int[]{1, 1}, new int[]{-1, 1}, new int[]{1, -1}, new int[]{-1, -1});
+    private static final List<int[]> RED_DIRECTIONS = List.of(
+            new int[]{1, PieceType.RED.moveDir}, new int[]{-1, PieceType.RED.moveDir});
+    private static final List<int[]> WHITE_DIRECTIONS = List.of(
+            new int[]{1, PieceType.WHITE.moveDir}, new int[]{-1, PieceType.WHITE.moveDir});
 
     private final PieceType type;
     public boolean isKing = false;
     public double mouseX, mouseY;
     public double oldX, oldY;
+    private final Circle crown;
 
     public Piece(PieceType type, int x, int y) {
         this.type = type;
@@ -26,7 +33,13 @@ public class Piece extends Group {
         circle.setTranslateX((double) TILE_SIZE / 2);
         circle.setTranslateY((double) TILE_SIZE / 2);
 
-        getChildren().add(circle);
+        crown = new Circle(TILE_SIZE * 0.15);
+        crown.setFill(Color.GOLD);
+        crown.setTranslateX((double) TILE_SIZE / 2);
+        crown.setTranslateY((double) TILE_SIZE / 2);
+        crown.setVisible(false);
+
+        getChildren().addAll(circle, crown);
     }
 
     public PieceType getType() {
@@ -47,33 +60,22 @@ public class Piece extends Group {
 
     public void makeKing() {
         isKing = true;
-        Circle crown = new Circle(TILE_SIZE * 0.15);
-        crown.setFill(Color.GOLD);
-        crown.setTranslateX((double) TILE_SIZE / 2);
-        crown.setTranslateY((double) TILE_SIZE / 2);
-        getChildren().add(crown);
+        crown.setVisible(true);
+    }
+
+    public void makeMan() {
+        isKing = false;
+        crown.setVisible(false);
     }
 
+    /** Shared and read-only; the arrays must not be modified. */
     public List<int[]> getMoveDirections() {
-        List<int[]> directions = new ArrayList<>();
-        directions.add(new int[]{1, 1});
-        directions.add(new int[]{-1, 1});
-        directions.add(new int[]{1, -1});
-        directions.add(new int[]{-1, -1});
-        return directions;
+        return ALL_DIRECTIONS;
     }
 
+    /** Shared and read-only; the arrays must not be modified. */
     public List<int[]> getNormalMoveDirections() {
-        List<int[]> directions = new ArrayList<>();
-        if (isKing) {
-            directions.add(new int[]{1, 1});
-            directions.add(new int[]{-1, 1});
-            directions.add(new int[]{1, -1});
-            directions.add(new int[]{-1, -1});
-        } else {
-            directions.add(new int[]{1, type.moveDir});
-            directions.add(new int[]{-1, type.moveDir});
-        }
-        return directions;
+        if (isKing) return ALL_DIRECTIONS;
+        return type == PieceType.RED ? RED_DIRECTIONS : WHITE_DIRECTIONS;
     }
 }
\ No newline at end of file
@@ -7,6 +7,7 @@ import javafx.scene.shape.Rectangle;
 public class Tile extends StackPane {
     public static final int TILE_SIZE = 80;
 
+    private final Rectangle highlight;
     private Piece piece;
 
     public Tile(boolean light, int x, int y) {
@@ -16,7 +17,17 @@ public class Tile extends StackPane {
 
         Rectangle rect = new Rectangle(TILE_SIZE, TILE_SIZE);
         rect.setFill(light ? Color.BEIGE : Color.BROWN);
-        getChildren().add(rect);
+        highlight = new Rectangle(TILE_SIZE - 6, TILE_SIZE - 6);
+        highlight.setFill(Color.TRANSPARENT);
+        highlight.setStrokeWidth(6);
+        highlight.setVisible(false);
+        getChildren().addAll(rect, highlight);
+    }
+
+    /** Frames the square in {@code color}; {@code null} removes the frame. */
+    public void setHighlight(Color color) {
+        highlight.setStroke(color);
+        highlight.setVisible(color != null);
     }
 
     public boolean hasPiece() {
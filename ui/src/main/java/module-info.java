@@ -1,6 +1,8 @@
 module checkers.game {
+    requires checkers.core;
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.management;
 
     exports checkers;
-}
\ No newline at end of file
+}
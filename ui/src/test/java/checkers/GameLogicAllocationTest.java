@@ -0,0 +1,158 @@
+package checkers;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.MoveBuffer;
+import checkers.engine.MoveGenerator;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays random games through {@link GameLogic} hop by hop, the way
+ * {@code CheckersGame} drives it, and fails when the rules path allocates
+ * again once warmed up.
+ */
+class GameLogicAllocationTest {
+    private static final int GAMES = 1000;
+    private static final int MAX_PLIES = 300;
+    private static final double MAX_BYTES_PER_MOVE = 1.0;
+
+    private BoardGeometry geometry;
+    private MoveGenerator generator;
+    private final MoveBuffer moves = new MoveBuffer();
+    private final int[] path = new int[MoveBuffer.MAX_PATH];
+    private Tile[][] board;
+    private Piece[] pieces;
+    private GameLogic logic;
+    private Consumer<PieceType> onGameEnd;
+    private final SplittableRandom random = new SplittableRandom(1);
+    private boolean ended;
+    private long moveCount;
+
+    @ParameterizedTest(name = "{0}x{0}")
+    @ValueSource(ints = {8, 10})
+    void warmRulesPathDoesNotAllocate(int size) {
+        setUpBoard(BoardGeometry.of(size));
+        play(GAMES);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        long movesBefore = moveCount;
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        play(GAMES);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        long played = moveCount - movesBefore;
+
+        double perMove = (double) allocated / played;
+        assertTrue(perMove <= MAX_BYTES_PER_MOVE,
+                "Rules path allocates " + perMove + " bytes per move over " + played + " moves");
+    }
+
+    private void setUpBoard(BoardGeometry geometry) {
+        this.geometry = geometry;
+        generator = new MoveGenerator(geometry);
+        board = new Tile[geometry.width][geometry.height];
+        for (int y = 0; y < geometry.height; y++) {
+            for (int x = 0; x < geometry.width; x++) {
+                board[x][y] = new Tile((x + y) % 2 == 0, x, y);
+            }
+        }
+        pieces = new Piece[geometry.squares];
+        int n = 0;
+        for (int s = 0; s < geometry.squares; s++) {
+            if (geometry.isInitialRedSquare(s)) {
+                pieces[n++] = new Piece(PieceType.RED, geometry.x(s), geometry.y(s));
+            } else if (geometry.isInitialWhiteSquare(s)) {
+                pieces[n++] = new Piece(PieceType.WHITE, geometry.x(s), geometry.y(s));
+            }
+        }
+        logic = new GameLogic(board, geometry);
+        onGameEnd = _ -> {
+            ended = true;
+            logic.setGameEnded(true);
+        };
+    }
+
+    private void play(int games) {
+        for (int game = 0; game < games; game++) {
+            setUp();
+            for (int ply = 0; ply < MAX_PLIES && !ended; ply++) {
+                int n = generator.generate(logic.getPosition(), moves);
+                if (n == 0) break;
+                playMove(random.nextInt(n));
+                moveCount++;
+            }
+        }
+    }
+
+    private void setUp() {
+        for (Tile[] column : board) {
+            for (Tile tile : column) {
+                tile.setPiece(null);
+            }
+        }
+        int n = 0;
+        for (int s = 0; s < geometry.squares; s++) {
+            if (geometry.isInitialRedSquare(s) || geometry.isInitialWhiteSquare(s)) {
+                Piece piece = pieces[n++];
+                piece.makeMan();
+                piece.move(geometry.x(s), geometry.y(s));
+                board[geometry.x(s)][geometry.y(s)].setPiece(piece);
+            }
+        }
+        ended = false;
+        logic.resetGame();
+        logic.syncPosition();
+        logic.updateAvailableCaptures();
+    }
+
+    private void playMove(int index) {
+        int from = moves.from(index);
+        Piece piece = board[geometry.x(from)][geometry.y(from)].getPiece();
+        if (!logic.canPieceMove(piece)) {
+            throw new AssertionError("GameLogic refuses to move the piece on square " + from);
+        }
+        int hops = moves.pathLength(index);
+        for (int h = 0; h < hops; h++) {
+            int x = geometry.x(moves.pathSquare(index, h));
+            int y = geometry.y(moves.pathSquare(index, h));
+            MoveResult result = logic.tryMove(piece, x, y);
+            if (result.getType() == MoveType.NORMAL) {
+                logic.makeMove(piece, x, y);
+                logic.checkAndPromote(piece, y);
+                endTurn(from, index);
+            } else if (result.getType() == MoveType.KILL) {
+                logic.makeMove(piece, x, y);
+                for (int i = 0; i < result.getCapturedPieces().size(); i++) {
+                    logic.removePiece(result.getCapturedPieces().get(i));
+                }
+                logic.checkAndPromote(piece, y);
+                if (logic.hasAnyCaptures(piece, x, y)) {
+                    logic.setCapturingPiece(piece);
+                    logic.updateAvailableCaptures();
+                } else {
+                    endTurn(from, index);
+                }
+            } else {
+                throw new AssertionError("GameLogic rejects a generated hop to square " + moves.pathSquare(index, h));
+            }
+        }
+    }
+
+    private void endTurn(int from, int index) {
+        logic.setCapturingPiece(null);
+        logic.switchTurn();
+        int hops = moves.pathLength(index);
+        for (int h = 0; h < hops; h++) {
+            path[h] = moves.pathSquare(index, h);
+        }
+        logic.commitMove(from, path, hops);
+        logic.updateAvailableCaptures();
+        logic.checkGameEnd(onGameEnd);
+    }
+}
@@ -0,0 +1,145 @@
+package checkers;
+
+import checkers.engine.BoardGeometry;
+import checkers.engine.Fen;
+import checkers.engine.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link GameLogic} accepts a drag only if it is a hop of a move the rules
+ * engine lists. Squares are numbered from 0 as in {@link BoardGeometry}.
+ */
+class GameLogicTest {
+    private final BoardGeometry geometry = BoardGeometry.STANDARD;
+    private Tile[][] board;
+    private GameLogic logic;
+    private final List<PieceType> winners = new ArrayList<>();
+
+    private void setUp(String fen) {
+        Position position = Fen.parse(fen, geometry);
+        board = new Tile[geometry.width][geometry.height];
+        for (int y = 0; y < geometry.height; y++) {
+            for (int x = 0; x < geometry.width; x++) {
+                board[x][y] = new Tile((x + y) % 2 == 0, x, y);
+            }
+        }
+        for (long pieces = position.occupied(); pieces != 0; pieces &= pieces - 1) {
+            int s = Long.numberOfTrailingZeros(pieces);
+            Piece piece = new Piece(position.isRed(s) ? PieceType.RED : PieceType.WHITE, geometry.x(s), geometry.y(s));
+            if (position.isKing(s)) {
+                piece.makeKing();
+            }
+            board[geometry.x(s)][geometry.y(s)].setPiece(piece);
+        }
+        logic = new GameLogic(board, geometry);
+        logic.resetGame();
+        if (position.isRedToMove()) {
+            logic.switchTurn();
+        }
+        logic.syncPosition();
+        logic.updateAvailableCaptures();
+    }
+
+    private Piece pieceOn(int square) {
+        return board[geometry.x(square)][geometry.y(square)].getPiece();
+    }
+
+    private MoveResult tryMove(int from, int to) {
+        return logic.tryMove(pieceOn(from), geometry.x(to), geometry.y(to));
+    }
+
+    /** Plays an accepted capture hop the way {@code CheckersGame.handleKillMove} does. */
+    private void capture(int from, int to) {
+        Piece piece = pieceOn(from);
+        MoveResult result = logic.tryMove(piece, geometry.x(to), geometry.y(to));
+        assertEquals(MoveType.KILL, result.getType(), "hop " + from + "-" + to);
+        assertEquals(1, result.getCapturedPieces().size(), "pieces taken by hop " + from + "-" + to);
+        Piece taken = result.getPiece();
+        logic.makeMove(piece, geometry.x(to), geometry.y(to));
+        logic.removePiece(taken);
+        logic.checkAndPromote(piece, geometry.y(to));
+        logic.setCapturingPiece(logic.hasAnyCaptures(piece, geometry.x(to), geometry.y(to)) ? piece : null);
+        logic.updateAvailableCaptures();
+    }
+
+    /** Completes the move the way {@code CheckersGame} does and checks for the end of the game. */
+    private void endTurn(int from, int... path) {
+        logic.switchTurn();
+        logic.commitMove(from, path, path.length);
+        logic.updateAvailableCaptures();
+        logic.checkGameEnd(winners::add);
+    }
+
+    @Test
+    void manDoesNotCaptureFromRange() {
+        // White man on 21, red man on 14 with 17 empty between them.
+        setUp("W:W22:R15");
+        assertEquals(MoveType.NONE, tryMove(21, 10).getType());
+        assertEquals(MoveType.NORMAL, tryMove(21, 17).getType());
+    }
+
+    @Test
+    void kingTakesSeparatedPiecesOneHopAtATime() {
+        // White king on 28, red men on 21 and 14 on its diagonal, 24, 17 and 10 empty.
+        setUp("W:WK29:R22,15");
+        assertEquals(MoveType.NONE, tryMove(28, 10).getType());
+
+        Piece king = pieceOn(28);
+        capture(28, 17);
+        assertSame(king, logic.getCapturingPiece());
+        assertEquals(MoveType.NONE, tryMove(17, 24).getType());
+        capture(17, 10);
+        assertNull(logic.getCapturingPiece());
+
+        logic.switchTurn();
+        logic.commitMove(28, new int[]{17, 10}, 2);
+        assertEquals(1, logic.getHistory().size());
+        assertEquals(0, logic.getPosition().pieces(true));
+    }
+
+    @Test
+    void unknownMoveIsRefusedWithoutForgettingHistory() {
+        setUp("W:W22:R15");
+        Piece piece = pieceOn(21);
+        assertEquals(MoveType.NORMAL, tryMove(21, 17).getType());
+        logic.makeMove(piece, geometry.x(17), geometry.y(17));
+        logic.switchTurn();
+        logic.commitMove(21, new int[]{17}, 1);
+        assertEquals(1, logic.getHistory().size());
+
+        assertThrows(IllegalStateException.class, () -> logic.commitMove(14, new int[]{10}, 1));
+        assertEquals(1, logic.getHistory().size());
+        assertTrue(logic.canUndo());
+        assertFalse(logic.getPosition().isOccupied(21));
+    }
+
+    @Test
+    void sideToMoveWithoutMovesLoses() {
+        setUp("W:W22:R18");
+        capture(21, 14);
+        endTurn(21, 14);
+        assertEquals(List.of(PieceType.WHITE), winners);
+    }
+
+    @Test
+    void blockedMoverPlaysOn() {
+        // White's last man runs into red's on the edge; red still has a move.
+        setUp("W:W9:R1");
+        Piece piece = pieceOn(8);
+        assertEquals(MoveType.NORMAL, tryMove(8, 4).getType());
+        logic.makeMove(piece, geometry.x(4), geometry.y(4));
+        endTurn(8, 4);
+        assertEquals(List.of(), winners);
+        assertFalse(logic.getPosition().hasAnyMove(false));
+    }
+}
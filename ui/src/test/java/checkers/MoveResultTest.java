@@ -0,0 +1,48 @@
+package checkers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveResultTest {
+    @Test
+    void reusableKillIsRefilledInPlace() {
+        Piece first = new Piece(PieceType.RED, 1, 2);
+        Piece second = new Piece(PieceType.RED, 3, 4);
+        MoveResult kill = MoveResult.reusableKill();
+        List<Piece> captured = kill.getCapturedPieces();
+
+        kill.addCaptured(first);
+        kill.addCaptured(second);
+        assertEquals(MoveType.KILL, kill.getType());
+        assertSame(first, kill.getPiece());
+        assertEquals(List.of(first, second), captured);
+
+        kill.clearCaptured();
+        assertTrue(captured.isEmpty());
+        assertNull(kill.getPiece());
+    }
+
+    @Test
+    void capturedPiecesAreReadOnly() {
+        Piece piece = new Piece(PieceType.WHITE, 0, 1);
+        MoveResult kill = MoveResult.reusableKill();
+        assertThrows(UnsupportedOperationException.class, () -> kill.getCapturedPieces().add(piece));
+        MoveResult single = new MoveResult(MoveType.KILL, piece);
+        assertThrows(UnsupportedOperationException.class, () -> single.getCapturedPieces().clear());
+    }
+
+    @Test
+    void onlyTheReusableKillIsRefilled() {
+        Piece piece = new Piece(PieceType.WHITE, 0, 1);
+        assertThrows(IllegalStateException.class, () -> MoveResult.NONE.addCaptured(piece));
+        assertThrows(IllegalStateException.class, () -> new MoveResult(MoveType.KILL, List.of(piece)).clearCaptured());
+        assertEquals(List.of(), MoveResult.NORMAL.getCapturedPieces());
+    }
+}